@@ -0,0 +1,83 @@
+package com.lassis.chess.benchmark;
+
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.PositionCache;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.ChessStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves through {@link ChessGame}, every move validates the rules and calculates the status of both colors
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    @Param({"false", "true"})
+    boolean cached;
+
+    PositionCache cache;
+    ChessGame game;
+
+    @Setup
+    public void setup() {
+        cache = cached ? new PositionCache() : PositionCache.disabled();
+        game = new ChessGame(cache);
+
+        ChessGameStatus status = replay(new ChessGame(cache), null);
+        if (status.blackStatus() != ChessStatus.CHECKMATE) {
+            throw new IllegalStateException("game replay should end on checkmate, got " + status);
+        }
+    }
+
+    /**
+     * four moves taking the knights out and back, then taken back. The undo history of the game would grow with every
+     * move otherwise, taking them back keeps it empty so the game stays in a steady state for the whole fork
+     */
+    @Benchmark
+    public void moveTo(Blackhole blackhole) {
+        for (String move : Positions.KNIGHTS_CYCLE) {
+            blackhole.consume(game.moveTo(Positions.from(move), Positions.to(move)));
+        }
+        for (int i = 0; i < Positions.KNIGHTS_CYCLE.size(); i++) {
+            blackhole.consume(game.takeback());
+        }
+    }
+
+    /**
+     * a new game played until checkmate
+     */
+    @Benchmark
+    public ChessGameStatus replay(Blackhole blackhole) {
+        return replay(new ChessGame(cache), blackhole);
+    }
+
+    private static ChessGameStatus replay(ChessGame game, Blackhole blackhole) {
+        ChessGameStatus status = game.getStatus();
+        for (String move : Positions.GAME) {
+            if (blackhole != null) {
+                blackhole.consume(game.allowedMoves(Positions.from(move)));
+            }
+            status = game.moveTo(Positions.from(move), Positions.to(move));
+        }
+        return status;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.lassis.chess.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of a running server, used to compare the request thread modes. Every client creates a game and then,
+ * until the time is over, moves the knights back and forth and reads the game status after every move, one request
+ * at a time. All clients run at once, so the number of clients is the number of concurrent requests.
+ * <p>
+ * Arguments: server url (default {@code http://localhost:8080}), clients (default 1000), seconds (default 30).
+ * It prints the requests per second, the latency percentiles and the failures.
+ */
+public class LoadGenerator {
+    private static final String[][] MOVES = {{"B1", "C3"}, {"B8", "C6"}, {"C3", "B1"}, {"C6", "B8"}};
+    private static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int BUCKETS = 100_000;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final String url;
+    private final long deadline;
+
+    private LoadGenerator(String url, long deadline) {
+        this.url = url;
+        this.deadline = deadline;
+    }
+
+    public static void main(String[] args) {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        long start = System.nanoTime();
+        LoadGenerator generator = new LoadGenerator(url, start + TimeUnit.SECONDS.toNanos(seconds));
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            runs[i] = generator.play();
+        }
+        CompletableFuture.allOf(runs).join();
+
+        generator.report(clients, System.nanoTime() - start);
+    }
+
+    private CompletableFuture<Void> play() {
+        return send(HttpRequest.newBuilder(URI.create(url + "/api/game")).POST(HttpRequest.BodyPublishers.noBody()))
+                .thenCompose(response -> Optional.ofNullable(response)
+                                                 .flatMap(v -> v.headers().firstValue("Location"))
+                                                 .map(location -> play(url + location, 0))
+                                                 .orElseGet(() -> CompletableFuture.completedFuture(null)));
+    }
+
+    private CompletableFuture<Void> play(String game, int ply) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String[] move = MOVES[ply % MOVES.length];
+        String body = "{\"from\":\"" + move[0] + "\",\"to\":\"" + move[1] + "\"}";
+        return send(HttpRequest.newBuilder(URI.create(game + "/moves"))
+                               .header("Content-Type", "application/json")
+                               .POST(HttpRequest.BodyPublishers.ofString(body)))
+                .thenCompose(response -> send(HttpRequest.newBuilder(URI.create(game + "/status")).GET()))
+                .thenCompose(response -> play(game, ply + 1));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        return client.sendAsync(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString())
+                     .handle((response, error) -> {
+                         latencies.incrementAndGet((int) Math.min((System.nanoTime() - start) / BUCKET_NANOS, BUCKETS - 1));
+                         requests.increment();
+                         if (error != null || response.statusCode() >= 400) {
+                             failures.increment();
+                         }
+                         return response;
+                     });
+    }
+
+    private void report(int clients, long elapsed) {
+        long total = requests.sum();
+        System.out.printf("clients %d, requests %d, failures %d, %.0f requests/s%n",
+                clients, total, failures.sum(), total / (elapsed / 1e9));
+        System.out.printf("latency p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(total, 0.50), percentile(total, 0.90), percentile(total, 0.99), percentile(total, 1.0));
+    }
+
+    private double percentile(long total, double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(total * fraction));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_NANOS / 1e6;
+            }
+        }
+        return BUCKETS * BUCKET_NANOS / 1e6;
+    }
+
+}
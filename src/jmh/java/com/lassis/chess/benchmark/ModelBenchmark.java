@@ -0,0 +1,91 @@
+package com.lassis.chess.benchmark;
+
+import com.lassis.chess.model.Bitboards;
+import com.lassis.chess.model.Board;
+import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Fen;
+import com.lassis.chess.model.MoveBuffer;
+import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.PieceType;
+import com.lassis.chess.model.Point;
+import com.lassis.chess.model.Square;
+import com.lassis.chess.model.SquareSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation on the {@link Board}, per piece and for a whole color
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    PieceType type;
+
+    Board board;
+    Piece piece;
+    Point point;
+    MoveBuffer buffer;
+
+    @Setup
+    public void setup() {
+        board = Fen.board(Positions.KIWIPETE);
+        point = Point.of(Bitboards.first(board.pieces(Color.WHITE, type)));
+        piece = board.piece(point).orElseThrow();
+        buffer = new MoveBuffer();
+    }
+
+    /**
+     * moves computed by the piece itself
+     */
+    @Benchmark
+    public SquareSet pieceAllowedMoves() {
+        return piece.allowedMoves(board, point);
+    }
+
+    /**
+     * moves read from the board attack maps
+     */
+    @Benchmark
+    public SquareSet boardAllowedMoves() {
+        return board.allowedMoves(point);
+    }
+
+    @Benchmark
+    public long legalTargets() {
+        return board.legalTargets(point.index());
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        buffer.clear();
+        board.generateLegalMoves(Color.WHITE, buffer);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public void nonEmptySquares(Blackhole blackhole) {
+        Map<Color, Set<Square>> squares = board.nonEmptySquares();
+        blackhole.consume(squares);
+    }
+
+}
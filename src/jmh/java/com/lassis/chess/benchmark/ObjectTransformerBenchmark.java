@@ -0,0 +1,82 @@
+package com.lassis.chess.benchmark;
+
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Point;
+import com.lassis.chess.model.Square;
+import com.lassis.chess.model.SquareSet;
+import com.lassis.chess.web.controller.ObjectTransformer;
+import com.lassis.chess.web.controller.model.PieceDTO;
+import com.lassis.chess.web.controller.model.PieceDetailDTO;
+import com.lassis.chess.web.controller.model.StatusDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.lassis.chess.web.controller.ObjectTransformer.POINTINFO_COMPARATOR;
+
+/**
+ * DTO mapping done by the controller on each request
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectTransformerBenchmark {
+
+    ObjectTransformer transformer;
+    Set<Square> squares;
+    Square queen;
+    SquareSet queenMoves;
+    ChessGameStatus status;
+
+    @Setup
+    public void setup() {
+        transformer = new ObjectTransformer();
+        ChessGame game = new ChessGame();
+        for (String move : Positions.GAME.subList(0, 6)) {
+            game.moveTo(Positions.from(move), Positions.to(move));
+        }
+
+        Point queenPoint = Positions.to(Positions.GAME.get(4));
+        squares = game.notEmptySquares();
+        queen = game.at(queenPoint).orElseThrow();
+        queenMoves = game.allowedMoves(queenPoint);
+        status = game.getStatus();
+    }
+
+    /**
+     * same mapping and sorting as the list of pieces endpoint
+     */
+    @Benchmark
+    public List<PieceDTO> allPieces() {
+        return squares.stream()
+                      .map(transformer::toPieceInfo)
+                      .sorted((o1, o2) -> POINTINFO_COMPARATOR.compare(o1.pointInfo(), o2.pointInfo()))
+                      .toList();
+    }
+
+    @Benchmark
+    public PieceDetailDTO pieceDetail() {
+        return transformer.toPieceDetail(queen, queenMoves);
+    }
+
+    @Benchmark
+    public StatusDTO status() {
+        return transformer.toStatusInfo(status);
+    }
+
+}
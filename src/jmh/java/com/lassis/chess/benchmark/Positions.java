@@ -0,0 +1,41 @@
+package com.lassis.chess.benchmark;
+
+import com.lassis.chess.model.Point;
+
+import java.util.List;
+
+/**
+ * Positions and games shared by the benchmarks
+ */
+final class Positions {
+    /**
+     * middle game with every piece type for both colors
+     */
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+    /**
+     * scholar's mate, ends on checkmate
+     */
+    static final List<String> GAME = List.of("e2e4", "e7e5", "f1c4", "b8c6", "d1h5", "g8f6", "h5f7");
+
+    /**
+     * knights going out and back, the game returns to the start position after the four moves
+     */
+    static final List<String> KNIGHTS_CYCLE = List.of("g1f3", "g8f6", "f3g1", "f6g8");
+
+    private Positions() {
+    }
+
+    static Point from(String move) {
+        return point(move.substring(0, 2));
+    }
+
+    static Point to(String move) {
+        return point(move.substring(2, 4));
+    }
+
+    private static Point point(String square) {
+        return Point.of('8' - square.charAt(1), square.charAt(0) - 'a');
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.lassis.chess.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class NothingToTakeBackException extends RuntimeException {
+}
@@ -0,0 +1,18 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessGameStatus;
+
+/**
+ * outcome of {@link ChessGame#moveAll}
+ *
+ * @param applied moves played, also the index of the move that stopped the batch
+ * @param status  game status after the last played move
+ * @param error   why the batch stopped, null when every move was played
+ */
+public record BatchResult(int applied, ChessGameStatus status, RuntimeException error) {
+
+    public boolean complete() {
+        return error == null;
+    }
+
+}
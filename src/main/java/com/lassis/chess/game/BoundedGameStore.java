@@ -0,0 +1,348 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessGameStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Game store with a limit of games, an idle timeout and a memory budget. Like {@link PositionCache} it is split in
+ * segments, each one a {@link LinkedHashMap} in read order guarded by its own lock, and each segment evicts its least
+ * recently read games on its own once it holds too many games or too many bytes. Games are weighed with
+ * {@link ChessGame#estimatedBytes()} when stored and again on every read, so a game growing with its moves counts
+ * against the budget.
+ * <p>
+ * Idle games are evicted when they are read and by a background sweep, the least recently read games sit at the head
+ * of each segment so the sweep stops at the first game still in use.
+ */
+@Slf4j
+public class BoundedGameStore implements GameStore {
+    private static final int SEGMENTS = 16;
+    private static final long MIN_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_SWEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Segment[] segments;
+    private final long idleNanos;
+    private final ToLongFunction<ChessGame> weigher;
+    private final LongSupplier clock;
+    private final List<EvictionListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder[] evictions = new LongAdder[Cause.values().length];
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param maxGames    games kept at most
+     * @param idleTimeout games not read for longer are evicted, zero keeps them
+     * @param maxBytes    memory budget of the games, zero for no budget
+     */
+    public BoundedGameStore(int maxGames, Duration idleTimeout, long maxBytes) {
+        this(maxGames, idleTimeout, maxBytes, ChessGame::estimatedBytes, System::nanoTime, true);
+    }
+
+    BoundedGameStore(int maxGames, Duration idleTimeout, long maxBytes, ToLongFunction<ChessGame> weigher, LongSupplier clock, boolean sweep) {
+        if (maxGames < 1) {
+            throw new IllegalArgumentException("at least one game must fit");
+        }
+        if (idleTimeout.isNegative() || maxBytes < 0) {
+            throw new IllegalArgumentException("idle timeout and memory budget must not be negative");
+        }
+
+        int segmentCount = maxGames < SEGMENTS ? 1 : SEGMENTS;
+        int segmentGames = (maxGames + segmentCount - 1) / segmentCount;
+        long segmentBytes = maxBytes == 0 ? Long.MAX_VALUE : Math.max(1, maxBytes / segmentCount);
+
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentGames, segmentBytes);
+        }
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = new LongAdder();
+        }
+        this.idleNanos = idleTimeout.toNanos();
+        this.weigher = weigher;
+        this.clock = clock;
+        this.sweeper = sweep && idleNanos > 0 ? startSweeper() : null;
+        log.debug("game store with {} games, idle timeout {}, {} bytes in {} segments", maxGames, idleTimeout, maxBytes, segmentCount);
+    }
+
+    @Override
+    public ChessGame get(UUID id) {
+        Segment segment = segment(id);
+        List<Evicted> evicted = new ArrayList<>(0);
+        ChessGame game = null;
+        segment.lock.lock();
+        try {
+            Entry entry = segment.get(id);
+            long now = clock.getAsLong();
+            if (entry != null && isIdle(entry, now)) {
+                segment.remove(id);
+                segment.weight -= entry.weight;
+                evicted.add(new Evicted(id, entry.game, Cause.IDLE));
+            } else if (entry != null) {
+                segment.touch(id, entry);
+                entry.lastRead = now;
+                long weight = weigher.applyAsLong(entry.game);
+                segment.weight += weight - entry.weight;
+                entry.weight = weight;
+                segment.evict(evicted);
+                game = entry.game;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        (game == null ? misses : hits).increment();
+        notify(evicted);
+        return game;
+    }
+
+    @Override
+    public ChessGameStatus status(UUID id) {
+        Segment segment = segment(id);
+        segment.lock.lock();
+        try {
+            // an idle game is gone for get as well, the sweep or the next get evicts it
+            Entry entry = segment.get(id);
+            return entry == null || isIdle(entry, clock.getAsLong()) ? null : entry.game.getStatus();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(UUID id, ChessGame game) {
+        Segment segment = segment(id);
+        List<Evicted> evicted = new ArrayList<>(0);
+        segment.lock.lock();
+        try {
+            Entry entry = new Entry(game, weigher.applyAsLong(game), clock.getAsLong());
+            Entry previous = segment.touch(id, entry);
+            segment.weight += entry.weight - (previous == null ? 0 : previous.weight);
+            segment.evict(evicted);
+        } finally {
+            segment.lock.unlock();
+        }
+        notify(evicted);
+    }
+
+    @Override
+    public ChessGame remove(UUID id) {
+        Segment segment = segment(id);
+        segment.lock.lock();
+        try {
+            Entry entry = segment.remove(id);
+            if (entry == null) {
+                return null;
+            }
+            segment.weight -= entry.weight;
+            return entry.game;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Stats stats() {
+        int size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+                weight += segment.weight;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new Stats(size, weight, hits.sum(), misses.sum(), evictions[Cause.SIZE.ordinal()].sum(),
+                evictions[Cause.WEIGHT.ordinal()].sum(), evictions[Cause.IDLE.ordinal()].sum());
+    }
+
+    @Override
+    public void addEvictionListener(EvictionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * the games of a segment are listed under its lock and encoded from their snapshots outside of it
+     */
+    @Override
+    public void forEachRecord(BiConsumer<UUID, ByteBuffer> action) {
+        ByteBuffer record = ByteBuffer.allocate(GameRecord.BYTES);
+        for (Segment segment : segments) {
+            List<Map.Entry<UUID, ChessGame>> games;
+            segment.lock.lock();
+            try {
+                games = new ArrayList<>(segment.size());
+                segment.forEach((id, entry) -> games.add(Map.entry(id, entry.game)));
+            } finally {
+                segment.lock.unlock();
+            }
+            for (Map.Entry<UUID, ChessGame> game : games) {
+                GameRecord.write(game.getValue().snapshot(), record, 0);
+                action.accept(game.getKey(), record);
+            }
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        if (idleNanos == 0) {
+            return;
+        }
+
+        for (Segment segment : segments) {
+            List<Evicted> evicted = new ArrayList<>(0);
+            segment.lock.lock();
+            try {
+                long now = clock.getAsLong();
+                for (Iterator<Map.Entry<UUID, Entry>> it = segment.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<UUID, Entry> eldest = it.next();
+                    if (!isIdle(eldest.getValue(), now)) {
+                        break;
+                    }
+                    it.remove();
+                    segment.weight -= eldest.getValue().weight;
+                    evicted.add(new Evicted(eldest.getKey(), eldest.getValue().game, Cause.IDLE));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+            notify(evicted);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private boolean isIdle(Entry entry, long now) {
+        return idleNanos > 0 && now - entry.lastRead > idleNanos;
+    }
+
+    private ScheduledExecutorService startSweeper() {
+        long period = Math.min(MAX_SWEEP_NANOS, Math.max(MIN_SWEEP_NANOS, idleNanos / 4));
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                cleanUp();
+            } catch (RuntimeException e) {
+                log.warn("idle game sweep failed", e);
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+        return executor;
+    }
+
+    /**
+     * listeners run outside the segment lock, they may use the store
+     */
+    private void notify(List<Evicted> evicted) {
+        for (Evicted e : evicted) {
+            evictions[e.cause.ordinal()].increment();
+            log.debug("game {} evicted, {}", e.id, e.cause);
+            for (EvictionListener listener : listeners) {
+                try {
+                    listener.onEviction(e.id, e.game, e.cause);
+                } catch (RuntimeException ex) {
+                    log.warn("eviction listener failed for game {}", e.id, ex);
+                }
+            }
+        }
+    }
+
+    private Segment segment(UUID id) {
+        return segments[Math.floorMod(id.hashCode(), segments.length)];
+    }
+
+    private static final class Entry {
+        private final ChessGame game;
+        private long weight;
+        private long lastRead;
+
+        private Entry(ChessGame game, long weight, long lastRead) {
+            this.game = game;
+            this.weight = weight;
+            this.lastRead = lastRead;
+        }
+    }
+
+    private record Evicted(UUID id, ChessGame game, Cause cause) {}
+
+    private static final class Segment extends LinkedHashMap<UUID, Entry> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int maxGames;
+        private final long maxBytes;
+        private long weight;
+
+        private Segment(int maxGames, long maxBytes) {
+            super(16, 0.75f, false);
+            this.maxGames = maxGames;
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * moves a game to the tail as the most recently read, the map is in insertion order so other lookups leave the
+         * order alone
+         *
+         * @return the entry replaced
+         */
+        private Entry touch(UUID id, Entry entry) {
+            Entry previous = remove(id);
+            put(id, entry);
+            return previous;
+        }
+
+        /**
+         * drops the least recently read games until the segment fits, the most recent game always stays
+         */
+        private void evict(List<Evicted> evicted) {
+            Iterator<Map.Entry<UUID, Entry>> it = entrySet().iterator();
+            while (size() > 1 && (size() > maxGames || weight > maxBytes)) {
+                Cause cause = size() > maxGames ? Cause.SIZE : Cause.WEIGHT;
+                Map.Entry<UUID, Entry> eldest = it.next();
+                it.remove();
+                weight -= eldest.getValue().weight;
+                evicted.add(new Evicted(eldest.getKey(), eldest.getValue().game, cause));
+            }
+        }
+    }
+
+}
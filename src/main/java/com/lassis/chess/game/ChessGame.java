@@ -2,15 +2,23 @@ package com.lassis.chess.game;
 
 import com.lassis.chess.exception.EmptySquareException;
 import com.lassis.chess.exception.GameOverException;
+import com.lassis.chess.exception.InvalidMoveException;
+import com.lassis.chess.exception.NothingToTakeBackException;
 import com.lassis.chess.exception.WrongPlayerException;
+import com.lassis.chess.model.Bitboards;
 import com.lassis.chess.model.Board;
+import com.lassis.chess.model.BoardSnapshot;
 import com.lassis.chess.model.ChessGameStatus;
 import com.lassis.chess.model.ChessStatus;
 import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Move;
+import com.lassis.chess.model.MoveBuffer;
 import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.PieceType;
 import com.lassis.chess.model.Placement;
 import com.lassis.chess.model.Point;
 import com.lassis.chess.model.Square;
+import com.lassis.chess.model.SquareSet;
 import com.lassis.chess.model.pieces.Bishop;
 import com.lassis.chess.model.pieces.King;
 import com.lassis.chess.model.pieces.Knight;
@@ -19,54 +27,131 @@ import com.lassis.chess.model.pieces.Queen;
 import com.lassis.chess.model.pieces.Rook;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static com.lassis.chess.model.ChessStatus.CHECK;
 import static com.lassis.chess.model.ChessStatus.CHECKMATE;
 import static com.lassis.chess.model.ChessStatus.NORMAL;
+import static com.lassis.chess.model.ChessStatus.STALEMATE;
 
 /**
- * Chess game, contains the basic operations to the game and the rules to define Check or CheckMate
+ * Chess game, contains the basic operations to the game and the rules to define Check, CheckMate or StaleMate.
+ * <p>
+ * Changes run under a {@link ReentrantLock}, not a monitor, so a virtual thread waiting for its turn unmounts from its
+ * carrier instead of pinning it. Changes end by publishing an immutable {@link GameSnapshot} through a volatile field.
+ * Reads only look at the last snapshot, so spectators never wait for the players. When a single thread changes the
+ * game, see {@link GameExecutor#singleWriter()}, the lock is skipped.
  */
 @Slf4j
 public class ChessGame {
     public static final int SIZE_8 = 8;
 
+    // board arrays and undo stack, move buffer, status history and snapshot of a new game
+    static final long BASE_BYTES = 8 * 1024;
+    // undo stack entry, status history entry and a share of the captured pieces
+    private static final long BYTES_PER_PLY = 32;
+
     private final List<Piece> deletedPieces = new ArrayList<>();
-    private final ReentrantLock lock = new ReentrantLock();
+    private final MoveBuffer moves = new MoveBuffer();
+    // status of both colors before each move, see pack
+    private int[] statusHistory = new int[64];
 
     private final Board board;
+    private final PositionCache positionCache;
+    private final Lock lock;
     private final Map<Color, ChessStatus> colorStatuses;
+    private final List<Consumer<GameEvent>> listeners = new CopyOnWriteArrayList<>();
+    // moves played before the game was restored, see CompactGameStore
+    private final int firstPly;
+    // moves and take backs so far, see GameSnapshot
+    private int version;
 
     private Color currentTurn = Color.WHITE;
+    private PositionCache.Position position;
+    private volatile GameSnapshot snapshot;
 
     public ChessGame() {
-        this(new Board(SIZE_8, SIZE_8), true);
+        this(PositionCache.disabled());
+    }
+
+    /**
+     * new game sharing computed positions with other games
+     *
+     * @param positionCache cache consulted before computing the status and the moves of a position
+     */
+    public ChessGame(PositionCache positionCache) {
+        this(positionCache, false);
+    }
+
+    /**
+     * new game sharing computed positions with other games
+     *
+     * @param positionCache cache consulted before computing the status and the moves of a position
+     * @param singleWriter  true when changes always come from the same thread, e.g. a {@link GameShards} shard, the
+     *                      game then skips its lock
+     */
+    public ChessGame(PositionCache positionCache, boolean singleWriter) {
+        this(new Board(SIZE_8, SIZE_8), true, positionCache, singleWriter);
     }
 
     ChessGame(Board board, boolean placePieces) {
+        this(board, placePieces, PositionCache.disabled(), false);
+    }
+
+    ChessGame(Board board, boolean placePieces, PositionCache positionCache, boolean singleWriter) {
         this.board = board;
+        this.positionCache = positionCache;
+        this.lock = singleWriter ? NoLock.INSTANCE : new ReentrantLock();
+        this.firstPly = 0;
         placePieceFirstRow(King::new, board.min().column() + 4);
 
         if (placePieces) {
             placePieces();
         }
 
-        this.colorStatuses = calculateStatus();
+        this.position = position();
+        this.colorStatuses = new EnumMap<>(position.statuses());
+        publish();
         logBoard();
     }
 
+    /**
+     * game restored from its pieces, without the moves that lead to them, so it can not be taken back further
+     *
+     * @param board    board with the pieces placed
+     * @param turn     color to move
+     * @param deleted  captured pieces, in the order they were captured
+     * @param firstPly moves played before, the plies of the events go on from there
+     * @param version  changes made before, the versions of the snapshots go on from there
+     */
+    ChessGame(Board board, Color turn, List<Piece> deleted, int firstPly, int version, PositionCache positionCache, boolean singleWriter) {
+        this.board = board;
+        this.positionCache = positionCache;
+        this.lock = singleWriter ? NoLock.INSTANCE : new ReentrantLock();
+        this.firstPly = firstPly;
+        this.version = version;
+        this.currentTurn = turn;
+        this.deletedPieces.addAll(deleted);
+
+        this.position = position();
+        this.colorStatuses = new EnumMap<>(position.statuses());
+        publish();
+    }
+
     private void placePieces() {
         placePieceFirstRow(Queen::new, board.min().column() + 3);
         placeAndMirrorPieceFirstRow(Rook::new, board.min().column());
@@ -82,7 +167,7 @@ public class ChessGame {
         for (Color color : Color.values()) {
             int row = color.placement() == Placement.NORTH ? board.min().row() : max.row();
             T piece = transform.apply(color);
-            Point point = new Point(row, column);
+            Point point = Point.of(row, column);
             board.place(piece, point);
         }
     }
@@ -96,7 +181,7 @@ public class ChessGame {
         for (Color color : Color.values()) {
             int row = color.placement() == Placement.NORTH ? board.min().row() + 1 : board.max().row() - 1;
             for (int col = 0; col < board.columns(); col++) {
-                board.place(new Pawn(color), new Point(row, col));
+                board.place(new Pawn(color), Point.of(row, col));
             }
         }
     }
@@ -108,174 +193,431 @@ public class ChessGame {
      * @return set of not empty squares
      */
     public Set<Square> notEmptySquares() {
+        return snapshot.board().nonEmptySquares();
+    }
+
+    /**
+     * get a piece from a given point
+     *
+     * @param point where the piece sit
+     * @return optional with piece, optional empty if piece is not found
+     */
+    public Optional<Square> at(Point point) {
+        return snapshot.board().at(point);
+    }
+
+    /**
+     * list all allowed moves from a certain point based on the rules of piece
+     *
+     * @param point where piece sit
+     * @return set of point where a piece can go
+     */
+    public SquareSet allowedMoves(Point point) {
+        GameSnapshot current = snapshot;
+        log.debug("calculating allowed moves to {}", point);
+
+        return current.board().piece(point).filter(p -> current.canMove(p.color())).isPresent()
+                ? current.board().allowedMoves(point)
+                : new SquareSet();
+    }
+
+    /**
+     * Zobrist hash of the current position, pieces and side to move. Equal positions have the same hash, no matter
+     * the moves that lead to them
+     *
+     * @return position hash
+     */
+    public long positionHash() {
+        return snapshot.status().positionHash();
+    }
+
+    /**
+     * provide a game status. Such as checkmate, user turn
+     *
+     * @return status of the game
+     */
+    public ChessGameStatus getStatus() {
+        return snapshot.status();
+    }
+
+    /**
+     * last state published, pieces and status always match each other
+     *
+     * @return immutable game state
+     */
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * move a piece from origin to destination if a piece is found on origin, it's a player turn and the destination
+     * is allowed for the piece. If a piece is already in the destination it will be removed and marked as delete.
+     *
+     * @param origin      point where the piece sit
+     * @param destination destination of the piece
+     * @return game status after movement.
+     */
+    public ChessGameStatus moveTo(Point origin, Point destination) {
         lock.lock();
         try {
-            return board.nonEmptySquares().values().stream()
-                        .flatMap(Collection::stream)
-                        .collect(Collectors.toSet());
+            return play(origin, destination);
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * get a piece from a given point
+     * plays moves in order taking the lock once, it stops at the first move that can not be played. Each played move
+     * is published and sent to the listeners like a single {@link #moveTo(Point, Point)}
      *
-     * @param point where the piece sit
-     * @return optional with piece, optional empty if piece is not found
+     * @param moves moves to play
+     * @return moves played, the error that stopped the batch and the status after the last played move
      */
-    public Optional<Square> at(Point point) {
+    public BatchResult moveAll(List<PlannedMove> moves) {
         lock.lock();
         try {
-            return board.at(point);
+            int applied = 0;
+            for (PlannedMove move : moves) {
+                try {
+                    play(move.origin(), move.destination());
+                } catch (GameOverException | EmptySquareException | WrongPlayerException | InvalidMoveException e) {
+                    return new BatchResult(applied, getStatus(), e);
+                }
+                applied++;
+            }
+            return new BatchResult(applied, getStatus(), null);
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * list all allowed moves from a certain point based on the rules of piece
+     * validates and plays a move, must run under the lock
+     */
+    private ChessGameStatus play(Point origin, Point destination) {
+        if (isGameOver()) {
+            log.warn("the game is already finished");
+            throw new GameOverException();
+        }
+
+        Optional<Square> square = board.at(origin);
+        Optional<Piece> oPiece = square.flatMap(Square::piece);
+        if (oPiece.isEmpty()) {
+            log.warn("there is no piece at origin position {}", origin);
+            throw new EmptySquareException();
+        }
+
+        boolean wrongPlayer = oPiece.map(Piece::color).filter(c -> Objects.equals(c, currentTurn)).isEmpty();
+        if (wrongPlayer) {
+            log.warn("it is {} turn", currentTurn);
+            throw new WrongPlayerException();
+        }
+
+        if (!board.isInBounds(destination) || !Bitboards.contains(position.targets(Bitboards.index(origin)), Bitboards.index(destination))) {
+            log.warn("move from {} to {} is not legal", origin, destination);
+            throw new InvalidMoveException();
+        }
+
+        pushStatus();
+        Optional<Piece> captured = board.moveTo(origin, destination);
+        captured.ifPresent(deletedPieces::add);
+
+        // next turn
+        currentTurn = currentTurn.opponent();
+
+        // new status
+        position = position();
+        colorStatuses.putAll(position.statuses());
+
+        version++;
+        publish();
+        logBoard();
+        ChessGameStatus status = getStatus();
+        fire(new GameEvent(GameEvent.Type.MOVE, ply(), origin, destination, oPiece.get(), captured.orElse(null), status, version));
+        return status;
+    }
+
+    /**
+     * takes back the last move, the captured piece returns to the board and the turn goes back to the player who made
+     * the move. A finished game can be taken back too
      *
-     * @param point where piece sit
-     * @return set of point where a piece can go
+     * @return game status after the take back
      */
-    public Set<Point> allowedMoves(Point point) {
+    public ChessGameStatus takeback() {
         lock.lock();
         try {
-            Optional<Square> square = board.at(point);
+            if (board.ply() == 0) {
+                log.warn("there is no move to take back");
+                throw new NothingToTakeBackException();
+            }
 
-            log.debug("calculating allowed moves to {}", square);
+            int move = board.unmakeMove();
+            Piece captured = Move.isCapture(move) ? deletedPieces.remove(deletedPieces.size() - 1) : null;
 
-            return square.flatMap(Square::piece).filter(p -> p.color() == currentTurn).isPresent()
-                    ? square.map(Square::allowedMoves).orElseGet(Collections::emptySet)
-                    : Collections.emptySet();
+            currentTurn = currentTurn.opponent();
+            int statuses = statusHistory[board.ply()];
+            colorStatuses.put(Color.BLACK, unpack(statuses, Color.BLACK));
+            colorStatuses.put(Color.WHITE, unpack(statuses, Color.WHITE));
+            position = position();
 
+            version++;
+            publish();
+            logBoard();
+            ChessGameStatus status = getStatus();
+            Point from = Point.of(Move.from(move));
+            Point to = Point.of(Move.to(move));
+            fire(new GameEvent(GameEvent.Type.TAKEBACK, ply(), from, to, board.piece(from).orElseThrow(), captured, status, version));
+            return status;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * provide a game status. Such as checkmate, user turn
+     * takes back a move named by its squares, for a journal replaying a take back. A game restored after the move, see
+     * {@link GameRecord}, has no history to take it back, the move is then reversed on a copy of the board like in
+     * {@link #history(ByteBuffer, int)} and a game is restored from the position before it
      *
-     * @return status of the game
+     * @param from     origin of the move taken back
+     * @param to       destination of the move taken back
+     * @param captured piece the move captured, null when there is none
+     * @return this game taken back, or a new game at the position before the move with the version after the take back
+     * @throws IllegalStateException when the move does not match the game
      */
-    public ChessGameStatus getStatus() {
+    ChessGame takeback(Point from, Point to, Piece captured) {
         lock.lock();
         try {
-            logBoard();
+            if (board.ply() > 0) {
+                int move = board.move(board.ply() - 1);
+                if (Move.from(move) != Bitboards.index(from) || Move.to(move) != Bitboards.index(to)) {
+                    throw new IllegalStateException("the last move is not " + from + " -> " + to);
+                }
+                takeback();
+                return this;
+            }
+
+            Color mover = currentTurn.opponent();
+            boolean moved = board.piece(to).filter(piece -> piece.color() == mover).isPresent();
+            if (ply() == 0 || !moved || board.piece(from).isPresent()) {
+                throw new IllegalStateException("no move " + from + " -> " + to + " to take back");
+            }
+            List<Piece> deleted = new ArrayList<>(deletedPieces);
+            if (captured != null) {
+                Piece last = deleted.isEmpty() ? null : deleted.remove(deleted.size() - 1);
+                if (last == null || last.color() != captured.color() || last.type() != captured.type()) {
+                    throw new IllegalStateException(captured + " is not the last piece captured");
+                }
+            }
 
-            return ChessGameStatus.builder()
-                                  .blackStatus(colorStatuses.get(Color.BLACK))
-                                  .whiteStatus(colorStatuses.get(Color.WHITE))
-                                  .turn(currentTurn)
-                                  .deleted(deletedPieces)
-                                  .build();
+            Board before = new Board(board);
+            before.makeMove(Move.of(Bitboards.index(to), Bitboards.index(from), Move.QUIET));
+            if (captured != null) {
+                before.place(captured, to);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(GameRecord.BYTES);
+            GameRecord.write(before, mover, deleted, ply() - 1, version + 1, buffer, 0);
+            return GameRecord.read(buffer, 0, positionCache, lock == NoLock.INSTANCE);
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * move a piece from origin to destination if a piece is found on origin, it's a player turn and the destination
-     * is allowed for the piece. If a piece is already in the destination it will be removed and marked as delete.
+     * writes the position a finished game started from as a {@link GameRecord} and returns the moves played from it,
+     * for {@link GameArchive}. A restored game starts from the position it was restored from. The board is not
+     * changed, the moves are taken back on a copy
      *
-     * @param origin      point where the piece sit
-     * @param destination destination of the piece
-     * @return game status after movement.
+     * @param buffer where the record of the first position is written
+     * @param offset index of its first byte
+     * @return moves played and not taken back, see {@link Move}, null when the game is not over
      */
-    public ChessGameStatus moveTo(Point origin, Point destination) {
+    int[] history(ByteBuffer buffer, int offset) {
         lock.lock();
         try {
-            if (isGameOver()) {
-                log.warn("the game is already finished");
-                throw new GameOverException();
+            // checked under the lock, a take back may have reopened the game
+            if (!isGameOver()) {
+                return null;
             }
 
-            Optional<Square> square = board.at(origin);
-            Optional<Piece> oPiece = square.flatMap(Square::piece);
-            if (oPiece.isEmpty()) {
-                log.warn("there is no piece at origin position {}", origin);
-                throw new EmptySquareException();
+            int plies = board.ply();
+            int[] played = new int[plies];
+            Board start = new Board(board);
+            List<Piece> captured = new ArrayList<>(deletedPieces);
+            for (int i = plies - 1; i >= 0; i--) {
+                int move = board.move(i);
+                played[i] = move;
+                start.makeMove(Move.of(Move.to(move), Move.from(move), Move.QUIET));
+                Optional<Piece> piece = board.captured(i);
+                if (piece.isPresent()) {
+                    start.place(piece.get(), Point.of(Move.to(move)));
+                    captured.remove(captured.size() - 1);
+                }
             }
+            Color turn = plies % 2 == 0 ? currentTurn : currentTurn.opponent();
+            GameRecord.write(start, turn, captured, firstPly, 0, buffer, offset);
+            return played;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * moves played and not taken back. It is read without the lock, so it may miss a move in progress
+     *
+     * @return number of moves
+     */
+    public int ply() {
+        return firstPly + board.ply();
+    }
+
+    /**
+     * rough number of bytes kept by this game, it grows with the moves played. It is read without the lock, so it may
+     * miss the last move, which is fine to weigh games against a memory budget, see {@link BoundedGameStore}
+     *
+     * @return estimated retained size in bytes
+     */
+    public long estimatedBytes() {
+        return BASE_BYTES + BYTES_PER_PLY * board.ply();
+    }
+
+    /**
+     * registers a listener of the moves and take backs of this game. It is called once the change is committed, in
+     * order, on the thread that made the change and before the change returns, so it must be quick
+     *
+     * @param listener listener of the changes
+     */
+    public void addListener(Consumer<GameEvent> listener) {
+        listeners.add(listener);
+    }
 
-            boolean wrongPlayer = oPiece.map(Piece::color).filter(c -> Objects.equals(c, currentTurn)).isEmpty();
-            if (wrongPlayer) {
-                log.warn("it is {} turn", currentTurn);
-                throw new WrongPlayerException();
+    /**
+     * registers a listener called before the ones already registered, for a store that must hold a change before
+     * anyone else hears of it, see {@link CompactGameStore}
+     *
+     * @param listener listener of the changes
+     */
+    void addFirstListener(Consumer<GameEvent> listener) {
+        listeners.add(0, listener);
+    }
+
+    public void removeListener(Consumer<GameEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public int listenerCount() {
+        return listeners.size();
+    }
+
+    private void fire(GameEvent event) {
+        for (Consumer<GameEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("game listener failed on {}", event.type(), e);
             }
+        }
+    }
 
-            board.moveTo(origin, destination).ifPresent(deletedPieces::add);
+    /**
+     * builds the snapshot read by the other methods, must run under the lock after every change
+     */
+    private void publish() {
+        ChessGameStatus status = ChessGameStatus.builder()
+                                                .blackStatus(colorStatuses.get(Color.BLACK))
+                                                .whiteStatus(colorStatuses.get(Color.WHITE))
+                                                .turn(currentTurn)
+                                                .deleted(List.copyOf(deletedPieces))
+                                                .positionHash(board.hash(currentTurn))
+                                                .build();
+        snapshot = new GameSnapshot(new BoardSnapshot(board, position.targets()), status, ply(), version);
+    }
 
-            // next turn
-            currentTurn = (currentTurn == Color.BLACK ? Color.WHITE : Color.BLACK);
+    private void pushStatus() {
+        int ply = board.ply();
+        if (ply == statusHistory.length) {
+            statusHistory = Arrays.copyOf(statusHistory, ply * 2);
+        }
+        statusHistory[ply] = pack(colorStatuses);
+    }
 
-            // new status
-            colorStatuses.putAll(calculateStatus());
+    /**
+     * both statuses in an int, 2 bits per color
+     */
+    private static int pack(Map<Color, ChessStatus> statuses) {
+        return statuses.get(Color.BLACK).ordinal() | statuses.get(Color.WHITE).ordinal() << 2;
+    }
 
-            logBoard();
-            return getStatus();
-        } finally {
-            lock.unlock();
+    private static ChessStatus unpack(int statuses, Color color) {
+        return ChessStatus.values()[(statuses >>> (color == Color.BLACK ? 0 : 2)) & 3];
+    }
+
+    /**
+     * status and moves of the current position, read from the cache or computed and stored there
+     */
+    private PositionCache.Position position() {
+        long hash = board.hash(currentTurn);
+        return positionCache.get(hash, currentTurn, board.occupied())
+                            .orElseGet(() -> {
+                                PositionCache.Position computed = calculatePosition();
+                                positionCache.put(hash, computed);
+                                return computed;
+                            });
+    }
+
+    private PositionCache.Position calculatePosition() {
+        long[] targets = new long[Bitboards.SQUARES];
+        moves.clear();
+        board.generateLegalMoves(currentTurn, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            targets[Move.from(move)] |= Bitboards.bit(Move.to(move));
         }
+        return new PositionCache.Position(currentTurn, board.occupied(), Map.copyOf(calculateStatus(!moves.isEmpty())), targets);
     }
 
-    private Map<Color, ChessStatus> calculateStatus() {
+    /**
+     * status of each color. The side to move is in check when its king is attacked, checkmate when it also has no
+     * legal move and stalemate when it has no legal move without being in check. A king attacked when it is not its
+     * turn is lost, it would be taken on the next move
+     *
+     * @param hasLegalMoves whether the side to move can move
+     */
+    private Map<Color, ChessStatus> calculateStatus(boolean hasLegalMoves) {
         Map<Color, ChessStatus> result = new EnumMap<>(Color.class);
-        Map<Color, Set<Square>> pieces = board.nonEmptySquares();
         for (Color color : Color.values()) {
-            Color other = getOtherColor(color);
-
-            Square kingSquare = pieces.getOrDefault(color, Collections.emptySet())
-                                      .stream()
-                                      .filter(p -> p.piece().isPresent() && p.piece().get() instanceof King)
-                                      .findFirst()
-                                      .orElseThrow();
-
-            Set<Point> opponentPossibleMoves = pieces.getOrDefault(other, Collections.emptySet()).stream()
-                                                     .map(Square::allowedMoves)
-                                                     .flatMap(Collection::stream)
-                                                     .collect(Collectors.toSet());
+            boolean attacked = board.isAttacked(kingSquare(color), color.opponent());
 
             ChessStatus chessStatus = NORMAL;
-
-            if (opponentPossibleMoves.contains(kingSquare.point())) {
-                Piece kingPiece = kingSquare.piece().orElseThrow();
-                chessStatus = currentTurn == kingPiece.color() ? CHECK : CHECKMATE;
-
-                if (chessStatus == CHECK) {
-                    Set<Point> kingPossible = kingSquare.allowedMoves();
-                    int oldSize = kingPossible.size();
-                    kingPossible.retainAll(opponentPossibleMoves);
-                    if (kingPossible.size() == oldSize) {
-                        chessStatus = CHECKMATE;
-                    }
-                }
+            if (currentTurn != color) {
+                chessStatus = attacked ? CHECKMATE : NORMAL;
+            } else if (!hasLegalMoves) {
+                chessStatus = attacked ? CHECKMATE : STALEMATE;
+            } else if (attacked) {
+                chessStatus = CHECK;
             }
             result.put(color, chessStatus);
         }
         return result;
     }
 
-    private static Color getOtherColor(Color color) {
-        return color == Color.BLACK ? Color.WHITE : Color.BLACK;
+    private int kingSquare(Color color) {
+        long king = board.pieces(color, PieceType.KING);
+        if (king == Bitboards.EMPTY) {
+            throw new NoSuchElementException("no king found for " + color);
+        }
+
+        return Bitboards.first(king);
     }
 
     @Override
     public String toString() {
-        lock.lock();
-        try {
-            return board.toString() +
-                    "\n\n" +
-                    "black: " + colorStatuses.get(Color.BLACK) + "\twhite: " + colorStatuses.get(Color.WHITE);
-        } finally {
-            lock.unlock();
-        }
+        return snapshot.toString();
     }
 
     private boolean isGameOver() {
-        ChessGameStatus status = getStatus();
-        return status.blackStatus() == CHECKMATE || status.whiteStatus() == CHECKMATE;
+        ChessGameStatus status = snapshot.status();
+        return status.blackStatus() == CHECKMATE || status.whiteStatus() == CHECKMATE
+                || status.blackStatus() == STALEMATE || status.whiteStatus() == STALEMATE;
     }
 
     private void logBoard() {
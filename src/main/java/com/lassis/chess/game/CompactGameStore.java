@@ -0,0 +1,655 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessGameStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Game store keeping the games as fixed size records in direct buffers, outside the heap, see {@link GameRecord}. A
+ * game only lives as a {@link ChessGame} while requests use it: reading a game restores it from its record, and a game
+ * not read for {@code parkAfter} is dropped from the heap again. Every move and take back of a live game is written to
+ * its record as it happens, so dropping a game writes nothing and a request still holding it loses no move.
+ * <p>
+ * A record is {@link #RECORD_BYTES} bytes: the game id, the last access in seconds, a few flags and the game. Records
+ * are found through an open addressing table of record indexes, also off the heap, so the heap holds no object per
+ * stored game. When the store is full the record to evict is picked with the clock algorithm: every read marks the
+ * record, the hand clears the marks it passes and evicts the first record left unmarked.
+ * <p>
+ * A restored game has no moves to take back, its history stays with the instance that was dropped. Games that got
+ * event listeners while live, e.g. spectators, are not dropped. A single lock guards the records, it is only held to copy a record.
+ */
+@Slf4j
+public class CompactGameStore implements GameStore {
+    static final int RECORD_BYTES = 80;
+
+    // record layout
+    private static final int MOST_SIGNIFICANT = 0;
+    private static final int LEAST_SIGNIFICANT = 8;
+    private static final int LAST_ACCESS = 16;
+    private static final int FLAGS = 20;
+    private static final int GAME = 21;
+    // the free list is chained through the game bytes
+    private static final int NEXT_FREE = GAME;
+
+    private static final byte USED = 1;
+    private static final byte REFERENCED = 2;
+
+    private static final int RECORDS_PER_CHUNK = 1 << 14;
+    // the index must fit a direct buffer
+    private static final int MAX_GAMES = 1 << 27;
+    private static final long MIN_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_SWEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int capacity;
+    private final Cause fullCause;
+    private final ByteBuffer[] chunks;
+    private final IntBuffer table;
+    private final int tableMask;
+    private final long idleNanos;
+    private final long parkNanos;
+    private final PositionCache positionCache;
+    private final boolean singleWriter;
+    private final LongSupplier clock;
+    private final long start;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, Live> live = new ConcurrentHashMap<>();
+    private final List<EvictionListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<RestoreListener> restoreListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder[] evictions = new LongAdder[Cause.values().length];
+    private final ScheduledExecutorService sweeper;
+
+    // guarded by lock
+    private int size;
+    private int allocated;
+    private int freeHead = -1;
+    private int hand;
+
+    /**
+     * @param maxGames      games kept at most
+     * @param idleTimeout   games not read for longer are evicted, zero keeps them
+     * @param maxBytes      bytes of records at most, zero for no other limit than the number of games
+     * @param parkAfter     live games not read for longer are dropped from the heap
+     * @param positionCache cache of the restored games
+     * @param singleWriter  see {@link ChessGame#ChessGame(PositionCache, boolean)}
+     */
+    public CompactGameStore(int maxGames, Duration idleTimeout, long maxBytes, Duration parkAfter, PositionCache positionCache, boolean singleWriter) {
+        this(maxGames, idleTimeout, maxBytes, parkAfter, positionCache, singleWriter, System::nanoTime, true);
+    }
+
+    CompactGameStore(int maxGames, Duration idleTimeout, long maxBytes, Duration parkAfter, PositionCache positionCache, boolean singleWriter,
+                     LongSupplier clock, boolean sweep) {
+        if (maxGames < 1 || maxGames > MAX_GAMES) {
+            throw new IllegalArgumentException("games must be between 1 and " + MAX_GAMES);
+        }
+        if (idleTimeout.isNegative() || parkAfter.isNegative() || maxBytes < 0) {
+            throw new IllegalArgumentException("timeouts and memory budget must not be negative");
+        }
+
+        long budget = maxBytes == 0 ? Long.MAX_VALUE : maxBytes / RECORD_BYTES;
+        if (budget < 1) {
+            throw new IllegalArgumentException("the memory budget does not fit a game of " + RECORD_BYTES + " bytes");
+        }
+        this.capacity = (int) Math.min(maxGames, budget);
+        this.fullCause = capacity < maxGames ? Cause.WEIGHT : Cause.SIZE;
+        this.chunks = new ByteBuffer[(capacity + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK];
+
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.table = ByteBuffer.allocateDirect(tableSize * Integer.BYTES).asIntBuffer();
+        this.tableMask = tableSize - 1;
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = new LongAdder();
+        }
+
+        this.idleNanos = idleTimeout.toNanos();
+        this.parkNanos = parkAfter.toNanos();
+        this.positionCache = positionCache;
+        this.singleWriter = singleWriter;
+        this.clock = clock;
+        this.start = clock.getAsLong();
+        this.sweeper = sweep ? startSweeper() : null;
+        log.debug("compact game store with {} games, {} index slots", capacity, tableSize);
+    }
+
+    /**
+     * the lookup and the read time are set together in the live map, so a game read while it is parked is either kept
+     * live or restored again
+     */
+    @Override
+    public ChessGame get(UUID id) {
+        Live current = live.compute(id, (key, existing) -> {
+            Live found = existing != null ? existing : restore(key);
+            if (found != null) {
+                found.lastRead = clock.getAsLong();
+            }
+            return found;
+        });
+        if (current == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return current.game;
+    }
+
+    /**
+     * a live game answers from its snapshot, any other game is decoded from a copy of its record and thrown away
+     */
+    @Override
+    public ChessGameStatus status(UUID id) {
+        Live current = live.get(id);
+        if (current != null) {
+            return current.game.getStatus();
+        }
+
+        byte[] encoded = new byte[GameRecord.BYTES];
+        lock.lock();
+        try {
+            int record = find(id);
+            if (record < 0) {
+                return null;
+            }
+            chunk(record).get(offset(record) + GAME, encoded);
+        } finally {
+            lock.unlock();
+        }
+        return decode(encoded).getStatus();
+    }
+
+    @Override
+    public void put(UUID id, ChessGame game) {
+        byte[] encoded = encode(game);
+        List<Evicted> evicted = new ArrayList<>(0);
+        lock.lock();
+        try {
+            int record = find(id);
+            if (record < 0) {
+                if (size == capacity) {
+                    evicted.add(evictOne());
+                }
+                record = allocate();
+                insert(id, record);
+                size++;
+            }
+            ByteBuffer chunk = chunk(record);
+            int offset = offset(record);
+            chunk.put(offset + FLAGS, (byte) (USED | REFERENCED));
+            chunk.putInt(offset + LAST_ACCESS, seconds(clock.getAsLong()));
+            chunk.put(offset + GAME, encoded);
+        } finally {
+            lock.unlock();
+        }
+
+        dropAll(evicted);
+        Live current = new Live(id, game, clock.getAsLong());
+        Live previous = live.put(id, current);
+        if (previous != null && previous.game != game) {
+            previous.game.removeListener(previous);
+        }
+        notify(evicted);
+    }
+
+    @Override
+    public ChessGame remove(UUID id) {
+        Live current = live.remove(id);
+        byte[] encoded = new byte[GameRecord.BYTES];
+        lock.lock();
+        try {
+            int record = find(id);
+            if (record < 0) {
+                return current == null ? null : current.game;
+            }
+            chunk(record).get(offset(record) + GAME, encoded);
+            delete(id, record);
+        } finally {
+            lock.unlock();
+        }
+
+        if (current == null) {
+            return decode(encoded);
+        }
+        current.game.removeListener(current);
+        return current.game;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * the weight is the bytes of the records plus the estimated bytes of the games living on the heap
+     */
+    @Override
+    public Stats stats() {
+        int games;
+        lock.lock();
+        try {
+            games = size;
+        } finally {
+            lock.unlock();
+        }
+
+        long weight = (long) games * RECORD_BYTES;
+        for (Live current : live.values()) {
+            weight += current.game.estimatedBytes();
+        }
+        return new Stats(games, weight, hits.sum(), misses.sum(), evictions[Cause.SIZE.ordinal()].sum(),
+                evictions[Cause.WEIGHT.ordinal()].sum(), evictions[Cause.IDLE.ordinal()].sum());
+    }
+
+    /**
+     * @return games living on the heap
+     */
+    public int live() {
+        return live.size();
+    }
+
+    @Override
+    public void addEvictionListener(EvictionListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void addRestoreListener(RestoreListener listener) {
+        restoreListeners.add(listener);
+    }
+
+    /**
+     * the used records of a chunk are copied under the lock and passed on outside of it. Live games write their
+     * changes to their records before their other listeners run, so a record is never older than a change already
+     * heard of, see {@link ChessGame#addFirstListener}
+     */
+    @Override
+    public void forEachRecord(BiConsumer<UUID, ByteBuffer> action) {
+        int entryBytes = 2 * Long.BYTES + GameRecord.BYTES;
+        ByteBuffer copy = ByteBuffer.allocate(RECORDS_PER_CHUNK * entryBytes);
+        ByteBuffer record = ByteBuffer.allocate(GameRecord.BYTES);
+        for (int c = 0; c < chunks.length; c++) {
+            copy.clear();
+            lock.lock();
+            try {
+                int end = Math.min(allocated, (c + 1) * RECORDS_PER_CHUNK);
+                for (int r = c * RECORDS_PER_CHUNK; r < end; r++) {
+                    ByteBuffer chunk = chunk(r);
+                    int offset = offset(r);
+                    if ((chunk.get(offset + FLAGS) & USED) != 0) {
+                        int at = copy.position();
+                        copy.putLong(chunk.getLong(offset + MOST_SIGNIFICANT)).putLong(chunk.getLong(offset + LEAST_SIGNIFICANT));
+                        copy.put(at + 2 * Long.BYTES, chunk, offset + GAME, GameRecord.BYTES);
+                        copy.position(at + entryBytes);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            for (int offset = 0; offset < copy.position(); offset += entryBytes) {
+                UUID id = new UUID(copy.getLong(offset), copy.getLong(offset + Long.BYTES));
+                record.put(0, copy, offset + 2 * Long.BYTES, GameRecord.BYTES);
+                action.accept(id, record);
+            }
+        }
+    }
+
+    /**
+     * drops the live games not read for {@code parkAfter} and evicts the records not read for the idle timeout. The
+     * records are scanned a chunk at a time, so requests wait at most for one chunk
+     */
+    @Override
+    public void cleanUp() {
+        long now = clock.getAsLong();
+        for (Live current : live.values()) {
+            if (parkable(current, now)) {
+                park(current, now);
+            }
+        }
+
+        if (idleNanos == 0) {
+            return;
+        }
+        int idleSeconds = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toSeconds(idleNanos));
+        for (int c = 0; c < chunks.length; c++) {
+            List<Evicted> evicted = new ArrayList<>(0);
+            lock.lock();
+            try {
+                int nowSeconds = seconds(clock.getAsLong());
+                int end = Math.min(allocated, (c + 1) * RECORDS_PER_CHUNK);
+                for (int record = c * RECORDS_PER_CHUNK; record < end; record++) {
+                    ByteBuffer chunk = chunk(record);
+                    int offset = offset(record);
+                    if ((chunk.get(offset + FLAGS) & USED) != 0 && nowSeconds - chunk.getInt(offset + LAST_ACCESS) > idleSeconds) {
+                        UUID id = id(record);
+                        if (!live.containsKey(id)) {
+                            delete(id, record);
+                            evicted.add(new Evicted(id, null, Cause.IDLE));
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            notify(evicted);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * restores a game from its record, called by the live map so a game is restored once
+     */
+    private Live restore(UUID id) {
+        byte[] encoded = new byte[GameRecord.BYTES];
+        lock.lock();
+        try {
+            int record = find(id);
+            if (record < 0) {
+                return null;
+            }
+            ByteBuffer chunk = chunk(record);
+            int offset = offset(record);
+            chunk.put(offset + FLAGS, (byte) (USED | REFERENCED));
+            chunk.putInt(offset + LAST_ACCESS, seconds(clock.getAsLong()));
+            chunk.get(offset + GAME, encoded);
+        } finally {
+            lock.unlock();
+        }
+
+        ChessGame game = decode(encoded);
+        for (RestoreListener listener : restoreListeners) {
+            listener.onRestore(id, game);
+        }
+        return new Live(id, game, clock.getAsLong());
+    }
+
+    /**
+     * drops a live game from the heap, its record is already up to date. The listener stays on the game, a request
+     * still holding it keeps writing its moves to the record. The game stays when it was read or followed since the
+     * sweep picked it, checked in the live map so a concurrent read waits for the outcome
+     */
+    private void park(Live current, long now) {
+        live.computeIfPresent(current.id, (id, existing) -> {
+            if (existing != current || !parkable(existing, now)) {
+                return existing;
+            }
+            lock.lock();
+            try {
+                int record = find(id);
+                if (record >= 0) {
+                    chunk(record).putInt(offset(record) + LAST_ACCESS, seconds(existing.lastRead));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        });
+    }
+
+    private boolean parkable(Live current, long now) {
+        return now - current.lastRead > parkNanos && current.game.listenerCount() <= current.listeners;
+    }
+
+    /**
+     * writes a change of a live game to its record, it runs on the thread of the change
+     */
+    private void write(UUID id, ChessGame game) {
+        byte[] encoded = encode(game);
+        lock.lock();
+        try {
+            int record = find(id);
+            if (record >= 0) {
+                chunk(record).put(offset(record) + GAME, encoded);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * games are encoded and decoded outside the lock, the lock is only held to copy the bytes
+     */
+    private static byte[] encode(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(GameRecord.BYTES);
+        GameRecord.write(game.snapshot(), buffer, 0);
+        return buffer.array();
+    }
+
+    private ChessGame decode(byte[] encoded) {
+        return GameRecord.read(ByteBuffer.wrap(encoded), 0, positionCache, singleWriter);
+    }
+
+    /**
+     * clock eviction, must run under the lock with the store full. Live games are passed over for two turns of the
+     * hand, then any record is taken
+     */
+    private Evicted evictOne() {
+        for (int step = 0; ; step++) {
+            int record = hand;
+            hand = (hand + 1) % allocated;
+            ByteBuffer chunk = chunk(record);
+            int offset = offset(record);
+            byte flags = chunk.get(offset + FLAGS);
+            if ((flags & USED) == 0) {
+                continue;
+            }
+            if ((flags & REFERENCED) != 0) {
+                chunk.put(offset + FLAGS, USED);
+                continue;
+            }
+
+            UUID id = id(record);
+            if (step < 2 * allocated && live.containsKey(id)) {
+                continue;
+            }
+            delete(id, record);
+            return new Evicted(id, null, fullCause);
+        }
+    }
+
+    /**
+     * evicted games still on the heap stop writing to the store, runs outside the lock
+     */
+    private void dropAll(List<Evicted> evicted) {
+        for (int i = 0; i < evicted.size(); i++) {
+            Live current = live.remove(evicted.get(i).id);
+            if (current != null) {
+                current.game.removeListener(current);
+                evicted.set(i, new Evicted(current.id, current.game, evicted.get(i).cause));
+            }
+        }
+    }
+
+    private void notify(List<Evicted> evicted) {
+        for (Evicted e : evicted) {
+            evictions[e.cause.ordinal()].increment();
+            log.debug("game {} evicted, {}", e.id, e.cause);
+            for (EvictionListener listener : listeners) {
+                try {
+                    listener.onEviction(e.id, e.game, e.cause);
+                } catch (RuntimeException ex) {
+                    log.warn("eviction listener failed for game {}", e.id, ex);
+                }
+            }
+        }
+    }
+
+    private ScheduledExecutorService startSweeper() {
+        long shortest = idleNanos == 0 ? parkNanos : Math.min(parkNanos, idleNanos);
+        long period = Math.min(MAX_SWEEP_NANOS, Math.max(MIN_SWEEP_NANOS, shortest / 4));
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                cleanUp();
+            } catch (RuntimeException e) {
+                log.warn("game store sweep failed", e);
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+        return executor;
+    }
+
+    // records, must run under the lock
+
+    private int allocate() {
+        if (freeHead >= 0) {
+            int record = freeHead;
+            freeHead = chunk(record).getInt(offset(record) + NEXT_FREE);
+            return record;
+        }
+
+        int record = allocated++;
+        int c = record / RECORDS_PER_CHUNK;
+        if (chunks[c] == null) {
+            int records = Math.min(RECORDS_PER_CHUNK, capacity - c * RECORDS_PER_CHUNK);
+            chunks[c] = ByteBuffer.allocateDirect(records * RECORD_BYTES);
+        }
+        return record;
+    }
+
+    private void delete(UUID id, int record) {
+        unlink(id);
+        ByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        chunk.put(offset + FLAGS, (byte) 0);
+        chunk.putInt(offset + NEXT_FREE, freeHead);
+        freeHead = record;
+        size--;
+    }
+
+    private ByteBuffer chunk(int record) {
+        return chunks[record / RECORDS_PER_CHUNK];
+    }
+
+    private static int offset(int record) {
+        return (record % RECORDS_PER_CHUNK) * RECORD_BYTES;
+    }
+
+    private UUID id(int record) {
+        ByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        return new UUID(chunk.getLong(offset + MOST_SIGNIFICANT), chunk.getLong(offset + LEAST_SIGNIFICANT));
+    }
+
+    private int seconds(long nanos) {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(nanos - start);
+    }
+
+    // index, linear probing holding record + 1, 0 is an empty slot
+
+    private int find(UUID id) {
+        int slot = slot(id);
+        return slot < 0 ? -1 : table.get(slot) - 1;
+    }
+
+    private int slot(UUID id) {
+        for (int slot = home(id); ; slot = (slot + 1) & tableMask) {
+            int record = table.get(slot) - 1;
+            if (record < 0) {
+                return -1;
+            }
+            ByteBuffer chunk = chunk(record);
+            int offset = offset(record);
+            if (chunk.getLong(offset + MOST_SIGNIFICANT) == id.getMostSignificantBits()
+                    && chunk.getLong(offset + LEAST_SIGNIFICANT) == id.getLeastSignificantBits()) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(UUID id, int record) {
+        ByteBuffer chunk = chunk(record);
+        int offset = offset(record);
+        chunk.putLong(offset + MOST_SIGNIFICANT, id.getMostSignificantBits());
+        chunk.putLong(offset + LEAST_SIGNIFICANT, id.getLeastSignificantBits());
+
+        int slot = home(id);
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+        table.put(slot, record + 1);
+    }
+
+    /**
+     * removes the slot of an id and moves back the entries of the same run that would not be found anymore
+     */
+    private void unlink(UUID id) {
+        int slot = slot(id);
+        for (int next = (slot + 1) & tableMask; table.get(next) != 0; next = (next + 1) & tableMask) {
+            int home = home(id(table.get(next) - 1));
+            // the entry at next stays when its home is cyclically in (slot, next]
+            boolean stays = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!stays) {
+                table.put(slot, table.get(next));
+                slot = next;
+            }
+        }
+        table.put(slot, 0);
+    }
+
+    private int home(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * game living on the heap, it writes its changes to its record
+     */
+    private final class Live implements Consumer<GameEvent> {
+        private final UUID id;
+        private final ChessGame game;
+        // listeners of the game when it went live, more mean someone follows the game
+        private final int listeners;
+        private volatile long lastRead;
+
+        private Live(UUID id, ChessGame game, long lastRead) {
+            this.id = id;
+            this.game = game;
+            this.lastRead = lastRead;
+            game.addFirstListener(this);
+            this.listeners = game.listenerCount();
+        }
+
+        @Override
+        public void accept(GameEvent event) {
+            write(id, game);
+        }
+    }
+
+    private record Evicted(UUID id, ChessGame game, Cause cause) {}
+
+}
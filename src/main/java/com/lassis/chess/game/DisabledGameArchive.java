@@ -0,0 +1,34 @@
+package com.lassis.chess.game;
+
+import java.util.UUID;
+
+/**
+ * Archive keeping nothing, games are never archived
+ */
+final class DisabledGameArchive implements GameArchive {
+    static final DisabledGameArchive INSTANCE = new DisabledGameArchive();
+
+    private DisabledGameArchive() {
+    }
+
+    @Override
+    public boolean archive(UUID id, ChessGame game) {
+        return false;
+    }
+
+    @Override
+    public Archived get(UUID id) {
+        return null;
+    }
+
+    @Override
+    public ChessGame position(UUID id, int ply) {
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.lassis.chess.game;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Journal keeping nothing, every change is durable at once
+ */
+final class DisabledGameJournal implements GameJournal {
+    static final DisabledGameJournal INSTANCE = new DisabledGameJournal();
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private DisabledGameJournal() {
+    }
+
+    @Override
+    public void created(UUID id) {
+    }
+
+    @Override
+    public void append(UUID id, GameEvent event) {
+    }
+
+    @Override
+    public void deleted(UUID id) {
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        return DONE;
+    }
+
+    @Override
+    public Map<UUID, ChessGame> recover(PositionCache positionCache, boolean singleWriter) {
+        return Map.of();
+    }
+
+}
@@ -0,0 +1,452 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Move;
+import com.lassis.chess.model.Point;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Archive written to segment files of a directory, {@code archive-<sequence>.seg}, each entry a finished game:
+ * <pre>
+ * id (16) first position (GameRecord.BYTES) move count (4) moves (2 each) crc (4)
+ * </pre>
+ * A move is its origin and destination squares, 6 bits each, see {@link Move}. The first position is the one the game
+ * started from, the initial position for a new game, so a game of 40 moves takes 161 bytes.
+ * <p>
+ * Entries are found through {@code archive.idx}, an open addressing table of game id, segment and offset, mapped in
+ * memory like the segments. Reading a game probes the table and reads its entry in the mapped segment, the rest of
+ * the file is never read, and the game is replayed from its first position up to the ply asked for, so the archive
+ * keeps no game on the heap. The table doubles into a new file once half full.
+ * <p>
+ * An entry is forced to disk before it is indexed, and its slot before the index header moves past it, so the header
+ * tells up to which entry the index is complete on disk. At
+ * start the entries written after that are indexed again, a torn entry at the end of a segment is cut off, and a new
+ * segment is started. A missing or damaged index is rebuilt from the segments.
+ */
+@Slf4j
+public class FileGameArchive implements GameArchive {
+    static final String PREFIX = "archive-";
+    static final String SUFFIX = ".seg";
+    static final String INDEX = "archive.idx";
+
+    private static final int MAGIC = 0x43484131;
+    private static final int INDEX_MAGIC = 0x43484931;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    // entry layout
+    private static final int ID = 0;
+    private static final int START = 16;
+    private static final int COUNT = START + GameRecord.BYTES;
+    private static final int MOVES = COUNT + Integer.BYTES;
+    private static final int SQUARE_BITS = 6;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+
+    // index layout: magic (4) slots (4) games (4) indexed segment (4) indexed end (8), then the slots
+    private static final int SLOTS = 4;
+    private static final int GAMES = 8;
+    private static final int INDEXED_SEGMENT = 12;
+    private static final int INDEXED_END = 16;
+    private static final int INDEX_HEADER_BYTES = 24;
+    // slot: id (16) segment + 1 (4) offset (4), a zero segment is an empty slot
+    private static final int SLOT_BYTES = 24;
+    private static final int MIN_SLOTS = 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final PositionCache positionCache;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, MappedByteBuffer> mapped = new ConcurrentHashMap<>();
+
+    // guarded by lock
+    private MappedByteBuffer index;
+    private int slotMask;
+    private FileChannel segment;
+    private int sequence;
+
+    /**
+     * @param directory     where the segments and the index are, created when missing
+     * @param segmentSize   a segment is closed once it is bigger, at most 1GB
+     * @param positionCache cache of the games read back
+     */
+    public FileGameArchive(Path directory, long segmentSize, PositionCache positionCache) {
+        if (segmentSize < 1 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segment size must be between 1 and " + MAX_SEGMENT_SIZE);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.positionCache = positionCache;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments();
+            openIndex();
+            for (Path path : segments) {
+                catchUp(path, sequence(path));
+            }
+            this.sequence = segments.isEmpty() ? 0 : sequence(segments.get(segments.size() - 1)) + 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("game archive " + directory + " can not be read", e);
+        }
+        log.info("game archive in {} with {} games, segments of {} bytes", directory, size(), segmentSize);
+    }
+
+    /**
+     * writes the entry outside the lock, then appends it, forces it and indexes it under the lock. The slot is forced
+     * before the header moves past the entry, a header written out without the slot would skip the entry at start
+     */
+    @Override
+    public boolean archive(UUID id, ChessGame game) {
+        ByteBuffer start = ByteBuffer.allocate(GameRecord.BYTES);
+        int[] moves = game.history(start, 0);
+        if (moves == null) {
+            return false;
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(MOVES + moves.length * Short.BYTES + Integer.BYTES);
+        entry.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).put(start.array()).putInt(moves.length);
+        for (int move : moves) {
+            entry.putShort((short) (Move.from(move) | Move.to(move) << SQUARE_BITS));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(entry.array(), 0, entry.position());
+        entry.putInt((int) crc.getValue()).flip();
+
+        lock.writeLock().lock();
+        try {
+            if (find(id) >= 0) {
+                return false;
+            }
+            if (segment == null || segment.position() >= segmentSize) {
+                openSegment();
+            }
+            int offset = (int) segment.position();
+            while (entry.hasRemaining()) {
+                segment.write(entry);
+            }
+            segment.force(false);
+            index(id, sequence - 1, offset);
+            index.force();
+            index.putInt(INDEXED_SEGMENT, sequence - 1).putLong(INDEXED_END, segment.position());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("game " + id + " can not be archived", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Archived get(UUID id) {
+        Entry entry = entry(id);
+        if (entry == null) {
+            return null;
+        }
+
+        int count = entry.buffer.getInt(entry.offset + COUNT);
+        List<PlannedMove> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int move = entry.buffer.getShort(entry.offset + MOVES + i * Short.BYTES);
+            moves.add(new PlannedMove(Point.of(move & SQUARE_MASK), Point.of((move >>> SQUARE_BITS) & SQUARE_MASK)));
+        }
+        return new Archived(id, GameRecord.ply(entry.buffer, entry.offset + START), moves);
+    }
+
+    /**
+     * decodes the first position and plays the moves up to the ply, reading only the entry of the game
+     */
+    @Override
+    public ChessGame position(UUID id, int ply) {
+        Entry entry = entry(id);
+        if (entry == null) {
+            return null;
+        }
+
+        int firstPly = GameRecord.ply(entry.buffer, entry.offset + START);
+        int count = entry.buffer.getInt(entry.offset + COUNT);
+        if (ply < firstPly || ply > firstPly + count) {
+            throw new IllegalArgumentException("game " + id + " has no ply " + ply + ", it goes from " + firstPly + " to " + (firstPly + count));
+        }
+
+        ChessGame game = GameRecord.read(entry.buffer, entry.offset + START, positionCache, true);
+        for (int i = 0; i < ply - firstPly; i++) {
+            int move = entry.buffer.getShort(entry.offset + MOVES + i * Short.BYTES);
+            game.moveTo(Point.of(move & SQUARE_MASK), Point.of((move >>> SQUARE_BITS) & SQUARE_MASK));
+        }
+        return game;
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.getInt(GAMES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+            }
+            index.force();
+        } catch (IOException e) {
+            log.warn("game archive segment can not be closed", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * finds the entry of a game in its mapped segment, mapping the segment again when it grew past the mapping
+     */
+    private Entry entry(UUID id) {
+        long location;
+        lock.readLock().lock();
+        try {
+            location = find(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (location < 0) {
+            return null;
+        }
+
+        int segmentSequence = (int) (location >>> 32);
+        int offset = (int) location;
+        MappedByteBuffer buffer = mapping(segmentSequence, offset + MOVES);
+        buffer = mapping(segmentSequence, offset + MOVES + buffer.getInt(offset + COUNT) * Short.BYTES);
+        return new Entry(buffer, offset);
+    }
+
+    /**
+     * the segment being written grows, it is mapped again when an entry ends past the mapping
+     */
+    private MappedByteBuffer mapping(int segmentSequence, int end) {
+        MappedByteBuffer buffer = mapped.get(segmentSequence);
+        if (buffer != null && buffer.capacity() >= end) {
+            return buffer;
+        }
+        return mapped.compute(segmentSequence, (s, current) -> current != null && current.capacity() >= end ? current : map(s));
+    }
+
+    private MappedByteBuffer map(int segmentSequence) {
+        try (FileChannel channel = FileChannel.open(path(segmentSequence), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("game archive segment " + segmentSequence + " can not be mapped", e);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        Path path = path(sequence++);
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+        while (magic.hasRemaining()) {
+            segment.write(magic);
+        }
+        segment.force(true);
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("archive directory {} can not be forced", directory, e);
+        }
+        log.debug("game archive segment {} opened", path);
+    }
+
+    /**
+     * indexes the entries of a segment written after the ones the index holds, and cuts a torn entry at its end
+     */
+    private void catchUp(Path path, int segmentSequence) throws IOException {
+        int indexedSegment = index.getInt(INDEXED_SEGMENT);
+        if (segmentSequence < indexedSegment) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < Integer.BYTES || buffer.getInt(0) != MAGIC) {
+            log.warn("{} is not a game archive segment, it is skipped", path);
+            return;
+        }
+
+        int offset = segmentSequence == indexedSegment ? (int) Math.max(Integer.BYTES, index.getLong(INDEXED_END)) : Integer.BYTES;
+        int entries = 0;
+        CRC32C check = new CRC32C();
+        while (offset < buffer.limit()) {
+            int size = buffer.limit() - offset < MOVES ? -1 : MOVES + buffer.getInt(offset + COUNT) * Short.BYTES + Integer.BYTES;
+            boolean valid = size > 0 && size <= buffer.limit() - offset;
+            if (valid) {
+                check.reset();
+                check.update(buffer.array(), offset, size - Integer.BYTES);
+                valid = (int) check.getValue() == buffer.getInt(offset + size - Integer.BYTES);
+            }
+            if (!valid) {
+                log.warn("game archive segment {} is cut at byte {}, the entry there is incomplete", path, offset);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(offset);
+                }
+                break;
+            }
+
+            index(new UUID(buffer.getLong(offset + ID), buffer.getLong(offset + ID + Long.BYTES)), segmentSequence, offset);
+            offset += size;
+            entries++;
+        }
+        index.putInt(INDEXED_SEGMENT, segmentSequence).putLong(INDEXED_END, offset);
+        if (entries > 0) {
+            log.info("{} archived games of {} indexed", entries, path);
+        }
+    }
+
+    // index, must run under the lock
+
+    private void openIndex() throws IOException {
+        Path path = directory.resolve(INDEX);
+        if (Files.exists(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                if (size >= INDEX_HEADER_BYTES) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                    int slots = buffer.getInt(SLOTS);
+                    if (buffer.getInt(0) == INDEX_MAGIC && Integer.bitCount(slots) == 1 && size == INDEX_HEADER_BYTES + (long) slots * SLOT_BYTES) {
+                        index = buffer;
+                        slotMask = slots - 1;
+                        return;
+                    }
+                }
+            }
+            log.warn("game archive index {} is damaged, it is built again from the segments", path);
+        }
+        index = createIndex(path, MIN_SLOTS);
+        slotMask = MIN_SLOTS - 1;
+    }
+
+    private MappedByteBuffer createIndex(Path path, int slots) throws IOException {
+        Files.deleteIfExists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES + (long) slots * SLOT_BYTES);
+            buffer.putInt(0, INDEX_MAGIC).putInt(SLOTS, slots).putInt(GAMES, 0).putInt(INDEXED_SEGMENT, 0).putLong(INDEXED_END, 0);
+            return buffer;
+        }
+    }
+
+    /**
+     * @return segment in the high 32 bits and offset in the low ones, -1 when the game is not archived
+     */
+    private long find(UUID id) {
+        for (int slot = home(id); ; slot = (slot + 1) & slotMask) {
+            int at = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            int segmentPlusOne = index.getInt(at + 16);
+            if (segmentPlusOne == 0) {
+                return -1;
+            }
+            if (index.getLong(at) == id.getMostSignificantBits() && index.getLong(at + 8) == id.getLeastSignificantBits()) {
+                return (long) (segmentPlusOne - 1) << 32 | (index.getInt(at + 20) & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    private void index(UUID id, int segmentSequence, int offset) throws IOException {
+        if ((index.getInt(GAMES) + 1) * 2L > slotMask + 1L) {
+            grow();
+        }
+        if (put(index, slotMask, id, segmentSequence, offset)) {
+            index.putInt(GAMES, index.getInt(GAMES) + 1);
+        }
+    }
+
+    /**
+     * @return false when the id was already in the table, its location is replaced
+     */
+    private static boolean put(ByteBuffer table, int mask, UUID id, int segmentSequence, int offset) {
+        for (int slot = home(id, mask); ; slot = (slot + 1) & mask) {
+            int at = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            boolean empty = table.getInt(at + 16) == 0;
+            if (empty || table.getLong(at) == id.getMostSignificantBits() && table.getLong(at + 8) == id.getLeastSignificantBits()) {
+                table.putLong(at, id.getMostSignificantBits()).putLong(at + 8, id.getLeastSignificantBits())
+                     .putInt(at + 16, segmentSequence + 1).putInt(at + 20, offset);
+                return empty;
+            }
+        }
+    }
+
+    /**
+     * copies the table to a file twice as big and renames it over the index
+     */
+    private void grow() throws IOException {
+        int slots = (slotMask + 1) * 2;
+        Path path = directory.resolve(INDEX);
+        Path temporary = directory.resolve(INDEX + ".tmp");
+        MappedByteBuffer bigger = createIndex(temporary, slots);
+        for (int slot = 0; slot <= slotMask; slot++) {
+            int at = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            int segmentPlusOne = index.getInt(at + 16);
+            if (segmentPlusOne != 0) {
+                put(bigger, slots - 1, new UUID(index.getLong(at), index.getLong(at + 8)), segmentPlusOne - 1, index.getInt(at + 20));
+            }
+        }
+        bigger.putInt(GAMES, index.getInt(GAMES)).putInt(INDEXED_SEGMENT, index.getInt(INDEXED_SEGMENT)).putLong(INDEXED_END, index.getLong(INDEXED_END));
+        bigger.force();
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        index = bigger;
+        slotMask = slots - 1;
+        log.debug("game archive index grown to {} slots", slots);
+    }
+
+    private int home(UUID id) {
+        return home(id, slotMask);
+    }
+
+    private static int home(UUID id, int mask) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private Path path(int segmentSequence) {
+        return directory.resolve(PREFIX + String.format("%010d", segmentSequence) + SUFFIX);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static int sequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private record Entry(MappedByteBuffer buffer, int offset) {}
+
+}
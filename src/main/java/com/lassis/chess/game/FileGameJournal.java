@@ -0,0 +1,771 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Bitboards;
+import com.lassis.chess.model.Point;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal written to segment files of a directory, {@code journal-<sequence>.log}. Each record is the record type,
+ * the game id, the game version after the change, the origin and destination squares for a move or the move taken
+ * back, the piece a move taken back had captured, see {@link GameRecord}, and a CRC32C of those bytes:
+ * <pre>
+ * created, deleted   type (1) id (16) version (4) crc (4)
+ * moved              type (1) id (16) version (4) from (1) to (1) crc (4)
+ * took back          type (1) id (16) version (4) from (1) to (1) captured (1) crc (4)
+ * </pre>
+ * A take back names its move, so it replays on a game restored from a snapshot, which has no moves to take back.
+ * Appending copies the record into a buffer under a lock. A single flusher thread swaps the buffer, writes it and
+ * forces it to disk, then hands every {@link #sync()} waiting for those records to a completer thread, so the stages
+ * depending on them never hold up the next flush. The records appended by all the
+ * games while a force runs go out with the next one, so under load many moves share a disk flush (group commit).
+ * <p>
+ * Every start writes to a new segment, a segment is closed once it grows past the segment size. A crash may leave a
+ * torn record at the end of the last segment written; recovery stops reading a segment at the first record failing
+ * its checksum and cuts the segment there.
+ * <p>
+ * A snapshot, {@code snapshot-<sequence>.bin}, holds every game of a {@link GameStore} as a {@link GameRecord}. The
+ * journal first moves to a new segment, so the older segments only hold changes made before the snapshot started,
+ * then the records are written to a temporary file renamed once on disk, and the older segments and snapshots are
+ * deleted. A game may change while the snapshot is written, so the segments from the snapshot sequence on may hold
+ * changes the snapshot already has; recovery skips them by their version. Recovery maps the last snapshot, decodes
+ * its games and replays the segments after it on all cores, the records of a game always going to the same thread, so
+ * the startup time follows the number of games rather than the length of their history.
+ */
+@Slf4j
+public class FileGameJournal implements GameJournal {
+    static final String PREFIX = "journal-";
+    static final String SUFFIX = ".log";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x43484a33;
+    private static final int SNAPSHOT_MAGIC = 0x43485331;
+    private static final byte CREATED = 1;
+    private static final byte MOVED = 2;
+    private static final byte TOOK_BACK = 3;
+    private static final byte DELETED = 4;
+    private static final int RECORD_BYTES = 1 + 16 + 4 + 4;
+    private static final int MOVE_BYTES = RECORD_BYTES + 2;
+    private static final int TAKEBACK_BYTES = RECORD_BYTES + 3;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // snapshot: magic (4) sequence (8), then the games, then their count (4) and a CRC32C of all the bytes before (4)
+    private static final int SNAPSHOT_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int SNAPSHOT_TRAILER_BYTES = 2 * Integer.BYTES;
+    private static final int SNAPSHOT_ENTRY_BYTES = 2 * Long.BYTES + GameRecord.BYTES;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final Duration snapshotInterval;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private final LongAdder snapshots = new LongAdder();
+    private final Thread flusher;
+    private final ExecutorService completer;
+    private volatile ScheduledExecutorService snapshotter;
+
+    // guarded by lock
+    private ByteBuffer filling = ByteBuffer.allocate(BUFFER_BYTES);
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private final List<CompletableFuture<Long>> rolls = new ArrayList<>();
+    private long appended;
+    private long durable;
+    private long commits;
+    private boolean closing;
+    private RuntimeException failure;
+
+    // flusher thread only
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel segment;
+    private long nextSequence;
+
+    // set by recover
+    private volatile int recoveredGames;
+    private volatile long recoveredRecords;
+    private volatile long recoveryMillis;
+
+    /**
+     * @param directory        where the segments are, created when missing
+     * @param segmentSize      a segment is closed once it is bigger
+     * @param fsync            false only writes to the operating system, a crash of the machine may lose the last records
+     * @param snapshotInterval time between the snapshots of {@link #startSnapshots(GameStore)}, zero takes none
+     */
+    public FileGameJournal(Path directory, long segmentSize, boolean fsync, Duration snapshotInterval) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segment size must be positive");
+        }
+        if (snapshotInterval.isNegative()) {
+            throw new IllegalArgumentException("snapshot interval must not be negative");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.snapshotInterval = snapshotInterval;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = files(PREFIX, SUFFIX);
+            List<Path> snapshotFiles = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            // the segment a snapshot points to may not exist yet, the next one must not come before it
+            long afterSegments = segments.isEmpty() ? 0 : sequence(segments.get(segments.size() - 1), PREFIX, SUFFIX) + 1;
+            long afterSnapshot = snapshotFiles.isEmpty() ? 0 : sequence(snapshotFiles.get(snapshotFiles.size() - 1), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            this.nextSequence = Math.max(afterSegments, afterSnapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal directory " + directory + " can not be read", e);
+        }
+
+        this.completer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-completer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher = new Thread(this::flush, "game-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("game journal in {}, segments of {} bytes, fsync {}, snapshot every {}", directory, segmentSize, fsync, snapshotInterval);
+    }
+
+    @Override
+    public void created(UUID id) {
+        append(CREATED, id, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void append(UUID id, GameEvent event) {
+        switch (event.type()) {
+            case MOVE -> append(MOVED, id, event.version(), Bitboards.index(event.from()), Bitboards.index(event.to()), 0);
+            case TAKEBACK -> append(TOOK_BACK, id, event.version(), Bitboards.index(event.from()), Bitboards.index(event.to()),
+                    GameRecord.code(event.captured()));
+        }
+    }
+
+    @Override
+    public void deleted(UUID id) {
+        append(DELETED, id, 0, 0, 0, 0);
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        lock.lock();
+        try {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            if (durable >= appended) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Waiter waiter = new Waiter(appended, new CompletableFuture<>());
+            waiters.add(waiter);
+            return waiter.future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * loads the last snapshot and replays the segments written after it, it must run before the first append
+     */
+    @Override
+    public Map<UUID, ChessGame> recover(PositionCache positionCache, boolean singleWriter) {
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger started = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-recovery-" + started.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<UUID, ChessGame> games = new ConcurrentHashMap<>();
+        long replayed;
+        try {
+            long from = load(games, positionCache, singleWriter, pool, threads);
+            List<List<Replay>> partitions = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                partitions.add(new ArrayList<>());
+            }
+            for (Path path : files(PREFIX, SUFFIX)) {
+                if (sequence(path, PREFIX, SUFFIX) >= from) {
+                    read(path, partitions);
+                }
+            }
+            replayed = replay(partitions, games, positionCache, singleWriter, pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal " + directory + " can not be read", e);
+        } finally {
+            pool.shutdown();
+        }
+
+        recoveredGames = games.size();
+        recoveredRecords = replayed;
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("{} games recovered, {} journal records replayed on {} threads in {} ms", recoveredGames, replayed, threads, recoveryMillis);
+        return games;
+    }
+
+    /**
+     * writes every game of the store to a new snapshot, then deletes the segments and snapshots it replaces. The games
+     * are read while they keep changing, the store passes each one as it is at that moment
+     */
+    @Override
+    public void snapshot(GameStore games) {
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            long sequence = roll().join();
+            Path temporary = directory.resolve(SNAPSHOT_PREFIX + String.format("%020d", sequence) + ".tmp");
+            Path path = directory.resolve(SNAPSHOT_PREFIX + String.format("%020d", sequence) + SNAPSHOT_SUFFIX);
+            int count;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                SnapshotWriter writer = new SnapshotWriter(channel, sequence);
+                games.forEachRecord(writer::add);
+                count = writer.finish();
+                // the snapshot replaces segments already on disk, it must be on disk before they are deleted
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+            compact(sequence);
+            snapshots.increment();
+            log.info("snapshot of {} games written to {} in {} ms", count, path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("snapshot can not be written to " + directory, e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void startSnapshots(GameStore games) {
+        if (snapshotInterval.isZero() || snapshotter != null) {
+            return;
+        }
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = snapshotInterval.toNanos();
+        snapshotter.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(games);
+            } catch (RuntimeException e) {
+                log.warn("game snapshot failed, the journal keeps growing until one succeeds", e);
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(appended, durable, commits, snapshots.sum(), recoveredGames, recoveredRecords, recoveryMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * writes what was appended and closes the segment, a snapshot in progress is let finish
+     */
+    @Override
+    public void close() {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        lock.lock();
+        try {
+            closing = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+            completer.shutdown();
+            completer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(byte type, UUID id, int version, int from, int to, int captured) {
+        lock.lock();
+        try {
+            if (closing || failure != null) {
+                throw new IllegalStateException("game journal is closed", failure);
+            }
+
+            if (filling.remaining() < TAKEBACK_BYTES) {
+                ByteBuffer bigger = ByteBuffer.allocate(filling.capacity() * 2);
+                filling.flip();
+                filling = bigger.put(filling);
+            }
+            int start = filling.position();
+            filling.put(type).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).putInt(version);
+            if (type == MOVED || type == TOOK_BACK) {
+                filling.put((byte) from).put((byte) to);
+            }
+            if (type == TOOK_BACK) {
+                filling.put((byte) captured);
+            }
+            crc.reset();
+            crc.update(filling.array(), start, filling.position() - start);
+            filling.putInt((int) crc.getValue());
+
+            appended++;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * closes the current segment once the records appended so far are written
+     *
+     * @return completes with the sequence of the next segment, it holds only records appended after the call
+     */
+    private CompletableFuture<Long> roll() {
+        lock.lock();
+        try {
+            if (closing || failure != null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("game journal is closed", failure));
+            }
+            CompletableFuture<Long> roll = new CompletableFuture<>();
+            rolls.add(roll);
+            work.signal();
+            return roll;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * flusher loop, one write and one force per batch of records
+     */
+    private void flush() {
+        while (true) {
+            ByteBuffer batch;
+            long target;
+            List<CompletableFuture<Long>> rolled;
+            lock.lock();
+            try {
+                while (filling.position() == 0 && rolls.isEmpty() && !closing) {
+                    work.awaitUninterruptibly();
+                }
+                if (filling.position() == 0 && rolls.isEmpty()) {
+                    break;
+                }
+                batch = filling;
+                filling = spare;
+                target = appended;
+                rolled = List.copyOf(rolls);
+                rolls.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            if (batch.position() > 0) {
+                try {
+                    write(batch.flip());
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                    rolled.forEach(roll -> roll.completeExceptionally(failure));
+                    return;
+                }
+                completed(target);
+            }
+            spare = batch.clear();
+            if (!rolled.isEmpty()) {
+                closeSegment();
+                rolled.forEach(roll -> roll.complete(nextSequence));
+            }
+        }
+        closeSegment();
+    }
+
+    private void write(ByteBuffer batch) throws IOException {
+        if (segment == null || segment.position() >= segmentSize) {
+            closeSegment();
+            openSegment();
+        }
+        while (batch.hasRemaining()) {
+            segment.write(batch);
+        }
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(PREFIX + String.format("%020d", nextSequence++) + SUFFIX);
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+        while (magic.hasRemaining()) {
+            segment.write(magic);
+        }
+        if (fsync) {
+            // the new file must survive a crash too
+            forceDirectory();
+        }
+        log.debug("game journal segment {} opened", path);
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("game journal segment can not be closed", e);
+        }
+        segment = null;
+    }
+
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("journal directory {} can not be forced", directory, e);
+        }
+    }
+
+    private void completed(long target) {
+        List<Waiter> done = new ArrayList<>();
+        lock.lock();
+        try {
+            durable = target;
+            commits++;
+            while (!waiters.isEmpty() && waiters.peek().target <= target) {
+                done.add(waiters.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!done.isEmpty()) {
+            completer.execute(() -> done.forEach(waiter -> waiter.future.complete(null)));
+        }
+    }
+
+    private void fail(Exception e) {
+        log.error("game journal can not be written, changes are not durable anymore", e);
+        List<Waiter> failed;
+        lock.lock();
+        try {
+            failure = e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+            failed = new ArrayList<>(waiters);
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        RuntimeException cause = failure;
+        completer.execute(() -> failed.forEach(waiter -> waiter.future.completeExceptionally(cause)));
+        closeSegment();
+    }
+
+    /**
+     * deletes the segments and snapshots older than a snapshot, and the temporary files of snapshots that failed
+     */
+    private void compact(long sequence) throws IOException {
+        List<Path> obsolete = new ArrayList<>();
+        for (Path path : files(PREFIX, SUFFIX)) {
+            if (sequence(path, PREFIX, SUFFIX) < sequence) {
+                obsolete.add(path);
+            }
+        }
+        for (Path path : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (sequence(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sequence) {
+                obsolete.add(path);
+            }
+        }
+        obsolete.addAll(files(SNAPSHOT_PREFIX, ".tmp"));
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+        log.debug("{} journal files made obsolete by snapshot {} deleted", obsolete.size(), sequence);
+    }
+
+    /**
+     * decodes the games of the last snapshot, each thread a slice of them
+     *
+     * @return sequence of the first segment to replay
+     */
+    private long load(Map<UUID, ChessGame> games, PositionCache positionCache, boolean singleWriter, ExecutorService pool, int threads)
+            throws IOException {
+        List<Path> snapshotFiles = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshotFiles.isEmpty()) {
+            return 0;
+        }
+
+        Path path = snapshotFiles.get(snapshotFiles.size() - 1);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        // a snapshot is renamed into place once on disk, a bad one means the disk lost data: better stop than drop games
+        int size = buffer.capacity();
+        long entries = (long) (size - SNAPSHOT_HEADER_BYTES - SNAPSHOT_TRAILER_BYTES) / SNAPSHOT_ENTRY_BYTES;
+        CRC32C check = new CRC32C();
+        check.update(buffer.slice(0, Math.max(0, size - Integer.BYTES)));
+        boolean valid = size >= SNAPSHOT_HEADER_BYTES + SNAPSHOT_TRAILER_BYTES
+                && buffer.getInt(0) == SNAPSHOT_MAGIC
+                && buffer.getInt(size - SNAPSHOT_TRAILER_BYTES) == entries
+                && buffer.getInt(size - Integer.BYTES) == (int) check.getValue();
+        if (!valid) {
+            throw new IllegalStateException("game snapshot " + path + " is corrupt");
+        }
+
+        int count = (int) entries;
+        List<Callable<Void>> slices = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int first = (int) ((long) count * t / threads);
+            int end = (int) ((long) count * (t + 1) / threads);
+            slices.add(() -> {
+                for (int i = first; i < end; i++) {
+                    int offset = SNAPSHOT_HEADER_BYTES + i * SNAPSHOT_ENTRY_BYTES;
+                    UUID id = new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+                    games.put(id, GameRecord.read(buffer, offset + 2 * Long.BYTES, positionCache, singleWriter));
+                }
+                return null;
+            });
+        }
+        await(invokeAll(pool, slices));
+        log.debug("{} games loaded from snapshot {}", count, path);
+        return buffer.getLong(Integer.BYTES);
+    }
+
+    /**
+     * reads the records of a segment, the records of a game all go to the same partition
+     */
+    private void read(Path path, List<List<Replay>> partitions) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+            log.warn("{} is not a game journal segment, it is skipped", path);
+            return;
+        }
+
+        CRC32C check = new CRC32C();
+        int records = 0;
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            byte type = buffer.get(start);
+            int size = type == MOVED ? MOVE_BYTES : type == TOOK_BACK ? TAKEBACK_BYTES : RECORD_BYTES;
+            boolean valid = type >= CREATED && type <= DELETED && buffer.remaining() >= size;
+            if (valid) {
+                check.reset();
+                check.update(buffer.array(), start, size - Integer.BYTES);
+                valid = (int) check.getValue() == buffer.getInt(start + size - Integer.BYTES);
+            }
+            if (!valid) {
+                log.warn("game journal segment {} is cut at byte {}, the record there is incomplete", path, start);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(start);
+                }
+                break;
+            }
+
+            buffer.get();
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            int version = buffer.getInt();
+            boolean squares = type == MOVED || type == TOOK_BACK;
+            int from = squares ? buffer.get() : 0;
+            int to = squares ? buffer.get() : 0;
+            int captured = type == TOOK_BACK ? buffer.get() : 0;
+            buffer.getInt();
+            partitions.get(Math.floorMod(id.hashCode(), partitions.size())).add(new Replay(type, id, version, from, to, captured));
+            records++;
+        }
+        log.debug("{} records read from {}", records, path);
+    }
+
+    /**
+     * replays the partitions in parallel, each one in the order of its records
+     *
+     * @return records replayed
+     */
+    private static long replay(List<List<Replay>> partitions, Map<UUID, ChessGame> games, PositionCache positionCache, boolean singleWriter,
+                               ExecutorService pool) {
+        List<Callable<Void>> tasks = new ArrayList<>(partitions.size());
+        for (List<Replay> partition : partitions) {
+            tasks.add(() -> {
+                for (Replay replay : partition) {
+                    apply(replay, games, positionCache, singleWriter);
+                }
+                return null;
+            });
+        }
+        await(invokeAll(pool, tasks));
+        return partitions.stream().mapToLong(List::size).sum();
+    }
+
+    private static void apply(Replay replay, Map<UUID, ChessGame> games, PositionCache positionCache, boolean singleWriter) {
+        UUID id = replay.id;
+        if (replay.type == CREATED) {
+            games.putIfAbsent(id, new ChessGame(positionCache, singleWriter));
+            return;
+        }
+        if (replay.type == DELETED) {
+            games.remove(id);
+            return;
+        }
+
+        // a request may still change a game after it was deleted, those changes are dropped
+        ChessGame game = games.get(id);
+        if (game == null) {
+            return;
+        }
+        // the snapshot already has the changes made while it was written
+        if (replay.version <= game.snapshot().version()) {
+            return;
+        }
+        // a record that does not apply means the journal does not match the games, recovering the rest would hide it
+        try {
+            if (replay.type == MOVED) {
+                game.moveTo(Point.of(replay.from), Point.of(replay.to));
+            } else {
+                ChessGame takenBack = game.takeback(Point.of(replay.from), Point.of(replay.to), GameRecord.piece(replay.captured));
+                if (takenBack != game) {
+                    games.put(id, takenBack);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("journal record of game " + id + " version " + replay.version + " can not be replayed", e);
+        }
+    }
+
+    private static List<Future<Void>> invokeAll(ExecutorService pool, List<Callable<Void>> tasks) {
+        try {
+            return pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("journal recovery interrupted", e);
+        }
+    }
+
+    private static void await(List<Future<Void>> tasks) {
+        for (Future<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("journal recovery interrupted", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().toList();
+        }
+    }
+
+    private static long sequence(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private record Waiter(long target, CompletableFuture<Void> future) {}
+
+    private record Replay(byte type, UUID id, int version, int from, int to, int captured) {}
+
+    /**
+     * buffers the games of a snapshot and writes them with their checksum
+     */
+    private static final class SnapshotWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final CRC32C check = new CRC32C();
+        private int count;
+
+        private SnapshotWriter(FileChannel channel, long sequence) {
+            this.channel = channel;
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(sequence);
+        }
+
+        private void add(UUID id, ByteBuffer record) {
+            if (buffer.remaining() < SNAPSHOT_ENTRY_BYTES) {
+                drain();
+            }
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+            buffer.put(buffer.position(), record, 0, GameRecord.BYTES).position(buffer.position() + GameRecord.BYTES);
+            count++;
+        }
+
+        private int finish() {
+            if (buffer.remaining() < SNAPSHOT_TRAILER_BYTES) {
+                drain();
+            }
+            buffer.putInt(count);
+            check.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) check.getValue());
+            write();
+            return count;
+        }
+
+        private void drain() {
+            check.update(buffer.array(), 0, buffer.position());
+            write();
+        }
+
+        private void write() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+}
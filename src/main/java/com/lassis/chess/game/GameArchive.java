@@ -0,0 +1,69 @@
+package com.lassis.chess.game;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Finished games, kept out of the {@link GameStore} with the moves that lead to their end. An archived game can be
+ * read back at any ply without the archive keeping it on the heap.
+ */
+public interface GameArchive extends AutoCloseable {
+
+    /**
+     * moves of an archived game
+     *
+     * @param id       game id
+     * @param firstPly ply of the first position kept, a game restored from a record starts where it was restored
+     * @param moves    moves played from the first position
+     */
+    record Archived(UUID id, int firstPly, List<PlannedMove> moves) {
+
+        public int lastPly() {
+            return firstPly + moves.size();
+        }
+    }
+
+    /**
+     * archives a game once it is over
+     *
+     * @param id   game id
+     * @param game finished game
+     * @return false when the game is not over or already archived
+     */
+    boolean archive(UUID id, ChessGame game);
+
+    /**
+     * @param id game id
+     * @return the moves of the game or null when it is not archived
+     */
+    Archived get(UUID id);
+
+    /**
+     * rebuilds the position of an archived game at a ply, the game returned is not kept by the archive
+     *
+     * @param id  game id
+     * @param ply between {@link Archived#firstPly()} and {@link Archived#lastPly()}
+     * @return the game at that ply or null when it is not archived
+     * @throws IllegalArgumentException when the game has no such ply
+     */
+    ChessGame position(UUID id, int ply);
+
+    /**
+     * @return games archived
+     */
+    int size();
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * archive keeping nothing, finished games stay in the store
+     *
+     * @return disabled archive
+     */
+    static GameArchive disabled() {
+        return DisabledGameArchive.INSTANCE;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.Point;
+
+/**
+ * committed change of a game, see {@link ChessGame#addListener}
+ *
+ * @param type     what changed
+ * @param ply      moves on the board after the change
+ * @param from     origin of the move, for a take back the origin of the move taken back
+ * @param to       destination of the move, for a take back the destination of the move taken back
+ * @param piece    piece moved
+ * @param captured piece captured by the move or back on the board after the take back, null when there is none
+ * @param status   game status after the change
+ * @param version  changes of the game so far, moves and take backs, see {@link GameSnapshot#version()}
+ */
+public record GameEvent(Type type, int ply, Point from, Point to, Piece piece, Piece captured, ChessGameStatus status, int version) {
+
+    public enum Type {
+        MOVE,
+        TAKEBACK
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.lassis.chess.game;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs the changes of a game. Reads do not need it, they are served from the game snapshot.
+ */
+public interface GameExecutor extends AutoCloseable {
+
+    enum Mode {
+        /**
+         * changes run on the caller thread, each game has its own lock
+         */
+        LOCKING,
+        /**
+         * changes run on the single thread owning the game, see {@link GameShards}
+         */
+        SHARDED
+    }
+
+    /**
+     * runs a change of a game
+     *
+     * @param gameId game to change
+     * @param action change, exceptions thrown by it fail the returned future
+     * @param <T>    type of the result
+     * @return result of the change
+     */
+    <T> CompletableFuture<T> execute(UUID gameId, Supplier<T> action);
+
+    /**
+     * tells if each game is only changed by one thread, in that case games can skip their lock
+     *
+     * @return true when changes of a game never run concurrently
+     */
+    boolean singleWriter();
+
+    /**
+     * queue metrics of each shard
+     *
+     * @return one entry per shard, empty when changes are not sharded
+     */
+    default List<ShardStats> stats() {
+        return List.of();
+    }
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * executor running the changes on the caller thread
+     *
+     * @return locking executor
+     */
+    static GameExecutor locking() {
+        return LockingGameExecutor.INSTANCE;
+    }
+
+    /**
+     * queue metrics of a shard
+     *
+     * @param shard         shard index
+     * @param queueDepth    changes waiting to run
+     * @param maxQueueDepth highest queue depth seen
+     * @param completed     changes already run
+     */
+    record ShardStats(int shard, int queueDepth, int maxQueueDepth, long completed) {}
+
+}
@@ -0,0 +1,83 @@
+package com.lassis.chess.game;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Append-only log of the games: creations, the moves and take backs sent by the game listeners, and deletions.
+ * Appending only copies a few bytes, {@link #sync()} tells when they are on disk, so callers answer once their change
+ * is durable without holding the game meanwhile.
+ */
+public interface GameJournal extends AutoCloseable {
+
+    /**
+     * @param appended         records appended
+     * @param durable          records on disk
+     * @param commits          disk flushes, each one makes all the records appended before it durable
+     * @param snapshots        snapshots written
+     * @param recoveredGames   games rebuilt at startup
+     * @param recoveredRecords records replayed at startup, the ones written after the last snapshot
+     * @param recoveryMillis   time taken to rebuild the games at startup
+     */
+    record Stats(long appended, long durable, long commits, long snapshots, int recoveredGames, long recoveredRecords,
+                 long recoveryMillis) {}
+
+    void created(UUID id);
+
+    /**
+     * @param id    game id
+     * @param event move or take back of the game
+     */
+    void append(UUID id, GameEvent event);
+
+    void deleted(UUID id);
+
+    /**
+     * @return completes once everything appended before the call is durable
+     */
+    CompletableFuture<Void> sync();
+
+    /**
+     * rebuilds the games of the journal from the last snapshot and the moves played after it
+     *
+     * @param positionCache cache of the rebuilt games
+     * @param singleWriter  see {@link ChessGame#ChessGame(PositionCache, boolean)}
+     * @return games still alive
+     */
+    Map<UUID, ChessGame> recover(PositionCache positionCache, boolean singleWriter);
+
+    /**
+     * writes the games of a store as a snapshot, the journal written before it is not needed anymore
+     *
+     * @param games games to write
+     */
+    default void snapshot(GameStore games) {
+    }
+
+    /**
+     * takes snapshots of a store from now on, at the pace set up for the journal
+     *
+     * @param games games to write
+     */
+    default void startSnapshots(GameStore games) {
+    }
+
+    default Stats stats() {
+        return new Stats(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * journal keeping nothing, games are lost on restart
+     *
+     * @return disabled journal
+     */
+    static GameJournal disabled() {
+        return DisabledGameJournal.INSTANCE;
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Bitboards;
+import com.lassis.chess.model.Board;
+import com.lassis.chess.model.BoardView;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.PieceType;
+import com.lassis.chess.model.Point;
+import com.lassis.chess.model.pieces.Pieces;
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed size binary form of a game on a 8x8 board, {@link #BYTES} bytes:
+ * <pre>
+ *  0  32 bytes  a piece per square, 4 bits each, square 2i in the low bits of byte i
+ * 32  1 byte    color to move
+ * 33  1 byte    number of captured pieces
+ * 34  15 bytes  captured pieces, 4 bits each in the order they were captured
+ * 49  4 bytes   moves played
+ * 53  4 bytes   changes made, see {@link GameSnapshot#version()}
+ * </pre>
+ * A piece is {@code color << 3 | type + 1}, 0 is an empty square. There are no promotions, so at most 30 pieces are
+ * captured, the kings never are. The statuses follow from the pieces and the color to move, they are computed again
+ * when the game is read. The moves played are not kept, a game read back can not be taken back.
+ */
+@UtilityClass
+class GameRecord {
+    static final int BYTES = 57;
+
+    private final int BOARD = 0;
+    private final int TURN = 32;
+    private final int CAPTURED_COUNT = 33;
+    private final int CAPTURED = 34;
+    private final int PLY = 49;
+    private final int VERSION = 53;
+    private final int MAX_CAPTURED = 30;
+
+    /**
+     * writes a snapshot of a game
+     *
+     * @param snapshot pieces, status, ply and version of the game
+     * @param buffer   where the record is written
+     * @param offset   index of the first byte
+     */
+    void write(GameSnapshot snapshot, ByteBuffer buffer, int offset) {
+        ChessGameStatus status = snapshot.status();
+        write(snapshot.board(), status.turn(), status.deleted(), snapshot.ply(), snapshot.version(), buffer, offset);
+    }
+
+    /**
+     * writes a position
+     *
+     * @param board    pieces on the board
+     * @param turn     color to move
+     * @param captured captured pieces, in the order they were captured
+     * @param ply      moves played
+     * @param version  changes made
+     * @param buffer   where the record is written
+     * @param offset   index of the first byte
+     */
+    void write(BoardView board, Color turn, List<Piece> captured, int ply, int version, ByteBuffer buffer, int offset) {
+        if (board.rows() != Bitboards.SIZE || board.columns() != Bitboards.SIZE) {
+            throw new IllegalArgumentException("only 8x8 boards can be written");
+        }
+
+        byte[] squares = new byte[Bitboards.SQUARES / 2];
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                int code = code(color, type);
+                for (long bb = board.pieces(color, type); bb != 0; bb &= bb - 1) {
+                    int square = Bitboards.first(bb);
+                    squares[square >>> 1] |= (byte) (code << ((square & 1) << 2));
+                }
+            }
+        }
+        for (int i = 0; i < squares.length; i++) {
+            buffer.put(offset + BOARD + i, squares[i]);
+        }
+
+        if (captured.size() > MAX_CAPTURED) {
+            throw new IllegalStateException(captured.size() + " captured pieces do not fit");
+        }
+        buffer.put(offset + TURN, (byte) turn.ordinal());
+        buffer.put(offset + CAPTURED_COUNT, (byte) captured.size());
+        for (int i = 0; i < MAX_CAPTURED; i += 2) {
+            int low = i < captured.size() ? code(captured.get(i).color(), captured.get(i).type()) : 0;
+            int high = i + 1 < captured.size() ? code(captured.get(i + 1).color(), captured.get(i + 1).type()) : 0;
+            buffer.put(offset + CAPTURED + (i >>> 1), (byte) (low | high << 4));
+        }
+        buffer.putInt(offset + PLY, ply);
+        buffer.putInt(offset + VERSION, version);
+    }
+
+    /**
+     * reads a game written by {@link #write(GameSnapshot, ByteBuffer, int)}
+     *
+     * @param buffer        where the record is
+     * @param offset        index of the first byte
+     * @param positionCache cache of the new game
+     * @param singleWriter  see {@link ChessGame#ChessGame(PositionCache, boolean)}
+     * @return a new game with the pieces, turn and captured pieces of the record
+     */
+    ChessGame read(ByteBuffer buffer, int offset, PositionCache positionCache, boolean singleWriter) {
+        Board board = new Board(Bitboards.SIZE, Bitboards.SIZE);
+        for (int i = 0; i < Bitboards.SQUARES / 2; i++) {
+            int squares = buffer.get(offset + BOARD + i);
+            place(board, i << 1, squares & 0xF);
+            place(board, (i << 1) + 1, (squares >>> 4) & 0xF);
+        }
+
+        int count = buffer.get(offset + CAPTURED_COUNT);
+        List<Piece> captured = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int pair = buffer.get(offset + CAPTURED + (i >>> 1));
+            captured.add(piece((pair >>> ((i & 1) << 2)) & 0xF));
+        }
+
+        Color turn = Color.values()[buffer.get(offset + TURN)];
+        return new ChessGame(board, turn, captured, buffer.getInt(offset + PLY), buffer.getInt(offset + VERSION), positionCache, singleWriter);
+    }
+
+    /**
+     * @param buffer where the record is
+     * @param offset index of the first byte
+     * @return moves played before the position of the record
+     */
+    int ply(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + PLY);
+    }
+
+    private void place(Board board, int square, int code) {
+        if (code != 0) {
+            board.place(piece(code), Point.of(square));
+        }
+    }
+
+    /**
+     * @param piece a piece or null
+     * @return the code of the piece in a record, 0 for null
+     */
+    int code(Piece piece) {
+        return piece == null ? 0 : code(piece.color(), piece.type());
+    }
+
+    /**
+     * @param code code of a piece in a record, see {@link #code(Piece)}
+     * @return the piece, null for 0
+     */
+    Piece piece(int code) {
+        return code == 0 ? null : Pieces.of(Color.values()[code >>> 3], PieceType.values()[(code & 7) - 1]);
+    }
+
+    private int code(Color color, PieceType type) {
+        return color.ordinal() << 3 | (type.ordinal() + 1);
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.lassis.chess.game;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of single threaded executors, each game is hashed onto one of them. All changes of a game run on the
+ * thread of its shard, one after the other, so the game needs no lock. A hot shard shows up as a growing queue in
+ * {@link #stats()}.
+ */
+@Slf4j
+public class GameShards implements GameExecutor {
+    private final Shard[] shards;
+
+    /**
+     * one shard per available processor
+     */
+    public GameShards() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GameShards(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("at least one shard is needed");
+        }
+
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i);
+        }
+        log.info("{} game shards started", count);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> execute(UUID gameId, Supplier<T> action) {
+        Shard shard = shards[shardOf(gameId)];
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            shard.executor.execute(() -> {
+                try {
+                    future.complete(action.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("shard {} is closed", shard.index);
+            future.completeExceptionally(e);
+        }
+
+        shard.maxQueueDepth.accumulateAndGet(shard.executor.getQueue().size(), Math::max);
+        return future;
+    }
+
+    @Override
+    public boolean singleWriter() {
+        return true;
+    }
+
+    /**
+     * shard owning a game
+     *
+     * @param gameId game id
+     * @return shard index
+     */
+    public int shardOf(UUID gameId) {
+        return Math.floorMod(gameId.hashCode(), shards.length);
+    }
+
+    public int size() {
+        return shards.length;
+    }
+
+    @Override
+    public List<ShardStats> stats() {
+        List<ShardStats> result = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            result.add(new ShardStats(shard.index, shard.executor.getQueue().size(), shard.maxQueueDepth.get(),
+                    shard.executor.getCompletedTaskCount()));
+        }
+        return result;
+    }
+
+    /**
+     * stops accepting changes and waits for the queued ones to run
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            try {
+                if (!shard.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("shard {} did not finish, {} changes dropped", shard.index, shard.executor.shutdownNow().size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.executor.shutdownNow();
+            }
+        }
+    }
+
+    private static final class Shard {
+        private final int index;
+        private final ThreadPoolExecutor executor;
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private Shard(int index) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "game-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+}
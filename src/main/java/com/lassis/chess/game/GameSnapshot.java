@@ -0,0 +1,33 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.BoardSnapshot;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Color;
+
+/**
+ * Immutable state of a {@link ChessGame} after a move. The game publishes a new one on every change and reads are
+ * served from the last one published, without taking the game lock.
+ *
+ * @param board   pieces and the legal moves of the side to move
+ * @param status  status of the game
+ * @param ply     moves played and not taken back
+ * @param version changes of the game so far, it grows with every move and take back while the ply goes back on a
+ *                take back, so it tells which of two states of a game is the later one
+ */
+public record GameSnapshot(BoardSnapshot board, ChessGameStatus status, int ply, int version) {
+
+    @Override
+    public String toString() {
+        return board.toString() +
+                "\n\n" +
+                "black: " + status.blackStatus() + "\twhite: " + status.whiteStatus();
+    }
+
+    /**
+     * only the pieces of the side to move have allowed moves
+     */
+    boolean canMove(Color color) {
+        return status.turn() == color;
+    }
+
+}
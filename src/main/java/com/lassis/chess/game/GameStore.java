@@ -0,0 +1,135 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessGameStatus;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Games in progress by id. Implementations decide how long a game is kept, see {@link BoundedGameStore}.
+ */
+public interface GameStore extends AutoCloseable {
+
+    enum Mode {
+        /**
+         * games stay on the heap, see {@link BoundedGameStore}
+         */
+        BOUNDED,
+        /**
+         * games are kept encoded off the heap and restored while in use, see {@link CompactGameStore}
+         */
+        COMPACT
+    }
+
+    enum Cause {
+        /**
+         * too many games
+         */
+        SIZE,
+        /**
+         * the games weigh more than the memory budget
+         */
+        WEIGHT,
+        /**
+         * the game was not read for longer than the idle timeout
+         */
+        IDLE
+    }
+
+    /**
+     * called after a game was evicted, not when it is removed with {@link #remove(UUID)}. The game is null when the
+     * store only held it encoded
+     */
+    @FunctionalInterface
+    interface EvictionListener {
+        void onEviction(UUID id, ChessGame game, Cause cause);
+    }
+
+    /**
+     * called when the store builds a game again from its encoded form, before the game is handed out, so listeners
+     * registered on the first instance can be registered again
+     */
+    @FunctionalInterface
+    interface RestoreListener {
+        void onRestore(UUID id, ChessGame game);
+    }
+
+    /**
+     * @param size            games stored
+     * @param weight          estimated bytes of the games stored
+     * @param hits            reads that found the game
+     * @param misses          reads that did not find the game
+     * @param sizeEvictions   games evicted because there were too many
+     * @param weightEvictions games evicted to stay in the memory budget
+     * @param idleEvictions   games evicted after the idle timeout
+     */
+    record Stats(int size, long weight, long hits, long misses, long sizeEvictions, long weightEvictions, long idleEvictions) {
+
+        public long evictions() {
+            return sizeEvictions + weightEvictions + idleEvictions;
+        }
+
+        public double hitRate() {
+            long reads = hits + misses;
+            return reads == 0 ? 1.0 : (double) hits / reads;
+        }
+    }
+
+    /**
+     * reads a game, a read keeps the game from going idle
+     *
+     * @param id game id
+     * @return the game or null when it does not exist
+     */
+    ChessGame get(UUID id);
+
+    /**
+     * reads the status of a game without using it: the game is not kept from going idle, does not move in the eviction
+     * order and, when the store keeps it encoded, is not restored
+     *
+     * @param id game id
+     * @return the status of the last change or null when the game does not exist
+     */
+    ChessGameStatus status(UUID id);
+
+    void put(UUID id, ChessGame game);
+
+    /**
+     * @param id game id
+     * @return the removed game or null when it did not exist
+     */
+    ChessGame remove(UUID id);
+
+    int size();
+
+    Stats stats();
+
+    void addEvictionListener(EvictionListener listener);
+
+    /**
+     * passes every stored game to the action encoded as a {@link GameRecord}, to snapshot the store. The buffer holds
+     * the record from index 0 and is reused from one game to the next. A game changing meanwhile is passed in one of
+     * the states it went through, never older than the last change its listeners heard of before the call
+     *
+     * @param action receives the id and the record of each game
+     */
+    void forEachRecord(BiConsumer<UUID, ByteBuffer> action);
+
+    /**
+     * stores keeping the games as they are never restore them
+     */
+    default void addRestoreListener(RestoreListener listener) {
+    }
+
+    /**
+     * evicts the games gone idle, implementations may also do it on their own
+     */
+    default void cleanUp() {
+    }
+
+    @Override
+    default void close() {
+    }
+
+}
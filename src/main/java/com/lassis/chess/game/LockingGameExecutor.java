@@ -0,0 +1,30 @@
+package com.lassis.chess.game;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs changes on the caller thread, concurrent changes of a game are serialized by the game lock
+ */
+final class LockingGameExecutor implements GameExecutor {
+    static final LockingGameExecutor INSTANCE = new LockingGameExecutor();
+
+    private LockingGameExecutor() {
+    }
+
+    @Override
+    public <T> CompletableFuture<T> execute(UUID gameId, Supplier<T> action) {
+        try {
+            return CompletableFuture.completedFuture(action.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public boolean singleWriter() {
+        return false;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.lassis.chess.game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Lock that does nothing, for games only changed by one thread, see {@link GameShards}
+ */
+final class NoLock implements Lock {
+    static final NoLock INSTANCE = new NoLock();
+
+    private NoLock() {
+    }
+
+    @Override
+    public void lock() {
+        // single writer, nothing to wait for
+    }
+
+    @Override
+    public void lockInterruptibly() {
+        // single writer, nothing to wait for
+    }
+
+    @Override
+    public boolean tryLock() {
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) {
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        // nothing was locked
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("a single writer has nothing to wait for");
+    }
+
+}
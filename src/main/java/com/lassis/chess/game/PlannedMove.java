@@ -0,0 +1,11 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Point;
+
+/**
+ * move of a batch, see {@link ChessGame#moveAll}
+ *
+ * @param origin      point where the piece sits
+ * @param destination destination of the piece
+ */
+public record PlannedMove(Point origin, Point destination) {}
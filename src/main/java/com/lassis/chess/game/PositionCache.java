@@ -0,0 +1,194 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessStatus;
+import com.lassis.chess.model.Color;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of computed positions shared by all games. Entries are keyed by the Zobrist hash including the side to
+ * move, the turn and the occupancy are kept in the entry too and compared on reads so a hash collision is a miss.
+ * <p>
+ * The cache is split in segments, each one a small {@link LinkedHashMap} guarded by its own lock, so games on
+ * different positions rarely wait for each other. Every segment evicts on its own once it is full, following the
+ * {@link Eviction} policy.
+ */
+@Slf4j
+public class PositionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int maxEntries;
+    private final Eviction eviction;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public enum Eviction {
+        /**
+         * drops the least recently read position
+         */
+        LRU,
+        /**
+         * drops the oldest position, reads do not reorder entries
+         */
+        FIFO
+    }
+
+    /**
+     * computed data of a position, it must not be changed once stored
+     *
+     * @param turn     color to move
+     * @param occupied occupancy of the board, used to detect collisions
+     * @param statuses status of each color
+     * @param targets  legal destinations of the pieces of the side to move, one bitboard per square
+     */
+    public record Position(Color turn, long occupied, Map<Color, ChessStatus> statuses, long[] targets) {
+        public long targets(int square) {
+            return targets[square];
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {}
+
+    public PositionCache() {
+        this(DEFAULT_MAX_ENTRIES, Eviction.LRU);
+    }
+
+    public PositionCache(int maxEntries, Eviction eviction) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("max entries must not be negative");
+        }
+
+        int segmentCount = maxEntries < SEGMENTS ? 1 : SEGMENTS;
+        int segmentSize = (maxEntries + segmentCount - 1) / segmentCount;
+
+        this.maxEntries = maxEntries;
+        this.eviction = eviction;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize, eviction == Eviction.LRU);
+        }
+        log.debug("position cache with {} entries in {} segments, eviction {}", maxEntries, segmentCount, eviction);
+    }
+
+    /**
+     * cache that never stores anything, every read is a miss
+     *
+     * @return empty cache
+     */
+    public static PositionCache disabled() {
+        return new PositionCache(0, Eviction.FIFO);
+    }
+
+    /**
+     * reads a position
+     *
+     * @param hash     Zobrist hash including the side to move
+     * @param turn     color to move
+     * @param occupied occupancy of the board
+     * @return the cached position, empty on a miss
+     */
+    public Optional<Position> get(long hash, Color turn, long occupied) {
+        Segment segment = segment(hash);
+        Position position;
+        segment.lock.lock();
+        try {
+            position = segment.get(hash);
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (position != null && position.turn() == turn && position.occupied() == occupied) {
+            hits.increment();
+            return Optional.of(position);
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * stores a position, replacing the one with the same hash
+     *
+     * @param hash     Zobrist hash including the side to move
+     * @param position computed position
+     */
+    public void put(long hash, Position position) {
+        if (maxEntries == 0) {
+            return;
+        }
+
+        Segment segment = segment(hash);
+        segment.lock.lock();
+        try {
+            segment.put(hash, position);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public Eviction eviction() {
+        return eviction;
+    }
+
+    private Segment segment(long hash) {
+        // the low bits of a Zobrist hash are as random as the high ones
+        return segments[(int) (hash & (segments.length - 1))];
+    }
+
+    private class Segment extends LinkedHashMap<Long, Position> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+
+        Segment(int capacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Position> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
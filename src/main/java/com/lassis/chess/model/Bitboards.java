@@ -0,0 +1,82 @@
+package com.lassis.chess.model;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Helper to deal with bitboards. A bitboard is a {@code long} where each bit represents a square, the square index is
+ * {@code row * 8 + column}, so boards smaller than 8x8 just leave some bits unused.
+ */
+@UtilityClass
+public class Bitboards {
+    public static final int SIZE = 8;
+    public static final int SQUARES = SIZE * SIZE;
+    public static final long EMPTY = 0L;
+
+    /**
+     * converts a row and column into a square index
+     *
+     * @param row    row of the square
+     * @param column column of the square
+     * @return index between 0 and 63
+     */
+    public int index(int row, int column) {
+        return row * SIZE + column;
+    }
+
+    public int index(Point point) {
+        return point.index();
+    }
+
+    public int row(int index) {
+        return index >>> 3;
+    }
+
+    public int column(int index) {
+        return index & (SIZE - 1);
+    }
+
+    public long bit(int index) {
+        return 1L << index;
+    }
+
+    public boolean contains(long bitboard, int index) {
+        return (bitboard & bit(index)) != 0;
+    }
+
+    /**
+     * index of the lowest square set in the bitboard, used to iterate with {@code bitboard &= bitboard - 1}
+     *
+     * @param bitboard not empty bitboard
+     * @return square index
+     */
+    public int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * creates a bitboard with all squares available for a board of the given size
+     *
+     * @param rows    number of rows, up to 8
+     * @param columns number of columns, up to 8
+     * @return bitboard with all squares inside the board
+     */
+    public long mask(int rows, int columns) {
+        long rowMask = columns == SIZE ? 0xFFL : (1L << columns) - 1;
+        long result = EMPTY;
+        for (int row = 0; row < rows; row++) {
+            result |= rowMask << (row * SIZE);
+        }
+        return result;
+    }
+
+    /**
+     * converts a bitboard into points
+     *
+     * @param bitboard squares to convert
+     * @return set of points backed by the bitboard
+     */
+    public SquareSet points(long bitboard) {
+        return new SquareSet(bitboard);
+    }
+
+}
@@ -2,40 +2,102 @@ package com.lassis.chess.model;
 
 import com.lassis.chess.exception.InvalidMoveException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.ObjectUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Chess board backed by bitboards, one {@code long} per piece type and color plus occupancy masks. A small mailbox
+ * keeps the piece instances so they can be handed back by {@link #at(Point)} without being recreated.
+ * Boards up to 8x8 are supported.
+ * <p>
+ * Attack maps are kept up to date on every {@link #place(Piece, Point)} and {@link #moveTo(Point, Point)}: the squares
+ * attacked from each square, the number of attackers per square and color, and the union of attacked squares per color.
+ * A move only changes the attacks of the pieces involved and of the sliding pieces whose rays cross its origin or
+ * destination, so only those are recomputed. Setting the system property {@value #VERIFY_ATTACKS_PROPERTY} (or
+ * {@link #verifyAttacks(boolean)}) compares the maps with a full recompute after each change.
+ * <p>
+ * A Zobrist hash of the pieces is kept the same way, see {@link Zobrist}. The board does not know whose turn it is,
+ * {@link #hash(Color)} adds the side to move.
+ * <p>
+ * {@link #makeMove(int)} keeps the move, the captured piece and the previous hash on an undo stack made of plain arrays,
+ * so {@link #unmakeMove()} can walk back the game tree in place, without copying the board.
+ */
 @Slf4j
-public class Board {
+public class Board implements BoardView {
     public static final Point MIN_POINT = new Point(0, 0);
+    public static final String VERIFY_ATTACKS_PROPERTY = "chess.board.verify-attacks";
+
+    private static final int TYPES = PieceType.values().length;
+    private static final int UNDO_CAPACITY = 128;
 
     private final Point maxPoint;
     private final int rows;
     private final int columns;
-    private final Square[][] squares;
+    private final long squares;
+
+    private final long[] pieces = new long[Color.values().length * TYPES];
+    private final long[] colors = new long[Color.values().length];
+    private final Piece[] mailbox = new Piece[Bitboards.SQUARES];
+    private long occupied;
+    private long hash;
+
+    private final long[] attacksFrom = new long[Bitboards.SQUARES];
+    private final byte[] attackCounts = new byte[Color.values().length * Bitboards.SQUARES];
+    private final long[] attacked = new long[Color.values().length];
+    private boolean verifyAttacks = Boolean.getBoolean(VERIFY_ATTACKS_PROPERTY);
+
+    // undo stack, one entry per move made: the move, the captured piece and the hash before the move
+    private int[] undoMoves = new int[UNDO_CAPACITY];
+    private Piece[] undoCaptured = new Piece[UNDO_CAPACITY];
+    private long[] undoHashes = new long[UNDO_CAPACITY];
+    private int ply;
 
     public Board(int rows, int columns) {
+        if (rows < 1 || columns < 1 || rows > Bitboards.SIZE || columns > Bitboards.SIZE) {
+            throw new IllegalArgumentException("board size must be between 1x1 and 8x8");
+        }
+
         this.rows = rows;
         this.columns = columns;
-        this.squares = initSquares();
+        this.squares = Bitboards.mask(rows, columns);
         this.maxPoint = new Point(rows - 1, columns - 1);
+        this.hash = Zobrist.size(rows, columns);
+    }
+
+    /**
+     * copies a board, the copy has its own state and can be changed without affecting the original. The moves made
+     * on the original are not copied, the copy starts with an empty undo stack
+     *
+     * @param other board to copy
+     */
+    public Board(Board other) {
+        this.rows = other.rows;
+        this.columns = other.columns;
+        this.squares = other.squares;
+        this.maxPoint = other.maxPoint;
+        this.occupied = other.occupied;
+        this.hash = other.hash;
+        this.verifyAttacks = other.verifyAttacks;
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, mailbox.length);
+        System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, attacksFrom.length);
+        System.arraycopy(other.attackCounts, 0, attackCounts, 0, attackCounts.length);
+        System.arraycopy(other.attacked, 0, attacked, 0, attacked.length);
     }
 
     public Map<Color, Set<Square>> nonEmptySquares() {
         Map<Color, Set<Square>> result = new EnumMap<>(Color.class);
-        for (Square[] row : squares) {
-            for (Square square : row) {
-                square.piece()
-                      .ifPresent(piece -> result.computeIfAbsent(piece.color(), k -> new HashSet<>()).add(square));
+        for (Color color : Color.values()) {
+            for (long bb = occupied(color); bb != 0; bb &= bb - 1) {
+                int index = Bitboards.first(bb);
+                result.computeIfAbsent(color, k -> new HashSet<>())
+                      .add(square(Bitboards.row(index), Bitboards.column(index)));
             }
         }
         return result;
@@ -47,17 +109,31 @@ public class Board {
 
     public Optional<Square> at(int row, int column) {
         return isInBounds(row, column)
-                ? Optional.of(squares[row][column])
+                ? Optional.of(square(row, column))
                 : Optional.empty();
     }
 
+    @Override
+    public Optional<Piece> piece(Point point) {
+        return piece(point.row(), point.column());
+    }
 
-    public Set<Point> allowedMoves(Point point) {
+    @Override
+    public Optional<Piece> piece(int row, int column) {
+        return isInBounds(row, column)
+                ? Optional.ofNullable(mailbox[Bitboards.index(row, column)])
+                : Optional.empty();
+    }
+
+    @Override
+    public SquareSet allowedMoves(Point point) {
         return allowedMoves(point.row(), point.column());
     }
 
-    public Set<Point> allowedMoves(int row, int column) {
-        return at(row, column).map(Square::allowedMoves).orElseGet(Collections::emptySet);
+    public SquareSet allowedMoves(int row, int column) {
+        return isInBounds(row, column)
+                ? new SquareSet(targets(Bitboards.index(row, column)))
+                : new SquareSet();
     }
 
     public Square place(Piece piece, Point point) {
@@ -65,33 +141,426 @@ public class Board {
             throw new IllegalStateException("invalid position");
         }
 
-        var square = squares[point.row()][point.column()];
-        if (square.piece().isPresent()) {
+        int index = Bitboards.index(point);
+        if (mailbox[index] != null) {
             throw new IllegalStateException("position is not empty");
         }
 
-        square.piece(piece);
-        return square;
+        long affected = slidersThrough(index) | Bitboards.bit(index);
+        unmarkAttacks(affected);
+        put(piece, index);
+        markAttacks(affected);
+
+        return square(point.row(), point.column());
     }
 
     public Optional<Piece> moveTo(Point origin, Point destination) {
-        Optional<Square> source = at(origin);
-        Optional<Piece> oPiece = source.flatMap(Square::piece);
+        if (!isInBounds(origin) || !isInBounds(destination)) {
+            log.warn("move from {} to {} is out of the board", origin, destination);
+            throw new InvalidMoveException();
+        }
 
-        Optional<Piece> oDeleted = at(destination).flatMap(Square::piece);
+        int from = Bitboards.index(origin);
+        int to = Bitboards.index(destination);
+        Piece piece = mailbox[from];
+        Piece deleted = mailbox[to];
 
-        log.debug("moving {} from {} -> {}", oPiece, origin, destination);
-        Set<Point> allowedMoves = source.map(Square::allowedMoves).orElseGet(Collections::emptySet);
+        log.debug("moving {} from {} -> {}", piece, origin, destination);
 
-        if (oPiece.isPresent() && allowedMoves.contains(destination)) {
-            squares[origin.row()][origin.column()].piece(null);
-            squares[destination.row()][destination.column()].piece(oPiece.get());
+        if (piece != null && Bitboards.contains(targets(from), to)) {
+            makeMove(Move.of(from, to, deleted == null ? Move.QUIET : Move.CAPTURE));
         } else {
-            log.warn("piece {} is not allowed to move to {}", oPiece, destination);
+            log.warn("piece {} is not allowed to move to {}", piece, destination);
             throw new InvalidMoveException();
         }
 
-        return oDeleted;
+        return Optional.ofNullable(deleted);
+    }
+
+    /**
+     * makes a move without checking the rules and keeps what is needed to take it back with {@link #unmakeMove()}.
+     * The move must come from the move generator, e.g. {@link #generateLegalMoves(Color, MoveBuffer)}. Nothing is
+     * allocated once the undo stack is big enough
+     *
+     * @param move encoded move, see {@link Move}
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = mailbox[from];
+        Piece captured = mailbox[to];
+        if (piece == null) {
+            throw new IllegalStateException("no piece to move at " + from);
+        }
+
+        pushUndo(move, captured);
+
+        long affected = slidersThrough(from) | slidersThrough(to) | Bitboards.bit(from) | Bitboards.bit(to);
+        unmarkAttacks(affected);
+        if (captured != null) {
+            remove(captured, to);
+        }
+        remove(piece, from);
+        put(piece, to);
+        markAttacks(affected);
+    }
+
+    /**
+     * takes back the last move made, the board goes back to the exact state it had before the move
+     *
+     * @return the move taken back
+     */
+    public int unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("no move to take back");
+        }
+
+        ply--;
+        int move = undoMoves[ply];
+        Piece captured = undoCaptured[ply];
+        undoCaptured[ply] = null;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = mailbox[to];
+
+        long affected = slidersThrough(from) | slidersThrough(to) | Bitboards.bit(from) | Bitboards.bit(to);
+        unmarkAttacks(affected);
+        remove(piece, to);
+        put(piece, from);
+        if (captured != null) {
+            put(captured, to);
+        }
+        markAttacks(affected);
+
+        hash = undoHashes[ply];
+        return move;
+    }
+
+    /**
+     * number of moves that can be taken back
+     *
+     * @return size of the undo stack
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * move still on the undo stack
+     *
+     * @param ply index in the undo stack, from 0 to {@link #ply()} - 1
+     * @return encoded move, see {@link Move}
+     */
+    public int move(int ply) {
+        if (ply < 0 || ply >= this.ply) {
+            throw new IndexOutOfBoundsException(ply);
+        }
+        return undoMoves[ply];
+    }
+
+    /**
+     * piece captured by a move still on the undo stack
+     *
+     * @param ply index in the undo stack, from 0 to {@link #ply()} - 1
+     * @return captured piece, empty when the move did not capture
+     */
+    public Optional<Piece> captured(int ply) {
+        if (ply < 0 || ply >= this.ply) {
+            throw new IndexOutOfBoundsException(ply);
+        }
+        return Optional.ofNullable(undoCaptured[ply]);
+    }
+
+    /**
+     * squares the piece on a square can move to. Read from the attack maps, except for pawns which do not move where
+     * they attack
+     *
+     * @param square index of the square
+     * @return bitboard of possible destinations, empty when there is no piece
+     */
+    public long targets(int square) {
+        Piece piece = mailbox[square];
+        if (piece == null) {
+            return Bitboards.EMPTY;
+        }
+
+        return piece.type() == PieceType.PAWN
+                ? piece.targets(this, square)
+                : attacksFrom[square] & ~occupied(piece.color());
+    }
+
+    /**
+     * squares any piece of a color can move to
+     *
+     * @param color color of the pieces
+     * @return union of the possible destinations of all pieces of the color
+     */
+    public long targets(Color color) {
+        long result = Bitboards.EMPTY;
+        for (long bb = occupied(color); bb != 0; bb &= bb - 1) {
+            result |= targets(Bitboards.first(bb));
+        }
+        return result;
+    }
+
+    /**
+     * writes the moves of all pieces of a color into the buffer, see {@link Move}
+     *
+     * @param color  color of the pieces
+     * @param buffer where moves are added, it is not cleared
+     */
+    public void generateMoves(Color color, MoveBuffer buffer) {
+        for (long bb = occupied(color); bb != 0; bb &= bb - 1) {
+            generateMoves(Bitboards.first(bb), buffer);
+        }
+    }
+
+    /**
+     * writes the moves of the piece on a square into the buffer, see {@link Move}
+     *
+     * @param square index of the square
+     * @param buffer where moves are added, it is not cleared
+     */
+    public void generateMoves(int square, MoveBuffer buffer) {
+        Piece piece = mailbox[square];
+        if (piece != null) {
+            buffer.add(square, targets(square), occupied(piece.color().opponent()));
+        }
+    }
+
+    /**
+     * legal destinations of the piece on a square: pseudo legal targets that do not leave the own king in check
+     *
+     * @param square index of the square
+     * @return bitboard of legal destinations, empty when there is no piece
+     */
+    public long legalTargets(int square) {
+        Piece piece = mailbox[square];
+        if (piece == null) {
+            return Bitboards.EMPTY;
+        }
+
+        Color color = piece.color();
+        int king = kingSquare(color);
+        return king < 0
+                ? targets(square)
+                : legalTargets(square, color, king, checkMask(color, king), pinned(color, king));
+    }
+
+    /**
+     * writes the legal moves of all pieces of a color into the buffer, see {@link Move}. Pins and checks are computed
+     * once up front, each piece is then limited to its pin line and to the squares that solve the check, so no move
+     * needs to be tried on the board
+     *
+     * @param color  color of the pieces
+     * @param buffer where moves are added, it is not cleared
+     */
+    public void generateLegalMoves(Color color, MoveBuffer buffer) {
+        long captures = occupied(color.opponent());
+        int king = kingSquare(color);
+        if (king < 0) {
+            generateMoves(color, buffer);
+            return;
+        }
+
+        long checkMask = checkMask(color, king);
+        long pinned = pinned(color, king);
+        for (long bb = occupied(color); bb != 0; bb &= bb - 1) {
+            int square = Bitboards.first(bb);
+            buffer.add(square, legalTargets(square, color, king, checkMask, pinned), captures);
+        }
+    }
+
+    /**
+     * tells if a color has at least one legal move, without a legal move the king is mated when in check, stalemated
+     * otherwise
+     *
+     * @param color color of the pieces
+     * @return true when any piece of the color can move
+     */
+    public boolean hasLegalMoves(Color color) {
+        int king = kingSquare(color);
+        if (king < 0) {
+            return targets(color) != Bitboards.EMPTY;
+        }
+
+        long checkMask = checkMask(color, king);
+        long pinned = pinned(color, king);
+        for (long bb = occupied(color); bb != 0; bb &= bb - 1) {
+            if (legalTargets(Bitboards.first(bb), color, king, checkMask, pinned) != Bitboards.EMPTY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * pieces of a color that cannot leave the line between their king and an opponent sliding piece
+     *
+     * @param color color of the king
+     * @return bitboard of pinned pieces, empty when there is no king
+     */
+    public long pinned(Color color) {
+        int king = kingSquare(color);
+        return king < 0 ? Bitboards.EMPTY : pinned(color, king);
+    }
+
+    /**
+     * tells if a square is attacked by a color, read from the attack maps
+     *
+     * @param square index of the square
+     * @param by     color of the attackers
+     * @return true when at least one piece of the color attacks the square
+     */
+    public boolean isAttacked(int square, Color by) {
+        return Bitboards.contains(attacked[by.ordinal()], square);
+    }
+
+    /**
+     * same as {@link #isAttacked(int, Color)} but with a custom occupancy, e.g. without the king to see through it. It
+     * looks from the square back to where an attacker could be, using the same tables as the pieces, and stops on the
+     * first attacker found
+     *
+     * @param square    index of the square
+     * @param by        color of the attackers
+     * @param occupancy pieces blocking the sliding attackers
+     * @return true when at least one piece of the color attacks the square
+     */
+    public boolean isAttacked(int square, Color by, long occupancy) {
+        return (LeaperAttacks.pawnAttacks(by.opponent(), square) & pieces(by, PieceType.PAWN)) != 0
+                || (LeaperAttacks.knight(square) & pieces(by, PieceType.KNIGHT)) != 0
+                || (LeaperAttacks.king(square) & pieces(by, PieceType.KING)) != 0
+                || (SlidingAttacks.bishop(square, occupancy) & (pieces(by, PieceType.BISHOP) | pieces(by, PieceType.QUEEN))) != 0
+                || (SlidingAttacks.rook(square, occupancy) & (pieces(by, PieceType.ROOK) | pieces(by, PieceType.QUEEN))) != 0;
+    }
+
+    /**
+     * all pieces of a color attacking a square, on the king square these are the pieces giving check
+     *
+     * @param square index of the square
+     * @param by     color of the attackers
+     * @return bitboard with the attacking pieces
+     */
+    public long attackers(int square, Color by) {
+        return (LeaperAttacks.pawnAttacks(by.opponent(), square) & pieces(by, PieceType.PAWN))
+                | (LeaperAttacks.knight(square) & pieces(by, PieceType.KNIGHT))
+                | (LeaperAttacks.king(square) & pieces(by, PieceType.KING))
+                | (SlidingAttacks.bishop(square, occupied) & (pieces(by, PieceType.BISHOP) | pieces(by, PieceType.QUEEN)))
+                | (SlidingAttacks.rook(square, occupied) & (pieces(by, PieceType.ROOK) | pieces(by, PieceType.QUEEN)));
+    }
+
+    /**
+     * pieces giving check to the king of a color
+     *
+     * @param color color of the king
+     * @return bitboard with the opponent pieces attacking the king, empty when there is no king
+     */
+    public long checkers(Color color) {
+        long king = pieces(color, PieceType.KING);
+        return king == Bitboards.EMPTY ? Bitboards.EMPTY : attackers(Bitboards.first(king), color.opponent());
+    }
+
+    /**
+     * squares attacked by a color
+     *
+     * @param by color of the attackers
+     * @return bitboard with every square attacked by at least one piece of the color
+     */
+    public long attacks(Color by) {
+        return attacked[by.ordinal()];
+    }
+
+    /**
+     * squares attacked by the piece on a square
+     *
+     * @param square index of the square
+     * @return bitboard of attacked squares, empty when there is no piece
+     */
+    public long attacksFrom(int square) {
+        return attacksFrom[square];
+    }
+
+    /**
+     * number of pieces of a color attacking a square
+     *
+     * @param square index of the square
+     * @param by     color of the attackers
+     * @return number of attackers
+     */
+    public int attackCount(int square, Color by) {
+        return attackCounts[by.ordinal() * Bitboards.SQUARES + square];
+    }
+
+    /**
+     * enables the comparison of the incremental attack maps with a full recompute after each change, it is expensive
+     * and meant for tests and debugging
+     *
+     * @param verifyAttacks true to verify
+     * @return this board
+     */
+    public Board verifyAttacks(boolean verifyAttacks) {
+        this.verifyAttacks = verifyAttacks;
+        verifyAttacks();
+        return this;
+    }
+
+    /**
+     * Zobrist hash of the pieces on the board, updated on every change
+     *
+     * @return position hash without the side to move
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Zobrist hash of the position
+     *
+     * @param turn color to move
+     * @return position hash including the side to move
+     */
+    public long hash(Color turn) {
+        return hash ^ Zobrist.side(turn);
+    }
+
+    /**
+     * bitboard with every square in this board
+     *
+     * @return bitboard of all squares inside the bounds
+     */
+    public long squares() {
+        return squares;
+    }
+
+    /**
+     * bitboard of all occupied squares
+     *
+     * @return bitboard with pieces of both colors
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * bitboard of the squares occupied by a color
+     *
+     * @param color color of the pieces
+     * @return bitboard with the pieces of the given color
+     */
+    public long occupied(Color color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * bitboard of the squares occupied by a piece type of a color
+     *
+     * @param color color of the pieces
+     * @param type  type of the pieces
+     * @return bitboard with the pieces of the given type and color
+     */
+    @Override
+    public long pieces(Color color, PieceType type) {
+        return pieces[slot(color, type)];
     }
 
     public boolean isInBounds(Point point) {
@@ -111,42 +580,207 @@ public class Board {
         return maxPoint;
     }
 
+    @Override
     public int rows() {
         return rows;
     }
 
+    @Override
     public int columns() {
         return columns;
     }
 
-    private Square[][] initSquares() {
-        var result = new Square[rows][columns];
-        for (int row = 0; row < result.length; row++) {
-            for (int column = 0; column < result[row].length; column++) {
-                result[row][column] = new Square(this, new Point(row, column));
+    private long legalTargets(int square, Color color, int king, long checkMask, long pinned) {
+        if (square == king) {
+            return kingTargets(king, color.opponent());
+        }
+
+        long result = targets(square) & checkMask;
+        return Bitboards.contains(pinned, square)
+                ? result & SlidingAttacks.line(king, square)
+                : result;
+    }
+
+    /**
+     * king targets not attacked by the opponent. The attack map already discards most squares, the rest are checked
+     * without the king on the board so a sliding piece keeps attacking the squares behind it
+     */
+    private long kingTargets(int king, Color opponent) {
+        long occupancy = occupied & ~Bitboards.bit(king);
+        long result = Bitboards.EMPTY;
+        for (long bb = targets(king) & ~attacks(opponent); bb != 0; bb &= bb - 1) {
+            int square = Bitboards.first(bb);
+            if (!isAttacked(square, opponent, occupancy)) {
+                result |= Bitboards.bit(square);
             }
         }
         return result;
     }
 
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (int row = min().row(); row <= max().row(); row++) {
-            List<String> line = new ArrayList<>();
-            for (int col = min().column(); col <= max().column(); col++) {
-                line.add(fixedLength(at(row, col).flatMap(Square::piece).map(v -> v.color().toString().charAt(0) + ":" + v.name()).orElse("")));
+    /**
+     * squares a piece other than the king may move to when the king is in check: any square without check, the
+     * checking piece and the squares between it and the king with a single check, nothing with a double check
+     */
+    private long checkMask(Color color, int king) {
+        long checkers = attackers(king, color.opponent());
+        if (checkers == Bitboards.EMPTY) {
+            return ~Bitboards.EMPTY;
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return Bitboards.EMPTY;
+        }
+
+        return checkers | SlidingAttacks.between(king, Bitboards.first(checkers));
+    }
+
+    /**
+     * looks from the king through the own pieces for opponent sliding pieces, a single own piece in between is pinned
+     */
+    private long pinned(Color color, int king) {
+        Color opponent = color.opponent();
+        long them = occupied(opponent);
+        long queens = pieces(opponent, PieceType.QUEEN);
+        long snipers = (SlidingAttacks.rook(king, them) & (pieces(opponent, PieceType.ROOK) | queens))
+                | (SlidingAttacks.bishop(king, them) & (pieces(opponent, PieceType.BISHOP) | queens));
+
+        long result = Bitboards.EMPTY;
+        for (long bb = snipers; bb != 0; bb &= bb - 1) {
+            long blockers = SlidingAttacks.between(king, Bitboards.first(bb)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                result |= blockers;
             }
-            sb.append(line.stream().collect(Collectors.joining("|", "|", "|")));
-            sb.append("\n");
+        }
+        return result;
+    }
+
+    private int kingSquare(Color color) {
+        long king = pieces(color, PieceType.KING);
+        return king == Bitboards.EMPTY ? -1 : Bitboards.first(king);
+    }
 
+    private void pushUndo(int move, Piece captured) {
+        if (ply == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, ply * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, ply * 2);
+            undoHashes = Arrays.copyOf(undoHashes, ply * 2);
         }
-        return sb.toString();
+        undoMoves[ply] = move;
+        undoCaptured[ply] = captured;
+        undoHashes[ply] = hash;
+        ply++;
+    }
+
+    /**
+     * sliding pieces of both colors reaching a square, their attacks change when the square changes occupancy
+     */
+    private long slidersThrough(int square) {
+        long diagonal = pieces(Color.BLACK, PieceType.BISHOP) | pieces(Color.WHITE, PieceType.BISHOP);
+        long straight = pieces(Color.BLACK, PieceType.ROOK) | pieces(Color.WHITE, PieceType.ROOK);
+        long queens = pieces(Color.BLACK, PieceType.QUEEN) | pieces(Color.WHITE, PieceType.QUEEN);
+        return (SlidingAttacks.bishop(square, occupied) & (diagonal | queens))
+                | (SlidingAttacks.rook(square, occupied) & (straight | queens));
     }
 
-    private String fixedLength(String value) {
-        String v = ObjectUtils.isEmpty(value) ? "" : value;
-        return value + " ".repeat(Math.max(0, 8 - v.length()));
+    /**
+     * removes the attacks of the pieces on the given squares from the maps, must run before the board changes
+     */
+    private void unmarkAttacks(long squares) {
+        for (long bb = squares; bb != 0; bb &= bb - 1) {
+            int square = Bitboards.first(bb);
+            if (attacksFrom[square] != Bitboards.EMPTY) {
+                int color = mailbox[square].color().ordinal();
+                for (long targets = attacksFrom[square]; targets != 0; targets &= targets - 1) {
+                    int target = Bitboards.first(targets);
+                    if (--attackCounts[color * Bitboards.SQUARES + target] == 0) {
+                        attacked[color] &= ~Bitboards.bit(target);
+                    }
+                }
+                attacksFrom[square] = Bitboards.EMPTY;
+            }
+        }
+    }
+
+    /**
+     * adds the attacks of the pieces on the given squares to the maps, must run after the board changes
+     */
+    private void markAttacks(long squares) {
+        for (long bb = squares; bb != 0; bb &= bb - 1) {
+            int square = Bitboards.first(bb);
+            Piece piece = mailbox[square];
+            if (piece != null) {
+                int color = piece.color().ordinal();
+                attacksFrom[square] = piece.attacks(this, square);
+                for (long targets = attacksFrom[square]; targets != 0; targets &= targets - 1) {
+                    int target = Bitboards.first(targets);
+                    if (attackCounts[color * Bitboards.SQUARES + target]++ == 0) {
+                        attacked[color] |= Bitboards.bit(target);
+                    }
+                }
+            }
+        }
+        verifyAttacks();
+    }
+
+    private void verifyAttacks() {
+        if (!verifyAttacks) {
+            return;
+        }
+
+        long[] expectedAttacked = new long[attacked.length];
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            Piece piece = mailbox[square];
+            long expected = piece == null ? Bitboards.EMPTY : piece.attacks(this, square);
+            if (expected != attacksFrom[square]) {
+                throw new IllegalStateException("attacks from square " + square + " are " + attacksFrom[square] + " but should be " + expected);
+            }
+            if (piece != null) {
+                expectedAttacked[piece.color().ordinal()] |= expected;
+            }
+        }
+
+        for (Color color : Color.values()) {
+            if (expectedAttacked[color.ordinal()] != attacked[color.ordinal()]) {
+                throw new IllegalStateException("attack map of " + color + " is " + attacked[color.ordinal()] + " but should be " + expectedAttacked[color.ordinal()]);
+            }
+            for (long bb = squares; bb != 0; bb &= bb - 1) {
+                int square = Bitboards.first(bb);
+                int expected = Long.bitCount(attackers(square, color));
+                if (expected != attackCount(square, color)) {
+                    throw new IllegalStateException("square " + square + " has " + attackCount(square, color) + " " + color + " attackers but should have " + expected);
+                }
+            }
+        }
+    }
+
+    private void put(Piece piece, int index) {
+        long bit = Bitboards.bit(index);
+        pieces[slot(piece.color(), piece.type())] |= bit;
+        colors[piece.color().ordinal()] |= bit;
+        occupied |= bit;
+        mailbox[index] = piece;
+        hash ^= Zobrist.piece(piece.color(), piece.type(), index);
+    }
+
+    private void remove(Piece piece, int index) {
+        long bit = ~Bitboards.bit(index);
+        pieces[slot(piece.color(), piece.type())] &= bit;
+        colors[piece.color().ordinal()] &= bit;
+        occupied &= bit;
+        mailbox[index] = null;
+        hash ^= Zobrist.piece(piece.color(), piece.type(), index);
+    }
+
+    private Square square(int row, int column) {
+        return new Square(this, Point.of(row, column));
+    }
+
+    private static int slot(Color color, PieceType type) {
+        return color.ordinal() * TYPES + type.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return BoardView.toString(this);
     }
 
 }
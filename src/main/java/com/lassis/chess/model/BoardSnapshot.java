@@ -0,0 +1,112 @@
+package com.lassis.chess.model;
+
+import com.lassis.chess.model.pieces.Pieces;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable copy of the pieces of a {@link Board}, one bitboard per color and piece type. It is safe to share between
+ * threads once published, reads need no lock.
+ * <p>
+ * The allowed moves are given when the snapshot is taken, e.g. the legal moves of the side to move, and are not
+ * computed again.
+ */
+public final class BoardSnapshot implements BoardView {
+    private static final int TYPES = PieceType.values().length;
+
+    private final int rows;
+    private final int columns;
+    private final long occupied;
+    private final long[] pieces = new long[Color.values().length * TYPES];
+    private final long[] targets;
+
+    /**
+     * @param board   board to copy
+     * @param targets allowed destinations per square index, the array is kept and must not be changed afterwards
+     */
+    public BoardSnapshot(Board board, long[] targets) {
+        if (targets.length != Bitboards.SQUARES) {
+            throw new IllegalArgumentException("one target bitboard per square is expected");
+        }
+
+        this.rows = board.rows();
+        this.columns = board.columns();
+        this.occupied = board.occupied();
+        this.targets = targets;
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                pieces[color.ordinal() * TYPES + type.ordinal()] = board.pieces(color, type);
+            }
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public Optional<Piece> piece(int row, int column) {
+        if (!isInBounds(row, column) || !Bitboards.contains(occupied, Bitboards.index(row, column))) {
+            return Optional.empty();
+        }
+
+        int index = Bitboards.index(row, column);
+        for (int slot = 0; slot < pieces.length; slot++) {
+            if (Bitboards.contains(pieces[slot], index)) {
+                return Optional.of(Pieces.of(Color.values()[slot / TYPES], PieceType.values()[slot % TYPES]));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * bitboard of the squares occupied by a piece type of a color
+     *
+     * @param color color of the pieces
+     * @param type  type of the pieces
+     * @return bitboard with the pieces of the given type and color
+     */
+    @Override
+    public long pieces(Color color, PieceType type) {
+        return pieces[color.ordinal() * TYPES + type.ordinal()];
+    }
+
+    @Override
+    public SquareSet allowedMoves(Point point) {
+        return isInBounds(point.row(), point.column())
+                ? new SquareSet(targets[Bitboards.index(point.row(), point.column())])
+                : new SquareSet();
+    }
+
+    public Optional<Square> at(Point point) {
+        return isInBounds(point.row(), point.column())
+                ? Optional.of(new Square(this, Point.of(point.row(), point.column())))
+                : Optional.empty();
+    }
+
+    public Set<Square> nonEmptySquares() {
+        Set<Square> result = new HashSet<>();
+        for (long bb = occupied; bb != 0; bb &= bb - 1) {
+            result.add(new Square(this, Point.of(Bitboards.first(bb))));
+        }
+        return result;
+    }
+
+    private boolean isInBounds(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    @Override
+    public String toString() {
+        return BoardView.toString(this);
+    }
+
+}
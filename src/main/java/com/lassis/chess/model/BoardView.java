@@ -0,0 +1,67 @@
+package com.lassis.chess.model;
+
+import org.springframework.util.ObjectUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read only access to the pieces of a board, implemented by the live {@link Board} and by {@link BoardSnapshot}
+ */
+public interface BoardView {
+
+    int rows();
+
+    int columns();
+
+    Optional<Piece> piece(int row, int column);
+
+    default Optional<Piece> piece(Point point) {
+        return piece(point.row(), point.column());
+    }
+
+    /**
+     * bitboard of the squares occupied by a piece type of a color
+     *
+     * @param color color of the pieces
+     * @param type  type of the pieces
+     * @return bitboard with the pieces of the given type and color
+     */
+    long pieces(Color color, PieceType type);
+
+    /**
+     * return all possible movements of the piece on a point
+     *
+     * @param point where the piece sits
+     * @return set of points, empty when there is no piece
+     */
+    SquareSet allowedMoves(Point point);
+
+    /**
+     * draws the board, one line per row
+     *
+     * @param view board to draw
+     * @return text with the color and name of each piece
+     */
+    static String toString(BoardView view) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < view.rows(); row++) {
+            List<String> line = new ArrayList<>();
+            for (int col = 0; col < view.columns(); col++) {
+                line.add(fixedLength(view.piece(row, col).map(v -> v.color().toString().charAt(0) + ":" + v.name()).orElse("")));
+            }
+            sb.append(line.stream().collect(Collectors.joining("|", "|", "|")));
+            sb.append("\n");
+
+        }
+        return sb.toString();
+    }
+
+    private static String fixedLength(String value) {
+        String v = ObjectUtils.isEmpty(value) ? "" : value;
+        return value + " ".repeat(Math.max(0, 8 - v.length()));
+    }
+
+}
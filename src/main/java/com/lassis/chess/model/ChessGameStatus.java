@@ -5,4 +5,4 @@ import lombok.Builder;
 import java.util.List;
 
 @Builder
-public record ChessGameStatus(ChessStatus blackStatus, ChessStatus whiteStatus, List<Piece> deleted, Color turn) {}
+public record ChessGameStatus(ChessStatus blackStatus, ChessStatus whiteStatus, List<Piece> deleted, Color turn, long positionHash) {}
@@ -1,5 +1,5 @@
 package com.lassis.chess.model;
 
 public enum ChessStatus {
-    NORMAL, CHECK, CHECKMATE
+    NORMAL, CHECK, CHECKMATE, STALEMATE
 }
@@ -14,4 +14,8 @@ public enum Color {
     public Placement placement() {
         return placement;
     }
+
+    public Color opponent() {
+        return this == BLACK ? WHITE : BLACK;
+    }
 }
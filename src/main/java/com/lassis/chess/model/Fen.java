@@ -0,0 +1,100 @@
+package com.lassis.chess.model;
+
+import com.lassis.chess.model.pieces.Pieces;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reads and writes the piece placement and side to move of the
+ * <a href="https://en.wikipedia.org/wiki/Forsyth%E2%80%93Edwards_Notation">FEN notation</a>. The first rank written is
+ * row 0, the black side. Castling, en passant and move counters are not part of the rules of this game, those fields
+ * are ignored when reading and written as {@code - - 0 1}.
+ */
+@UtilityClass
+public class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private final String LETTERS = "pnbrqk";
+
+    /**
+     * creates a board with the pieces of a FEN
+     *
+     * @param fen FEN text, the board size is taken from the placement
+     * @return new board
+     */
+    public Board board(String fen) {
+        String[] rows = placement(fen).split("/");
+        int columns = 0;
+        for (char c : rows[0].toCharArray()) {
+            columns += Character.isDigit(c) ? c - '0' : 1;
+        }
+
+        Board board = new Board(rows.length, columns);
+        for (int row = 0; row < rows.length; row++) {
+            int column = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    column += c - '0';
+                } else {
+                    board.place(piece(c), Point.of(row, column++));
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * side to move of a FEN
+     *
+     * @param fen FEN text
+     * @return color to move, white when the field is missing
+     */
+    public Color turn(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        return fields.length > 1 && fields[1].equalsIgnoreCase("b") ? Color.BLACK : Color.WHITE;
+    }
+
+    /**
+     * writes a board as FEN
+     *
+     * @param board board to write
+     * @param turn  color to move
+     * @return FEN text
+     */
+    public String of(Board board, Color turn) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < board.rows(); row++) {
+            int empty = 0;
+            for (int column = 0; column < board.columns(); column++) {
+                Piece piece = board.piece(row, column).orElse(null);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                char letter = LETTERS.charAt(piece.type().ordinal());
+                sb.append(piece.color() == Color.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            sb.append(row < board.rows() - 1 ? "/" : "");
+        }
+        return sb.append(turn == Color.WHITE ? " w" : " b").append(" - - 0 1").toString();
+    }
+
+    private String placement(String fen) {
+        return fen.trim().split("\\s+")[0];
+    }
+
+    private Piece piece(char letter) {
+        int type = LETTERS.indexOf(Character.toLowerCase(letter));
+        if (type < 0) {
+            throw new IllegalArgumentException("invalid piece " + letter);
+        }
+        return Pieces.of(Character.isUpperCase(letter) ? Color.WHITE : Color.BLACK, PieceType.values()[type]);
+    }
+
+}
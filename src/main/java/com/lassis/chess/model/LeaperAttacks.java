@@ -0,0 +1,87 @@
+package com.lassis.chess.model;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Precomputed targets for pieces that jump to fixed offsets: knight, king and pawn. Each table has one bitboard per
+ * square (and per color for pawns), so the targets of a piece are the table entry masked with the occupancy.
+ */
+@UtilityClass
+public class LeaperAttacks {
+    private final int[][] KNIGHT_OFFSETS = new int[][]{{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private final int[][] KING_OFFSETS = new int[][]{{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+    private final long[] KNIGHT = table(KNIGHT_OFFSETS);
+    private final long[] KING = table(KING_OFFSETS);
+    private final long[][] PAWN_ATTACKS = new long[Color.values().length][];
+    private final long[][] PAWN_PUSHES = new long[Color.values().length][];
+
+    static {
+        for (Color color : Color.values()) {
+            int direction = direction(color);
+            PAWN_ATTACKS[color.ordinal()] = table(new int[][]{{direction, -1}, {direction, 1}});
+            PAWN_PUSHES[color.ordinal()] = table(new int[][]{{direction, 0}});
+        }
+    }
+
+    /**
+     * squares reached by a knight
+     *
+     * @param square where the knight sits
+     * @return bitboard with the L shape jumps inside an 8x8 board
+     */
+    public long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * squares around a king
+     *
+     * @param square where the king sits
+     * @return bitboard with the surrounding squares inside an 8x8 board
+     */
+    public long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * squares a pawn can capture, the diagonals ahead of it
+     *
+     * @param color  color of the pawn, it defines the direction
+     * @param square where the pawn sits
+     * @return bitboard with the diagonals ahead inside an 8x8 board
+     */
+    public long pawnAttacks(Color color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * square right ahead of a pawn
+     *
+     * @param color  color of the pawn, it defines the direction
+     * @param square where the pawn sits
+     * @return bitboard with the square ahead or empty when the pawn is on the last row
+     */
+    public long pawnPush(Color color, int square) {
+        return PAWN_PUSHES[color.ordinal()][square];
+    }
+
+    private int direction(Color color) {
+        return color.placement() == Placement.NORTH ? 1 : -1;
+    }
+
+    private long[] table(int[][] offsets) {
+        long[] result = new long[Bitboards.SQUARES];
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            for (int[] offset : offsets) {
+                int row = Bitboards.row(square) + offset[0];
+                int column = Bitboards.column(square) + offset[1];
+                if (row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE) {
+                    result[square] |= Bitboards.bit(Bitboards.index(row, column));
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.lassis.chess.model;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Compact move encoding. A move is an {@code int} where the lowest 6 bits are the origin square index, the next 6 bits
+ * are the destination square index and the bits above are flags.
+ */
+@UtilityClass
+public class Move {
+    public static final int QUIET = 0;
+    public static final int CAPTURE = 1;
+
+    private static final int SQUARE_BITS = 6;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int FLAGS_SHIFT = SQUARE_BITS * 2;
+
+    /**
+     * encodes a move
+     *
+     * @param from  origin square index
+     * @param to    destination square index
+     * @param flags move flags, e.g. {@link #CAPTURE}
+     * @return encoded move
+     */
+    public int of(int from, int to, int flags) {
+        return from | (to << SQUARE_BITS) | (flags << FLAGS_SHIFT);
+    }
+
+    public int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public int to(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public int flags(int move) {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    public boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    /**
+     * human readable move, row and column of origin and destination
+     *
+     * @param move encoded move
+     * @return text like {@code 6:4-4:4}
+     */
+    public String toString(int move) {
+        return Bitboards.row(from(move)) + ":" + Bitboards.column(from(move)) + (isCapture(move) ? "x" : "-")
+                + Bitboards.row(to(move)) + ":" + Bitboards.column(to(move));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.lassis.chess.model;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of moves encoded by {@link Move}. Callers keep one buffer and {@link #clear()} it between uses, so
+ * generating moves does not allocate anything.
+ * Not thread safe.
+ */
+public class MoveBuffer {
+    /**
+     * enough for any chess position, the known maximum is 218 moves
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveBuffer(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * adds one move per destination
+     *
+     * @param from     origin square index
+     * @param targets  bitboard of destinations
+     * @param captures bitboard of squares where a move is a capture
+     */
+    public void add(int from, long targets, long captures) {
+        for (long bb = targets; bb != 0; bb &= bb - 1) {
+            int to = Bitboards.first(bb);
+            add(Move.of(from, to, Bitboards.contains(captures, to) ? Move.CAPTURE : Move.QUIET));
+        }
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * look for a move between two squares
+     *
+     * @param from origin square index
+     * @param to   destination square index
+     * @return index of the move in this buffer or -1 when not found
+     */
+    public int indexOf(int from, int to) {
+        for (int i = 0; i < size; i++) {
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ", ").append(Move.toString(moves[i]));
+        }
+        return sb.append("]").toString();
+    }
+
+}
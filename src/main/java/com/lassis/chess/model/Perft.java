@@ -0,0 +1,207 @@
+package com.lassis.chess.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree up to a depth. Known counts for known positions make sure the move
+ * generator is right, the time taken tells how fast it is.
+ * Further info on <a href="https://www.chessprogramming.org/Perft">...</a>
+ * <p>
+ * Can be run from the command line: {@code Perft <fen> <depth> [parallel]}
+ */
+@Slf4j
+public class Perft {
+
+    /**
+     * outcome of a run
+     *
+     * @param depth  depth searched
+     * @param nodes  leaf nodes found
+     * @param nanos  time taken
+     * @param divide leaf nodes below each root move, e.g. {@code e2e4 -> 600}
+     */
+    public record Result(int depth, long nodes, long nanos, Map<String, Long> divide) {
+        public long nodesPerSecond() {
+            return nanos == 0 ? 0 : (long) (nodes * 1_000_000_000d / nanos);
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * counts the leaf nodes
+     *
+     * @param board position, it is not changed
+     * @param turn  color to move
+     * @param depth plies to search
+     * @return number of leaf nodes
+     */
+    public static long count(Board board, Color turn, int depth) {
+        return perft(board, turn, depth, buffers(depth));
+    }
+
+    /**
+     * counts the leaf nodes of each root move, one after the other
+     *
+     * @param board position, it is not changed
+     * @param turn  color to move
+     * @param depth plies to search, at least 1
+     * @return nodes per root move and in total
+     */
+    public static Result divide(Board board, Color turn, int depth) {
+        long start = System.nanoTime();
+        MoveBuffer[] buffers = buffers(depth);
+        MoveBuffer root = rootMoves(board, turn, depth);
+
+        Map<String, Long> divide = new LinkedHashMap<>();
+        long nodes = 0;
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            board.makeMove(move);
+            long count = perft(board, turn.opponent(), depth - 1, buffers);
+            board.unmakeMove();
+            divide.put(name(board, move), count);
+            nodes += count;
+        }
+        return report(new Result(depth, nodes, System.nanoTime() - start, divide));
+    }
+
+    /**
+     * counts the leaf nodes of each root move, root moves are split across a fork join pool
+     *
+     * @param board position, it is not changed, each root move is searched on a copy
+     * @param turn  color to move
+     * @param depth plies to search, at least 1
+     * @param pool  pool running the root moves
+     * @return nodes per root move and in total
+     */
+    public static Result parallel(Board board, Color turn, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        MoveBuffer root = rootMoves(board, turn, depth);
+
+        List<RootTask> tasks = new ArrayList<>();
+        for (int i = 0; i < root.size(); i++) {
+            tasks.add(new RootTask(play(board, root.get(i)), turn.opponent(), depth - 1));
+        }
+        tasks.forEach(pool::execute);
+
+        Map<String, Long> divide = new LinkedHashMap<>();
+        long nodes = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            long count = tasks.get(i).join();
+            divide.put(name(board, root.get(i)), count);
+            nodes += count;
+        }
+        return report(new Result(depth, nodes, System.nanoTime() - start, divide));
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: Perft <fen> <depth> [parallel]");
+            System.exit(1);
+        }
+
+        Board board = Fen.board(args[0]);
+        Color turn = Fen.turn(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        Result result = args.length > 2 && args[2].equals("parallel")
+                ? parallel(board, turn, depth, ForkJoinPool.commonPool())
+                : divide(board, turn, depth);
+
+        result.divide().forEach((move, count) -> System.out.println(move + ": " + count));
+        System.out.printf("%nnodes: %d%ntime: %d ms%nnps: %d%n", result.nodes(), result.nanos() / 1_000_000, result.nodesPerSecond());
+    }
+
+    /**
+     * moves are made and taken back on the same board, the last ply only counts the legal moves without making them
+     */
+    private static long perft(Board board, Color turn, int depth, MoveBuffer[] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveBuffer moves = buffers[depth];
+        moves.clear();
+        board.generateLegalMoves(turn, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, turn.opponent(), depth - 1, buffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static MoveBuffer rootMoves(Board board, Color turn, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+
+        MoveBuffer root = new MoveBuffer();
+        board.generateLegalMoves(turn, root);
+        return root;
+    }
+
+    private static Board play(Board board, int move) {
+        Board child = new Board(board);
+        child.makeMove(move);
+        return child;
+    }
+
+    /**
+     * one buffer per ply, reused by all nodes on the same ply
+     */
+    private static MoveBuffer[] buffers(int depth) {
+        MoveBuffer[] buffers = new MoveBuffer[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            buffers[i] = new MoveBuffer();
+        }
+        return buffers;
+    }
+
+    /**
+     * move in coordinate notation, e.g. {@code e2e4}
+     */
+    private static String name(Board board, int move) {
+        return square(board, Move.from(move)) + square(board, Move.to(move));
+    }
+
+    private static String square(Board board, int square) {
+        return String.valueOf((char) ('a' + Bitboards.column(square))) + (board.rows() - Bitboards.row(square));
+    }
+
+    private static Result report(Result result) {
+        log.info("perft({}) {} nodes in {} ms, {} nodes/s", result.depth(), result.nodes(), result.nanos() / 1_000_000, result.nodesPerSecond());
+        return result;
+    }
+
+    private static class RootTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final Color turn;
+        private final int depth;
+
+        RootTask(Board board, Color turn, int depth) {
+            this.board = board;
+            this.turn = turn;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return count(board, turn, depth);
+        }
+    }
+
+}
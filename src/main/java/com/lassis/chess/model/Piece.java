@@ -1,7 +1,6 @@
 package com.lassis.chess.model;
 
 import java.util.Locale;
-import java.util.Set;
 
 /**
  * Defines the contract for any piece able to play with the {@link Board}
@@ -14,12 +13,52 @@ public interface Piece {
      */
     Color color();
 
+    /**
+     * provides the piece type
+     *
+     * @return enum {@link PieceType}
+     */
+    PieceType type();
+
+    /**
+     * provides the squares this piece attacks, squares with pieces of the same color are included as they are defended
+     *
+     * @param board  active board
+     * @param square index of the square where the piece sits
+     * @return bitboard of attacked squares. Take in consideration all elements in the board
+     */
+    long attacks(Board board, int square);
+
+    /**
+     * provides the squares this piece can move to, by default the attacked squares without pieces of the same color
+     *
+     * @param board  active board
+     * @param square index of the square where the piece sits
+     * @return bitboard of possible destinations. Take in consideration all elements in the board
+     */
+    default long targets(Board board, int square) {
+        return attacks(board, square) & ~board.occupied(color());
+    }
+
     /**
      * return all possible movements
      *
      * @return set points
      */
-    Set<Point> allowedMoves(Board board, Point point);
+    default SquareSet allowedMoves(Board board, Point point) {
+        return Bitboards.points(targets(board, Bitboards.index(point)));
+    }
+
+    /**
+     * writes all possible movements into the buffer, see {@link Move}
+     *
+     * @param board  active board
+     * @param square index of the square where the piece sits
+     * @param buffer where moves are added, it is not cleared
+     */
+    default void generateMoves(Board board, int square, MoveBuffer buffer) {
+        buffer.add(square, targets(board, square), board.occupied(color().opponent()));
+    }
 
     default String name() {
         return this.getClass().getSimpleName().toUpperCase(Locale.ROOT);
@@ -0,0 +1,8 @@
+package com.lassis.chess.model;
+
+/**
+ * Kind of piece, used by the {@link Board} to pick the bitboard where a piece is kept
+ */
+public enum PieceType {
+    PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING
+}
@@ -1,3 +1,56 @@
 package com.lassis.chess.model;
 
-public record Point(int row, int column) {}
+public record Point(int row, int column) {
+    private static final Point[] POINTS = new Point[Bitboards.SQUARES];
+
+    static {
+        for (int index = 0; index < POINTS.length; index++) {
+            POINTS[index] = new Point(Bitboards.row(index), Bitboards.column(index));
+        }
+    }
+
+    /**
+     * shared instance of a square, points are immutable so there is no need to create one per use
+     *
+     * @param index square index between 0 and 63, see {@link Bitboards#index(int, int)}
+     * @return point of the square
+     */
+    public static Point of(int index) {
+        return POINTS[index];
+    }
+
+    /**
+     * shared instance when the point is inside an 8x8 board, a new one otherwise
+     *
+     * @param row    row of the point
+     * @param column column of the point
+     * @return point with the given row and column
+     */
+    public static Point of(int row, int column) {
+        return isIndexable(row, column) ? POINTS[Bitboards.index(row, column)] : new Point(row, column);
+    }
+
+    /**
+     * square index of this point, see {@link Bitboards#index(int, int)}
+     *
+     * @return index between 0 and 63
+     * @throws IllegalStateException when the point is out of an 8x8 board
+     */
+    public int index() {
+        if (!isIndexable(row, column)) {
+            throw new IllegalStateException("point " + this + " has no square index");
+        }
+        return Bitboards.index(row, column);
+    }
+
+    /**
+     * @return true when the point is inside an 8x8 board
+     */
+    public boolean isIndexable() {
+        return isIndexable(row, column);
+    }
+
+    private static boolean isIndexable(int row, int column) {
+        return row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE;
+    }
+}
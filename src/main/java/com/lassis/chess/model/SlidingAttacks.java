@@ -0,0 +1,214 @@
+package com.lassis.chess.model;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Precomputed attacks for sliding pieces based on magic bitboards. The blockers relevant to a square are multiplied by
+ * a magic number and the top bits of the product index a table with the attacked squares, so a rook or bishop lookup
+ * is a mask, a multiply and an array access. Tables are filled once when the class is loaded.
+ * Further info on <a href="https://www.chessprogramming.org/Magic_Bitboards">...</a>
+ */
+@UtilityClass
+public class SlidingAttacks {
+    private final int[][] STRAIGHT = new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private final int[][] DIAGONAL = new int[][]{{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private final long[] ROOK_MAGICS = new long[]{
+            0x0080002080400010L, 0xB840100840002000L, 0x0180089000200180L, 0x0500048900A01000L,
+            0x2A00020020040810L, 0x0100020100080400L, 0x0400088810410C12L, 0x4100088100004022L,
+            0x000A002040820100L, 0x1400400050002005L, 0x0200802000100086L, 0x0000800800100084L,
+            0x0072000821060090L, 0x1002000410020008L, 0x8094808002000100L, 0x0440800480085500L,
+            0x058002C000402014L, 0x80504A4000201003L, 0x0100420010208204L, 0x0100848010000800L,
+            0x0028008004000A80L, 0x8801010008020400L, 0x0A84040010018802L, 0x8500020000A05504L,
+            0x1840209180004000L, 0x8000200440100440L, 0xA001200180100080L, 0x0000080080100080L,
+            0x0200050100100800L, 0x0008040080800200L, 0x8E21082400014230L, 0x0B0000A200004104L,
+            0x0420004000808000L, 0x4400802001804000L, 0x0000170041002000L, 0x0000080181801000L,
+            0x0001000801001006L, 0x4840102008010440L, 0x0100501D04002208L, 0x000020430A001284L,
+            0x000122C000828004L, 0x0040042000888040L, 0xC200200041010010L, 0x000440201202000AL,
+            0x0000080004008080L, 0x0104000200808004L, 0x0000020001008080L, 0x2241008041020004L,
+            0x0080002000400040L, 0x0200308040010100L, 0x002C100080200080L, 0x0C08040850008180L,
+            0x0008080004008080L, 0x0092000810144A00L, 0x0C01000402000100L, 0x10806841008C3200L,
+            0x218C441020800101L, 0x7000201040810A02L, 0x0404812210884202L, 0x9204081001000421L,
+            0x08A2000821841002L, 0x100A008408104102L, 0x102A0004A4180B02L, 0x0008022510440282L
+    };
+
+    private final long[] BISHOP_MAGICS = new long[]{
+            0x1045480083020202L, 0x1003300102008830L, 0x0010008208480000L, 0x02040400848002E4L,
+            0x5004152010192002L, 0x81010CC940040040L, 0xA001010110409210L, 0x40C0202804100908L,
+            0x80401011105A8880L, 0x2480200840810840L, 0x42400408008500A0L, 0x0000080841080000L,
+            0x0001011040680020L, 0x0400020804040011L, 0x840A440201108800L, 0x6844388C08881400L,
+            0x0108006061240080L, 0x1010000224114400L, 0x00040228080211D1L, 0x2C1D200804810000L,
+            0x0012000420210202L, 0x8001000C8282C000L, 0x5080440201100802L, 0x700308004402214CL,
+            0x90A0060CA0084200L, 0x0008020121020200L, 0x0001111030004200L, 0x2020104008004040L,
+            0x8081010000104004L, 0x5006048108080104L, 0x0004034004013450L, 0x0800808000220800L,
+            0x1004A0A00104040CL, 0x4400821144081000L, 0x8102028E02900428L, 0x8108200800130050L,
+            0xA040060200182080L, 0x0104004080641000L, 0x00101C004110A610L, 0x8005041820018E04L,
+            0x00420290040040B0L, 0x0306280C0400020CL, 0x14000C0402081400L, 0x0222028403200401L,
+            0x1109024202000411L, 0x0028081000200412L, 0x0005040C00410404L, 0x020409040B000022L,
+            0x0000440420080008L, 0x0541008201610840L, 0x3000002221101200L, 0x014110A794040008L,
+            0x0008001082020410L, 0x11230A6018008600L, 0x1008101488840018L, 0x0002420802228010L,
+            0x2001011110010400L, 0x241042006C040400L, 0x0000010206010460L, 0x0020000010420200L,
+            0x2102438040504110L, 0x0041900404882206L, 0x0001A06014010460L, 0x0A50241000820212L
+    };
+
+    private final Table ROOK = new Table(STRAIGHT, ROOK_MAGICS);
+    private final Table BISHOP = new Table(DIAGONAL, BISHOP_MAGICS);
+
+    private final long[][] BETWEEN = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+    private final long[][] LINE = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+
+    static {
+        for (int a = 0; a < Bitboards.SQUARES; a++) {
+            for (int b = 0; b < Bitboards.SQUARES; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long ends = Bitboards.bit(a) | Bitboards.bit(b);
+                if (Bitboards.contains(rook(a, Bitboards.EMPTY), b)) {
+                    BETWEEN[a][b] = rook(a, Bitboards.bit(b)) & rook(b, Bitboards.bit(a));
+                    LINE[a][b] = (rook(a, Bitboards.EMPTY) & rook(b, Bitboards.EMPTY)) | ends;
+                } else if (Bitboards.contains(bishop(a, Bitboards.EMPTY), b)) {
+                    BETWEEN[a][b] = bishop(a, Bitboards.bit(b)) & bishop(b, Bitboards.bit(a));
+                    LINE[a][b] = (bishop(a, Bitboards.EMPTY) & bishop(b, Bitboards.EMPTY)) | ends;
+                }
+            }
+        }
+    }
+
+    /**
+     * squares attacked by a rook, the first blocker of each ray is included whatever its color
+     *
+     * @param square   where the rook sits
+     * @param occupied bitboard with all pieces in the board
+     * @return bitboard of attacked squares
+     */
+    public long rook(int square, long occupied) {
+        return ROOK.attacks(square, occupied);
+    }
+
+    /**
+     * squares attacked by a bishop, the first blocker of each ray is included whatever its color
+     *
+     * @param square   where the bishop sits
+     * @param occupied bitboard with all pieces in the board
+     * @return bitboard of attacked squares
+     */
+    public long bishop(int square, long occupied) {
+        return BISHOP.attacks(square, occupied);
+    }
+
+    /**
+     * squares attacked by a queen, the union of rook and bishop attacks
+     *
+     * @param square   where the queen sits
+     * @param occupied bitboard with all pieces in the board
+     * @return bitboard of attacked squares
+     */
+    public long queen(int square, long occupied) {
+        return ROOK.attacks(square, occupied) | BISHOP.attacks(square, occupied);
+    }
+
+    /**
+     * squares strictly between two squares on the same row, column or diagonal
+     *
+     * @param a first square
+     * @param b second square
+     * @return bitboard of the squares in between, empty when the squares are not aligned
+     */
+    public long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * whole row, column or diagonal crossing two squares, edge to edge
+     *
+     * @param a first square
+     * @param b second square
+     * @return bitboard of the line including both squares, empty when the squares are not aligned
+     */
+    public long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * walks each ray square by square until it leaves the board or hits a blocker. Only used to fill the tables
+     */
+    private long walk(int square, long occupied, int[][] directions) {
+        long result = Bitboards.EMPTY;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE) {
+                long bit = Bitboards.bit(Bitboards.index(row, column));
+                result |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * squares that may block a ray from the given square, the last square of each ray never blocks anything
+     */
+    private long relevantBlockers(int square, int[][] directions) {
+        long result = Bitboards.EMPTY;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (isInside(row + direction[0], column + direction[1])) {
+                result |= Bitboards.bit(Bitboards.index(row, column));
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return result;
+    }
+
+    private boolean isInside(int row, int column) {
+        return row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE;
+    }
+
+    private final class Table {
+        private final long[] masks = new long[Bitboards.SQUARES];
+        private final long[] magics;
+        private final int[] shifts = new int[Bitboards.SQUARES];
+        private final int[] offsets = new int[Bitboards.SQUARES];
+        private final long[] attacks;
+
+        private Table(int[][] directions, long[] magics) {
+            this.magics = magics;
+
+            int size = 0;
+            for (int square = 0; square < Bitboards.SQUARES; square++) {
+                masks[square] = relevantBlockers(square, directions);
+                shifts[square] = Long.SIZE - Long.bitCount(masks[square]);
+                offsets[square] = size;
+                size += 1 << Long.bitCount(masks[square]);
+            }
+
+            this.attacks = new long[size];
+            for (int square = 0; square < Bitboards.SQUARES; square++) {
+                // enumerate every subset of the mask (carry-rippler)
+                long mask = masks[square];
+                long blockers = Bitboards.EMPTY;
+                do {
+                    attacks[index(square, blockers)] = walk(square, blockers, directions);
+                    blockers = (blockers - mask) & mask;
+                } while (blockers != Bitboards.EMPTY);
+            }
+        }
+
+        private long attacks(int square, long occupied) {
+            return attacks[index(square, occupied)];
+        }
+
+        private int index(int square, long occupied) {
+            return offsets[square] + (int) (((occupied & masks[square]) * magics[square]) >>> shifts[square]);
+        }
+    }
+
+}
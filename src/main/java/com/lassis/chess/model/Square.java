@@ -4,31 +4,31 @@ import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
-import java.util.Collections;
 import java.util.Optional;
-import java.util.Set;
 
+/**
+ * View of a single square of a {@link BoardView}, the piece is always read from the board so the view of a live board
+ * never gets stale
+ */
 @RequiredArgsConstructor
 @EqualsAndHashCode
 @ToString
 public class Square {
-    private final Board board;
+    @ToString.Exclude
+    private final BoardView board;
     private final Point point;
-    @EqualsAndHashCode.Exclude
-    private Piece piece;
 
-    public Set<Point> allowedMoves() {
-        return piece().map(p -> p.allowedMoves(board, point)).orElseGet(Collections::emptySet);
+    public SquareSet allowedMoves() {
+        return board.allowedMoves(point);
     }
 
+    @ToString.Include
     public Optional<Piece> piece() {
-        return Optional.ofNullable(piece);
+        return board.piece(point);
     }
 
     public Point point() {
         return point;
     }
 
-    public void piece(Piece piece) {this.piece = piece;}
-
 }
@@ -0,0 +1,139 @@
+package com.lassis.chess.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of points backed by a single bitboard. Points are the shared instances from {@link Point#of(int)}, so adding,
+ * iterating and {@link #contains(Object)} do not allocate anything per element. Only points inside an 8x8 board can
+ * be added.
+ * Not thread safe.
+ */
+public class SquareSet extends AbstractSet<Point> {
+    private long bits;
+
+    public SquareSet() {
+        this(Bitboards.EMPTY);
+    }
+
+    public SquareSet(long bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * bitboard with the squares in this set
+     *
+     * @return bitboard, see {@link Bitboards}
+     */
+    public long bits() {
+        return bits;
+    }
+
+    @Override
+    public int size() {
+        return Long.bitCount(bits);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits == Bitboards.EMPTY;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Point point && point.isIndexable() && Bitboards.contains(bits, point.index());
+    }
+
+    @Override
+    public boolean add(Point point) {
+        if (!point.isIndexable()) {
+            throw new IllegalArgumentException("point " + point + " is out of the board");
+        }
+
+        long before = bits;
+        bits |= Bitboards.bit(point.index());
+        return before != bits;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+
+        bits &= ~Bitboards.bit(((Point) o).index());
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Point> c) {
+        if (c instanceof SquareSet other) {
+            long before = bits;
+            bits |= other.bits;
+            return before != bits;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c instanceof SquareSet other) {
+            long before = bits;
+            bits &= other.bits;
+            return before != bits;
+        }
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c instanceof SquareSet other) {
+            long before = bits;
+            bits &= ~other.bits;
+            return before != bits;
+        }
+        return super.removeAll(c);
+    }
+
+    @Override
+    public void clear() {
+        bits = Bitboards.EMPTY;
+    }
+
+    @Override
+    public Iterator<Point> iterator() {
+        return new Iterator<>() {
+            private long remaining = bits;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != Bitboards.EMPTY;
+            }
+
+            @Override
+            public Point next() {
+                if (remaining == Bitboards.EMPTY) {
+                    throw new NoSuchElementException();
+                }
+
+                last = Bitboards.first(remaining);
+                remaining &= remaining - 1;
+                return Point.of(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+
+                bits &= ~Bitboards.bit(last);
+                last = -1;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.lassis.chess.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position hash is the XOR of the key of every piece on its square, the key of the
+ * board size and, when black moves, the side key. XOR is its own inverse so a move updates the hash by toggling the
+ * keys of the squares it changes. Keys come from a fixed seed, hashes are stable between runs and can be stored.
+ */
+@UtilityClass
+public class Zobrist {
+    private final int TYPES = PieceType.values().length;
+
+    private final long[] PIECES = new long[Color.values().length * TYPES * Bitboards.SQUARES];
+    private final long[] SIZES = new long[Bitboards.SQUARES];
+    private final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x2087_1571_C0DEL);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        for (int i = 0; i < SIZES.length; i++) {
+            SIZES[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    /**
+     * key of a piece on a square
+     *
+     * @param color  piece color
+     * @param type   piece type
+     * @param square index of the square
+     * @return random key
+     */
+    public long piece(Color color, PieceType type, int square) {
+        return PIECES[(color.ordinal() * TYPES + type.ordinal()) * Bitboards.SQUARES + square];
+    }
+
+    /**
+     * key of an empty board, keeps boards of different sizes with the same pieces apart
+     *
+     * @param rows    number of rows, 1 to 8
+     * @param columns number of columns, 1 to 8
+     * @return random key
+     */
+    public long size(int rows, int columns) {
+        return SIZES[Bitboards.index(rows - 1, columns - 1)];
+    }
+
+    /**
+     * key of the side to move, white to move has no key
+     *
+     * @param turn color to move
+     * @return random key for black, zero for white
+     */
+    public long side(Color turn) {
+        return turn == Color.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * computes the hash of a board from scratch, the board keeps it incrementally in {@link Board#hash()}
+     *
+     * @param board board to hash
+     * @return hash of the pieces and the board size, side to move not included
+     */
+    public long hash(Board board) {
+        long hash = size(board.rows(), board.columns());
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                for (long bb = board.pieces(color, type); bb != 0; bb &= bb - 1) {
+                    hash ^= piece(color, type, Bitboards.first(bb));
+                }
+            }
+        }
+        return hash;
+    }
+
+}
@@ -3,23 +3,26 @@ package com.lassis.chess.model.pieces;
 import com.lassis.chess.model.Board;
 import com.lassis.chess.model.Color;
 import com.lassis.chess.model.Piece;
-import com.lassis.chess.model.Point;
-
-import java.util.Set;
+import com.lassis.chess.model.PieceType;
 
 /**
  * Bishop chess piece, execute movements on diagonals, as long as no one in the way.
  * Further info on <a href="https://en.wikipedia.org/wiki/Chess">...</a>
  */
 public record Bishop(Color color) implements Piece {
+    @Override
+    public PieceType type() {
+        return PieceType.BISHOP;
+    }
+
     /**
-     * provides a set of possible moves
+     * provides the squares this piece attacks
      *
-     * @return set of possible moves. Take in consideration all elements in the board
+     * @return bitboard of attacked squares. Take in consideration all elements in the board
      */
     @Override
-    public Set<Point> allowedMoves(Board board, Point point) {
-        return CommonMovements.diagonal(this, point, board);
+    public long attacks(Board board, int square) {
+        return CommonMovements.diagonal(square, board);
     }
 
 }
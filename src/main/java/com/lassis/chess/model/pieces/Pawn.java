@@ -1,64 +1,53 @@
 package com.lassis.chess.model.pieces;
 
+import com.lassis.chess.model.Bitboards;
 import com.lassis.chess.model.Board;
 import com.lassis.chess.model.Color;
+import com.lassis.chess.model.LeaperAttacks;
 import com.lassis.chess.model.Piece;
-import com.lassis.chess.model.Placement;
-import com.lassis.chess.model.Point;
-import com.lassis.chess.model.Square;
-
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import com.lassis.chess.model.PieceType;
 
 /**
  * Pawn chess piece. Further info on <a href="https://en.wikipedia.org/wiki/Chess">...</a>
  */
 public record Pawn(Color color) implements Piece {
+    @Override
+    public PieceType type() {
+        return PieceType.PAWN;
+    }
+
     /**
-     * provides a set of possible moves
+     * provides the squares this piece attacks, the diagonals ahead of it
      *
-     * @return set of possible moves. Take in consideration all elements in the board
+     * @return bitboard of attacked squares
      */
     @Override
-    public Set<Point> allowedMoves(Board board, Point point) {
-        final short sum = (short) (color.placement() == Placement.NORTH ? 1 : -1);
-        final int column = point.column();
-
-        int row = point.row() + sum;
-
-        Set<Point> result = new HashSet<>();
-        // diagonal left
-        Optional<Piece> diagonalLeft = board.at(row, column - 1).flatMap(Square::piece)
-                                            .filter(piece -> !Objects.equals(piece.color(), color));
+    public long attacks(Board board, int square) {
+        return LeaperAttacks.pawnAttacks(color, square) & board.squares();
+    }
 
-        if (diagonalLeft.isPresent()) {
-            result.add(new Point(row, column - 1));
-        }
+    /**
+     * provides the squares this piece can move to
+     *
+     * @return bitboard of possible moves. Take in consideration all elements in the board
+     */
+    @Override
+    public long targets(Board board, int square) {
+        final long empty = ~board.occupied() & board.squares();
 
-        // diagonal right
-        Optional<Piece> diagonalRight = board.at(row, column + 1).flatMap(Square::piece)
-                                             .filter(piece -> !Objects.equals(piece.color(), color));
-        if (diagonalRight.isPresent()) {
-            result.add(new Point(row, column + 1));
-        }
+        // diagonals only when there is an opponent
+        long targets = attacks(board, square) & board.occupied() & ~board.occupied(color);
 
         //step one
-        if (isAllowed(row, column, board)) {
-            result.add(new Point(row, column));
+        long stepOne = LeaperAttacks.pawnPush(color, square) & empty;
+        if (stepOne != Bitboards.EMPTY) {
+            targets |= stepOne;
 
             //step two
-            row += sum;
-            if (isAllowed(row, column, board)) {
-                result.add(new Point(row, column));
-            }
+            targets |= LeaperAttacks.pawnPush(color, Bitboards.first(stepOne)) & empty;
         }
 
-        return result;
+        return targets;
     }
 
-    private boolean isAllowed(int row, int column, Board board) {
-        return board.isInBounds(row, column) && board.at(row, column).flatMap(Square::piece).isEmpty();
-    }
 }
@@ -0,0 +1,41 @@
+package com.lassis.chess.model.pieces;
+
+import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.PieceType;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shared piece instances. Pieces are immutable records, one instance per color and type is enough.
+ */
+@UtilityClass
+public class Pieces {
+    private final Piece[] PIECES = new Piece[Color.values().length * PieceType.values().length];
+
+    static {
+        for (Color color : Color.values()) {
+            PIECES[slot(color, PieceType.PAWN)] = new Pawn(color);
+            PIECES[slot(color, PieceType.KNIGHT)] = new Knight(color);
+            PIECES[slot(color, PieceType.BISHOP)] = new Bishop(color);
+            PIECES[slot(color, PieceType.ROOK)] = new Rook(color);
+            PIECES[slot(color, PieceType.QUEEN)] = new Queen(color);
+            PIECES[slot(color, PieceType.KING)] = new King(color);
+        }
+    }
+
+    /**
+     * piece of a color and type
+     *
+     * @param color piece color
+     * @param type  piece type
+     * @return shared instance
+     */
+    public Piece of(Color color, PieceType type) {
+        return PIECES[slot(color, type)];
+    }
+
+    private int slot(Color color, PieceType type) {
+        return color.ordinal() * PieceType.values().length + type.ordinal();
+    }
+
+}
@@ -3,26 +3,25 @@ package com.lassis.chess.model.pieces;
 import com.lassis.chess.model.Board;
 import com.lassis.chess.model.Color;
 import com.lassis.chess.model.Piece;
-import com.lassis.chess.model.Point;
-
-import java.util.HashSet;
-import java.util.Set;
+import com.lassis.chess.model.PieceType;
 
 /**
  * Queen chess piece. Executes movements straight or diagonal. Further info on <a href="https://en.wikipedia.org/wiki/Chess">...</a>
  */
 public record Queen(Color color) implements Piece {
+    @Override
+    public PieceType type() {
+        return PieceType.QUEEN;
+    }
+
     /**
-     * provides a set of possible moves
+     * provides the squares this piece attacks
      *
-     * @return set of possible moves. Take in consideration all elements in the board
+     * @return bitboard of attacked squares. Take in consideration all elements in the board
      */
     @Override
-    public Set<Point> allowedMoves(Board board, Point point) {
-        Set<Point> points = new HashSet<>();
-        points.addAll(CommonMovements.diagonal(this, point, board));
-        points.addAll(CommonMovements.straight(this, point, board));
-        return points;
+    public long attacks(Board board, int square) {
+        return CommonMovements.straight(square, board) | CommonMovements.diagonal(square, board);
     }
 
 }
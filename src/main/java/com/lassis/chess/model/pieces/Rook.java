@@ -3,9 +3,7 @@ package com.lassis.chess.model.pieces;
 import com.lassis.chess.model.Board;
 import com.lassis.chess.model.Color;
 import com.lassis.chess.model.Piece;
-import com.lassis.chess.model.Point;
-
-import java.util.Set;
+import com.lassis.chess.model.PieceType;
 
 /**
  * Chess Rook piece, executes movements on straight line as long as no one in the way
@@ -13,13 +11,19 @@ import java.util.Set;
  */
 public record Rook(Color color) implements Piece {
 
+    @Override
+    public PieceType type() {
+        return PieceType.ROOK;
+    }
+
     /**
-     * provides a set of possible moves
+     * provides the squares this piece attacks
      *
-     * @return set of possible moves. Take in consideration all elements in the board
+     * @return bitboard of attacked squares. Take in consideration all elements in the board
      */
     @Override
-    public Set<Point> allowedMoves(Board board, Point point) {
-        return CommonMovements.straight(this, point, board);
+    public long attacks(Board board, int square) {
+        return CommonMovements.straight(square, board);
     }
+
 }
@@ -1,14 +1,25 @@
 package com.lassis.chess.web.controller;
 
-import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.PlannedMove;
 import com.lassis.chess.model.ChessGameStatus;
 import com.lassis.chess.model.Point;
+import com.lassis.chess.web.controller.model.ArchivedGameDTO;
+import com.lassis.chess.web.controller.model.ArchivedPositionDTO;
+import com.lassis.chess.web.controller.model.BatchResultDTO;
+import com.lassis.chess.web.controller.model.GameIdsDTO;
+import com.lassis.chess.web.controller.model.GameStatusesDTO;
+import com.lassis.chess.web.controller.model.GameStoreDTO;
+import com.lassis.chess.web.controller.model.JournalDTO;
 import com.lassis.chess.web.controller.model.MoveDTO;
 import com.lassis.chess.web.controller.model.PieceDTO;
 import com.lassis.chess.web.controller.model.PieceDetailDTO;
+import com.lassis.chess.web.controller.model.ShardDTO;
 import com.lassis.chess.web.controller.model.StatusDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,38 +28,69 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 import static com.lassis.chess.web.controller.ObjectTransformer.POINTINFO_COMPARATOR;
 
 @Controller
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
 class ChessController {
-    private final Map<UUID, ChessGame> games = new ConcurrentHashMap<>();
+    /**
+     * longest batch of moves accepted at once
+     */
+    static final int MAX_BATCH = 1_000;
+    /**
+     * most games created or read by a single request
+     */
+    static final int MAX_GAMES = 10_000;
+
+    private final GameRegistry games;
     private final ObjectTransformer transformer;
+    private final GameExecutor executor;
+    private final GameEventBroadcaster events;
 
     @DeleteMapping("/game/{id}")
-    ResponseEntity<Void> reset(@PathVariable("id") UUID id) {
-        var game = games.get(id);
-        if (Objects.isNull(game)) {
-            return ResponseEntity.notFound().build();
+    CompletableFuture<ResponseEntity<Void>> reset(@PathVariable("id") UUID id) {
+        return games.remove(id)
+                ? games.durable(ResponseEntity.noContent().build())
+                : CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/game")
+    CompletableFuture<ResponseEntity<Void>> newGame() {
+        UUID id = games.create();
+        return games.durable(ResponseEntity.noContent().location(URI.create("/api/game/" + id)).build());
+    }
+
+    @PostMapping("/games")
+    CompletableFuture<ResponseEntity<GameIdsDTO>> newGames(@RequestParam("count") int count) {
+        if (count < 1 || count > MAX_GAMES) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        games.remove(id);
-        return ResponseEntity.noContent().build();
+        return games.durable(ResponseEntity.ok(new GameIdsDTO(games.create(count))));
     }
 
-    @PostMapping("/game")
-    ResponseEntity<Void> newGame() {
-        UUID id = UUID.randomUUID();
-        games.put(id, new ChessGame());
-        return ResponseEntity.noContent().build();
+    @PostMapping("/games/status")
+    ResponseEntity<GameStatusesDTO> statuses(@RequestBody List<UUID> ids) {
+        if (ids.size() > MAX_GAMES) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<UUID, StatusDTO> statuses = new LinkedHashMap<>();
+        List<UUID> missing = games.statuses(ids, (id, status) -> statuses.put(id, transformer.toStatusInfo(status)));
+        return ResponseEntity.ok(new GameStatusesDTO(statuses, missing));
     }
 
     @GetMapping("/game/{id}/status")
@@ -59,30 +101,113 @@ class ChessController {
                 : ResponseEntity.badRequest().build();
     }
 
-    @PostMapping("/game/{id}/moves")
-    ResponseEntity<PieceDTO> move(@PathVariable("id") UUID id, @RequestBody @Valid MoveDTO info) {
+    /**
+     * Server-Sent Events of the moves and take backs of a game, the same events are sent by the WebSocket at
+     * {@code /api/game/{id}/ws}
+     */
+    @GetMapping(path = "/game/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    ResponseEntity<SseEmitter> events(@PathVariable("id") UUID id) {
         var game = games.get(id);
         if (Objects.isNull(game)) {
             return ResponseEntity.notFound().build();
         }
 
+        // no timeout, the subscription lasts until the client leaves or the game is removed
+        SseEmitter emitter = new SseEmitter(0L);
+        SseSubscriber subscriber = new SseSubscriber(emitter);
+        emitter.onCompletion(() -> events.unsubscribe(id, subscriber));
+        emitter.onError(e -> events.unsubscribe(id, subscriber));
+        events.subscribe(id, game, subscriber);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @PostMapping("/game/{id}/moves")
+    CompletableFuture<ResponseEntity<PieceDTO>> move(@PathVariable("id") UUID id, @RequestBody @Valid MoveDTO info) {
+        var game = games.get(id);
+        if (Objects.isNull(game)) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
         Point from = transformer.toPoint(info.from());
         Point to = transformer.toPoint(info.to());
         if (Objects.isNull(from) || Objects.isNull(to)) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        ChessGameStatus status = game.moveTo(from, to);
+        return executor.execute(id, () -> {
+            ChessGameStatus status = game.moveTo(from, to);
+
+            return game.at(to)
+                       .filter(v -> v.piece().isPresent())
+                       .map(transformer::toPieceInfo)
+                       .map(body -> ResponseEntity.ok()
+                                                  .header("black", status.blackStatus().toString())
+                                                  .header("white", status.whiteStatus().toString())
+                                                  .header("turn", status.turn().toString())
+                                                  .body(body))
+                       .orElseGet(() -> ResponseEntity.notFound().build());
+        }).thenCompose(games::durable);
+    }
 
-        return game.at(to)
-                   .filter(v -> v.piece().isPresent())
-                   .map(transformer::toPieceInfo)
-                   .map(body -> ResponseEntity.ok()
-                                              .header("black", status.blackStatus().toString())
-                                              .header("white", status.whiteStatus().toString())
-                                              .header("turn", status.turn().toString())
-                                              .body(body))
-                   .orElseGet(() -> ResponseEntity.notFound().build());
+    @PostMapping("/game/{id}/moves/batch")
+    CompletableFuture<ResponseEntity<BatchResultDTO>> moveAll(@PathVariable("id") UUID id, @RequestBody List<MoveDTO> moves) {
+        var game = games.get(id);
+        if (Objects.isNull(game)) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        if (moves.size() > MAX_BATCH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        List<PlannedMove> planned = transformer.toPlannedMoves(moves);
+        return executor.execute(id, () -> ResponseEntity.ok(transformer.toBatchInfo(game.moveAll(planned), moves.size())))
+                       .thenCompose(games::durable);
+    }
+
+    @PostMapping("/game/{id}/takeback")
+    CompletableFuture<ResponseEntity<StatusDTO>> takeback(@PathVariable("id") UUID id) {
+        var game = games.get(id);
+        return Objects.nonNull(game)
+                ? executor.execute(id, () -> ResponseEntity.ok(transformer.toStatusInfo(game.takeback()))).thenCompose(games::durable)
+                : CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/games/stats")
+    ResponseEntity<GameStoreDTO> gameStoreStats() {
+        return ResponseEntity.ok(transformer.toGameStoreInfo(games.stats()));
+    }
+
+    @GetMapping("/games/journal")
+    ResponseEntity<JournalDTO> journalStats() {
+        return ResponseEntity.ok(transformer.toJournalInfo(games.journalStats()));
+    }
+
+    @GetMapping("/archive/{id}")
+    ResponseEntity<ArchivedGameDTO> archivedGame(@PathVariable("id") UUID id) {
+        var archived = games.archived(id);
+        return Objects.isNull(archived)
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(transformer.toArchivedInfo(archived));
+    }
+
+    @GetMapping("/archive/{id}/position")
+    ResponseEntity<ArchivedPositionDTO> archivedPosition(@PathVariable("id") UUID id,
+                                                         @RequestParam(value = "ply", required = false) Integer ply) {
+        var archived = games.archived(id);
+        if (Objects.isNull(archived)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        int at = Objects.isNull(ply) ? archived.lastPly() : ply;
+        if (at < archived.firstPly() || at > archived.lastPly()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transformer.toArchivedPositionInfo(at, games.archivedPosition(id, at)));
+    }
+
+    @GetMapping("/shards")
+    ResponseEntity<List<ShardDTO>> shards() {
+        return ResponseEntity.ok(executor.stats().stream().map(transformer::toShardInfo).toList());
     }
 
     @GetMapping("/game/{id}/pieces")
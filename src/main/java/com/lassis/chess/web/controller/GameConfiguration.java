@@ -0,0 +1,71 @@
+package com.lassis.chess.web.controller;
+
+import com.lassis.chess.game.BoundedGameStore;
+import com.lassis.chess.game.CompactGameStore;
+import com.lassis.chess.game.FileGameArchive;
+import com.lassis.chess.game.FileGameJournal;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.GameJournal;
+import com.lassis.chess.game.GameShards;
+import com.lassis.chess.game.GameStore;
+import com.lassis.chess.game.PositionCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+class GameConfiguration {
+
+    @Bean
+    PositionCache positionCache(@Value("${chess.position-cache.max-entries}") int maxEntries,
+                                @Value("${chess.position-cache.eviction}") PositionCache.Eviction eviction) {
+        return new PositionCache(maxEntries, eviction);
+    }
+
+    @Bean(destroyMethod = "close")
+    GameExecutor gameExecutor(@Value("${chess.execution.mode}") GameExecutor.Mode mode,
+                              @Value("${chess.execution.shards}") int shards) {
+        return switch (mode) {
+            case LOCKING -> GameExecutor.locking();
+            case SHARDED -> shards > 0 ? new GameShards(shards) : new GameShards();
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    GameStore gameStore(@Value("${chess.games.store}") GameStore.Mode mode,
+                        @Value("${chess.games.max-games}") int maxGames,
+                        @Value("${chess.games.idle-timeout}") Duration idleTimeout,
+                        @Value("${chess.games.max-memory}") DataSize maxMemory,
+                        @Value("${chess.games.park-after}") Duration parkAfter,
+                        PositionCache positionCache, GameExecutor gameExecutor) {
+        return switch (mode) {
+            case BOUNDED -> new BoundedGameStore(maxGames, idleTimeout, maxMemory.toBytes());
+            case COMPACT -> new CompactGameStore(maxGames, idleTimeout, maxMemory.toBytes(), parkAfter, positionCache, gameExecutor.singleWriter());
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    GameJournal gameJournal(@Value("${chess.journal.dir}") String directory,
+                            @Value("${chess.journal.segment-size}") DataSize segmentSize,
+                            @Value("${chess.journal.fsync}") boolean fsync,
+                            @Value("${chess.journal.snapshot-interval}") Duration snapshotInterval) {
+        return directory.isBlank()
+                ? GameJournal.disabled()
+                : new FileGameJournal(Path.of(directory), segmentSize.toBytes(), fsync, snapshotInterval);
+    }
+
+    @Bean(destroyMethod = "close")
+    GameArchive gameArchive(@Value("${chess.archive.dir}") String directory,
+                            @Value("${chess.archive.segment-size}") DataSize segmentSize,
+                            PositionCache positionCache) {
+        return directory.isBlank()
+                ? GameArchive.disabled()
+                : new FileGameArchive(Path.of(directory), segmentSize.toBytes(), positionCache);
+    }
+
+}
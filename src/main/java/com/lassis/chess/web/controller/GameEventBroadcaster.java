@@ -0,0 +1,180 @@
+package com.lassis.chess.web.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes the moves and take backs of a game to its subscribers (SSE and WebSocket connections). Each event is turned
+ * into JSON once, on the thread of the change, and that same text is written to every subscriber of the game.
+ * Writing to the connections runs on a small pool of its own, so a slow client never holds a game, and the events of
+ * a game are written in order.
+ */
+@Slf4j
+@Component
+class GameEventBroadcaster implements DisposableBean {
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final ObjectTransformer transformer;
+    private final ExecutorService writers;
+
+    /**
+     * connection receiving the events of a game
+     */
+    interface Subscriber {
+        /**
+         * @param frame event to write
+         * @return false when the connection is gone, the subscriber is then dropped
+         */
+        boolean send(Frame frame);
+
+        /**
+         * the game is gone, no more events will come
+         */
+        void close();
+    }
+
+    /**
+     * event ready to be written
+     *
+     * @param type event type, MOVE or TAKEBACK
+     * @param json event serialized as {@link com.lassis.chess.web.controller.model.GameEventDTO}
+     */
+    record Frame(String type, String json) {}
+
+    @Autowired
+    GameEventBroadcaster(ObjectProvider<ObjectMapper> objectMapper, ObjectTransformer transformer,
+                         @Value("${chess.events.writer-threads}") int writerThreads) {
+        this(objectMapper.getIfAvailable(ObjectMapper::new), transformer, writerThreads);
+    }
+
+    GameEventBroadcaster(ObjectMapper objectMapper, ObjectTransformer transformer, int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.transformer = transformer;
+        AtomicInteger count = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "game-events-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void subscribe(UUID id, ChessGame game, Subscriber subscriber) {
+        channels.compute(id, (key, channel) -> {
+            if (channel == null) {
+                channel = new Channel(id, game);
+                game.addListener(channel);
+            }
+            channel.subscribers.add(subscriber);
+            return channel;
+        });
+    }
+
+    void unsubscribe(UUID id, Subscriber subscriber) {
+        channels.computeIfPresent(id, (key, channel) -> {
+            channel.subscribers.remove(subscriber);
+            if (channel.subscribers.isEmpty()) {
+                channel.game.removeListener(channel);
+                return null;
+            }
+            return channel;
+        });
+    }
+
+    /**
+     * the game was removed, its subscribers are closed
+     *
+     * @param id game id
+     */
+    void close(UUID id) {
+        Channel channel = channels.remove(id);
+        if (channel != null) {
+            channel.game.removeListener(channel);
+            channel.subscribers.forEach(Subscriber::close);
+        }
+    }
+
+    int subscribers(UUID id) {
+        Channel channel = channels.get(id);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdownNow();
+    }
+
+    private Frame frame(GameEvent event) {
+        try {
+            return new Frame(event.type().toString(), objectMapper.writeValueAsString(transformer.toEventInfo(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("event " + event.type() + " can not be serialized", e);
+        }
+    }
+
+    private final class Channel implements Consumer<GameEvent> {
+        private final UUID id;
+        private final ChessGame game;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        private Channel(UUID id, ChessGame game) {
+            this.id = id;
+            this.game = game;
+        }
+
+        /**
+         * runs on the thread of the change, it only serializes the event and hands it to the writers
+         */
+        @Override
+        public void accept(GameEvent event) {
+            pending.add(frame(event));
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::write);
+                } catch (RejectedExecutionException e) {
+                    log.debug("event writers are stopped");
+                }
+            }
+        }
+
+        /**
+         * one writer at a time per channel, so subscribers get the events in order
+         */
+        private void write() {
+            do {
+                for (Frame frame = pending.poll(); frame != null; frame = pending.poll()) {
+                    for (Subscriber subscriber : subscribers) {
+                        if (!subscriber.send(frame)) {
+                            unsubscribe(id, subscriber);
+                        }
+                    }
+                }
+                writing.set(false);
+            } while (!pending.isEmpty() && writing.compareAndSet(false, true));
+        }
+    }
+
+}
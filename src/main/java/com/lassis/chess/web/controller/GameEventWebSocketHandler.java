@@ -0,0 +1,99 @@
+package com.lassis.chess.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * WebSocket at {@code /api/game/{id}/ws}, every move and take back of the game is sent as a text message holding the
+ * event JSON. Messages from the client are ignored.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class GameEventWebSocketHandler extends TextWebSocketHandler {
+    static final String PATH = "/api/game/{id}/ws";
+
+    private static final UriTemplate TEMPLATE = new UriTemplate(PATH);
+    private static final String GAME = "game";
+    private static final String SUBSCRIBER = "subscriber";
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int BUFFER_SIZE_LIMIT = 64 * 1024;
+
+    private final GameRegistry games;
+    private final GameEventBroadcaster events;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        UUID id = gameId(session);
+        var game = Objects.isNull(id) ? null : games.get(id);
+        if (Objects.isNull(game)) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("game not found"));
+            return;
+        }
+
+        var subscriber = new Subscriber(new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MILLIS, BUFFER_SIZE_LIMIT));
+        session.getAttributes().put(GAME, id);
+        session.getAttributes().put(SUBSCRIBER, subscriber);
+        events.subscribe(id, game, subscriber);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Map<String, Object> attributes = session.getAttributes();
+        if (attributes.get(GAME) instanceof UUID id && attributes.get(SUBSCRIBER) instanceof Subscriber subscriber) {
+            events.unsubscribe(id, subscriber);
+        }
+    }
+
+    private static UUID gameId(WebSocketSession session) {
+        if (Objects.isNull(session.getUri())) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(TEMPLATE.match(session.getUri().getPath()).get("id"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Subscriber implements GameEventBroadcaster.Subscriber {
+        private final WebSocketSession session;
+
+        @Override
+        public boolean send(GameEventBroadcaster.Frame frame) {
+            try {
+                session.sendMessage(new TextMessage(frame.json()));
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.debug("websocket {} dropped: {}", session.getId(), e.getMessage());
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                session.close(CloseStatus.GOING_AWAY.withReason("game removed"));
+            } catch (IOException e) {
+                log.debug("websocket {} already closed", session.getId());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package com.lassis.chess.web.controller;
+
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.GameEvent;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.GameJournal;
+import com.lassis.chess.game.GameStore;
+import com.lassis.chess.game.PositionCache;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.ChessStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Games in progress, shared by the servlet and the reactive controllers. The {@link GameStore} decides how long a game
+ * is kept, the event subscriptions of an evicted game are closed like the ones of a removed game.
+ * <p>
+ * Creations, moves, take backs and deletions are written to the {@link GameJournal}, and the games of the journal are
+ * rebuilt from its last snapshot and the moves after it when the registry starts, then the journal takes snapshots of
+ * the store from time to time. Changes are answered once {@link #durable(Object)} completes.
+ * <p>
+ * A game over moves to the {@link GameArchive}: it leaves the store and the journal, and its subscriptions are closed.
+ */
+@Slf4j
+@Component
+class GameRegistry implements DisposableBean {
+    private final PositionCache positionCache;
+    private final GameExecutor executor;
+    private final GameEventBroadcaster events;
+    private final GameStore games;
+    private final GameJournal journal;
+    private final GameArchive archive;
+    private final ExecutorService archiver;
+
+    GameRegistry(PositionCache positionCache, GameExecutor executor, GameEventBroadcaster events, GameStore games, GameJournal journal,
+                 GameArchive archive) {
+        this.positionCache = positionCache;
+        this.executor = executor;
+        this.events = events;
+        this.games = games;
+        this.journal = journal;
+        this.archive = archive;
+        this.archiver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        games.addEvictionListener((id, game, cause) -> {
+            journal.deleted(id);
+            events.close(id);
+        });
+        games.addRestoreListener(this::follow);
+        recover();
+        journal.startSnapshots(games);
+    }
+
+    UUID create() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = newGame();
+        follow(id, game);
+        games.put(id, game);
+        // after the put, a snapshot taken in between has the game even when it compacts the segment of the creation
+        journal.created(id);
+        return id;
+    }
+
+    /**
+     * @param count number of games
+     * @return ids of the new games
+     */
+    List<UUID> create(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(create());
+        }
+        return ids;
+    }
+
+    /**
+     * statuses of many games in one pass, read from their snapshots without waiting for moves in progress. Reading a
+     * status does not use the game, see {@link GameStore#status(UUID)}
+     *
+     * @param ids      game ids
+     * @param statuses receives the status of each game found, in the order of the ids
+     * @return ids of the games that do not exist
+     */
+    List<UUID> statuses(Collection<UUID> ids, BiConsumer<UUID, ChessGameStatus> statuses) {
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            ChessGameStatus status = games.status(id);
+            if (status == null) {
+                missing.add(id);
+            } else {
+                statuses.accept(id, status);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @param id game id
+     * @return the game or null when it does not exist
+     */
+    ChessGame get(UUID id) {
+        return games.get(id);
+    }
+
+    /**
+     * removes a game and closes its event subscriptions
+     *
+     * @param id game id
+     * @return false when the game did not exist
+     */
+    boolean remove(UUID id) {
+        boolean removed = games.remove(id) != null;
+        if (removed) {
+            journal.deleted(id);
+        }
+        events.close(id);
+        return removed;
+    }
+
+    /**
+     * @param result answer of a change
+     * @return completes with the answer once the changes made so far are in the journal
+     */
+    <T> CompletableFuture<T> durable(T result) {
+        return journal.sync().thenApply(v -> result);
+    }
+
+    GameStore.Stats stats() {
+        return games.stats();
+    }
+
+    GameJournal.Stats journalStats() {
+        return journal.stats();
+    }
+
+    /**
+     * @param id game id
+     * @return the moves of the archived game or null when it is not archived
+     */
+    GameArchive.Archived archived(UUID id) {
+        return archive.get(id);
+    }
+
+    /**
+     * @param id  game id
+     * @param ply ply of the archived game
+     * @return the archived game at that ply or null when it is not archived
+     */
+    ChessGame archivedPosition(UUID id, int ply) {
+        return archive.position(id, ply);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        archiver.shutdown();
+        archiver.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void recover() {
+        long start = System.nanoTime();
+        Map<UUID, ChessGame> recovered = journal.recover(positionCache, executor.singleWriter());
+        recovered.forEach((id, game) -> {
+            follow(id, game);
+            games.put(id, game);
+        });
+        if (!recovered.isEmpty()) {
+            log.info("{} games recovered from the journal in {} ms", recovered.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private ChessGame newGame() {
+        return new ChessGame(positionCache, executor.singleWriter());
+    }
+
+    /**
+     * journals the changes of a game and archives it once a move ends it
+     */
+    private void follow(UUID id, ChessGame game) {
+        game.addListener(event -> {
+            journal.append(id, event);
+            if (event.type() == GameEvent.Type.MOVE && isOver(event.status())) {
+                archiveLater(id, game);
+            }
+        });
+    }
+
+    /**
+     * the move that ended the game is still running its listeners under the game lock, the archiving is queued to run
+     * after it without holding a thread meanwhile
+     */
+    private void archiveLater(UUID id, ChessGame game) {
+        // a shard runs it after the current move, the locking executor would run it at once on this thread
+        CompletableFuture<Boolean> archived = executor.singleWriter()
+                ? executor.execute(id, () -> archive(id, game))
+                : CompletableFuture.supplyAsync(() -> archive(id, game), archiver);
+        archived.exceptionally(e -> {
+            log.warn("game {} can not be archived", id, e);
+            return false;
+        });
+    }
+
+    private boolean archive(UUID id, ChessGame game) {
+        if (!archive.archive(id, game)) {
+            return false;
+        }
+        if (games.remove(id) != null) {
+            journal.deleted(id);
+        }
+        events.close(id);
+        log.debug("game {} archived", id);
+        return true;
+    }
+
+    private static boolean isOver(ChessGameStatus status) {
+        return status.whiteStatus() == ChessStatus.CHECKMATE || status.blackStatus() == ChessStatus.CHECKMATE
+                || status.whiteStatus() == ChessStatus.STALEMATE || status.blackStatus() == ChessStatus.STALEMATE;
+    }
+
+}
@@ -1,16 +1,36 @@
 package com.lassis.chess.web.controller;
 
+import com.lassis.chess.exception.InvalidMoveException;
+import com.lassis.chess.game.BatchResult;
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.GameEvent;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.GameJournal;
+import com.lassis.chess.game.GameStore;
+import com.lassis.chess.game.PlannedMove;
+import com.lassis.chess.model.Bitboards;
 import com.lassis.chess.model.ChessGameStatus;
 import com.lassis.chess.model.Piece;
 import com.lassis.chess.model.Point;
 import com.lassis.chess.model.Square;
+import com.lassis.chess.model.SquareSet;
+import com.lassis.chess.web.controller.model.ArchivedGameDTO;
+import com.lassis.chess.web.controller.model.ArchivedPositionDTO;
+import com.lassis.chess.web.controller.model.BatchResultDTO;
+import com.lassis.chess.web.controller.model.GameEventDTO;
+import com.lassis.chess.web.controller.model.GameStoreDTO;
+import com.lassis.chess.web.controller.model.JournalDTO;
+import com.lassis.chess.web.controller.model.MoveDTO;
 import com.lassis.chess.web.controller.model.PieceDTO;
 import com.lassis.chess.web.controller.model.PieceDetailDTO;
 import com.lassis.chess.web.controller.model.PointDTO;
+import com.lassis.chess.web.controller.model.ShardDTO;
 import com.lassis.chess.web.controller.model.StatusDTO;
 import com.lassis.chess.web.controller.model.StatusPieceDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -26,17 +46,43 @@ public class ObjectTransformer {
     public static final Comparator<PointDTO> POINTINFO_COMPARATOR = Comparator.comparing(PointDTO::row).reversed().thenComparing(PointDTO::column);
     private static final char[] CHESS_COLUMNS = new char[]{'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H'};
     private static final int[] CHESS_LINES = new int[]{8, 7, 6, 5, 4, 3, 2, 1};
+    private static final PointDTO[] POINT_INFOS = new PointDTO[Bitboards.SQUARES];
+    private static final long ROW_MASK = (1L << Bitboards.SIZE) - 1;
+
+    static {
+        for (int index = 0; index < POINT_INFOS.length; index++) {
+            Point point = Point.of(index);
+            POINT_INFOS[index] = new PointDTO(chessPoint(point.row(), point.column()), point.row(), point.column());
+        }
+    }
 
     public PieceDetailDTO toPieceDetail(Square square, Collection<Point> allowedPoints) {
         PieceDTO pieceInfo = toPieceInfo(square);
-        List<PointDTO> allowedMoves = allowedPoints.stream()
-                                                   .map(this::toPointInfo)
-                                                   .sorted(POINTINFO_COMPARATOR)
-                                                   .toList();
+        List<PointDTO> allowedMoves = allowedPoints instanceof SquareSet squares
+                ? toPointInfos(squares)
+                : allowedPoints.stream()
+                               .map(this::toPointInfo)
+                               .sorted(POINTINFO_COMPARATOR)
+                               .toList();
 
         return new PieceDetailDTO(pieceInfo, allowedMoves);
     }
 
+    /**
+     * walks the bitboard rows from the bottom to the top, it produces the same order as {@link #POINTINFO_COMPARATOR}
+     * without sorting
+     */
+    private List<PointDTO> toPointInfos(SquareSet squares) {
+        long bits = squares.bits();
+        List<PointDTO> result = new ArrayList<>(Long.bitCount(bits));
+        for (int row = Bitboards.SIZE - 1; row >= 0; row--) {
+            for (long bb = (bits >>> (row * Bitboards.SIZE)) & ROW_MASK; bb != 0; bb &= bb - 1) {
+                result.add(POINT_INFOS[Bitboards.index(row, Bitboards.first(bb))]);
+            }
+        }
+        return result;
+    }
+
     public PieceDTO toPieceInfo(Square square) {
         return square.piece()
                      .map(v -> toPieceInfo(v, square.point()))
@@ -44,7 +90,9 @@ public class ObjectTransformer {
     }
 
     public PointDTO toPointInfo(Point point) {
-        return new PointDTO(toChessPoint(point), point.row(), point.column());
+        return point.isIndexable()
+                ? POINT_INFOS[point.index()]
+                : new PointDTO(toChessPoint(point), point.row(), point.column());
     }
 
     public Point toPoint(String chessPoint) {
@@ -56,11 +104,11 @@ public class ObjectTransformer {
         int row = Math.abs(chessPoint.charAt(1) - '8');
         int column = chessPoint.charAt(0) - 'A';
 
-        return new Point(row, column);
+        return Point.of(row, column);
     }
 
     public String toChessPoint(int row, int column) {
-        return CHESS_COLUMNS[column] + "" + CHESS_LINES[row];
+        return chessPoint(row, column);
     }
 
     public String toChessPoint(Point point) {
@@ -69,10 +117,78 @@ public class ObjectTransformer {
 
     public StatusDTO toStatusInfo(ChessGameStatus status) {
         return status.deleted().stream()
-                     .map(v -> new StatusPieceDTO(v.color(), v.name()))
+                     .map(ObjectTransformer::toStatusPiece)
                      .collect(collectingAndThen(Collectors.toSet(), coll -> toStatusInfo(status, coll)));
     }
 
+    /**
+     * converts the moves of a batch up to the first one with an unknown square
+     */
+    public List<PlannedMove> toPlannedMoves(List<MoveDTO> moves) {
+        List<PlannedMove> result = new ArrayList<>(moves.size());
+        for (MoveDTO move : moves) {
+            Point from = Objects.isNull(move) ? null : toPoint(move.from());
+            Point to = Objects.isNull(move) ? null : toPoint(move.to());
+            if (Objects.isNull(from) || Objects.isNull(to)) {
+                break;
+            }
+            result.add(new PlannedMove(from, to));
+        }
+        return result;
+    }
+
+    /**
+     * @param result    outcome of the moves converted by {@link #toPlannedMoves(List)}
+     * @param submitted number of moves submitted, more than converted when one had an unknown square
+     */
+    public BatchResultDTO toBatchInfo(BatchResult result, int submitted) {
+        String error = result.complete()
+                ? result.applied() < submitted ? errorCode(InvalidMoveException.class) : null
+                : errorCode(result.error().getClass());
+        return new BatchResultDTO(result.applied(), error, toStatusInfo(result.status()));
+    }
+
+    public GameEventDTO toEventInfo(GameEvent event) {
+        return new GameEventDTO(
+                event.type().toString(),
+                event.ply(),
+                toChessPoint(event.from()),
+                toChessPoint(event.to()),
+                toStatusPiece(event.piece()),
+                Objects.isNull(event.captured()) ? null : toStatusPiece(event.captured()),
+                toStatusInfo(event.status()));
+    }
+
+    public ShardDTO toShardInfo(GameExecutor.ShardStats stats) {
+        return new ShardDTO(stats.shard(), stats.queueDepth(), stats.maxQueueDepth(), stats.completed());
+    }
+
+    public GameStoreDTO toGameStoreInfo(GameStore.Stats stats) {
+        return new GameStoreDTO(stats.size(), stats.weight(), stats.hits(), stats.misses(), stats.hitRate(),
+                stats.evictions(), stats.sizeEvictions(), stats.weightEvictions(), stats.idleEvictions());
+    }
+
+    public ArchivedGameDTO toArchivedInfo(GameArchive.Archived archived) {
+        List<MoveDTO> moves = archived.moves().stream()
+                                      .map(move -> new MoveDTO(toChessPoint(move.origin()), toChessPoint(move.destination())))
+                                      .toList();
+        return new ArchivedGameDTO(archived.id(), archived.firstPly(), archived.lastPly(), moves);
+    }
+
+    public ArchivedPositionDTO toArchivedPositionInfo(int ply, ChessGame game) {
+        List<PieceDTO> pieces = game.notEmptySquares()
+                                    .stream()
+                                    .map(this::toPieceInfo)
+                                    .sorted((o1, o2) -> POINTINFO_COMPARATOR.compare(o1.pointInfo(), o2.pointInfo()))
+                                    .toList();
+        return new ArchivedPositionDTO(ply, toStatusInfo(game.getStatus()), pieces);
+    }
+
+    public JournalDTO toJournalInfo(GameJournal.Stats stats) {
+        return new JournalDTO(stats.appended(), stats.durable(), stats.commits(), stats.snapshots(), stats.recoveredGames(),
+                stats.recoveredRecords(), stats.recoveryMillis());
+    }
+
     private static StatusDTO toStatusInfo(ChessGameStatus status, Set<StatusPieceDTO> statuses) {
         return new StatusDTO(
                 status.whiteStatus().toString(),
@@ -81,6 +197,24 @@ public class ObjectTransformer {
                 statuses);
     }
 
+    private static StatusPieceDTO toStatusPiece(Piece piece) {
+        return new StatusPieceDTO(piece.color(), piece.name());
+    }
+
+    /**
+     * InvalidMoveException to INVALID_MOVE
+     */
+    private static String errorCode(Class<?> exception) {
+        return exception.getSimpleName()
+                        .replaceAll("Exception$", "")
+                        .replaceAll("([a-z])([A-Z])", "$1_$2")
+                        .toUpperCase(Locale.ROOT);
+    }
+
+    private static String chessPoint(int row, int column) {
+        return CHESS_COLUMNS[column] + "" + CHESS_LINES[row];
+    }
+
     private PieceDTO toPieceInfo(Piece piece, Point point) {
         return PieceDTO.builder()
                        .color(piece.color())
@@ -0,0 +1,277 @@
+package com.lassis.chess.web.controller;
+
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.PlannedMove;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Point;
+import com.lassis.chess.web.controller.model.ArchivedGameDTO;
+import com.lassis.chess.web.controller.model.ArchivedPositionDTO;
+import com.lassis.chess.web.controller.model.BatchResultDTO;
+import com.lassis.chess.web.controller.model.GameIdsDTO;
+import com.lassis.chess.web.controller.model.GameStatusesDTO;
+import com.lassis.chess.web.controller.model.GameStoreDTO;
+import com.lassis.chess.web.controller.model.JournalDTO;
+import com.lassis.chess.web.controller.model.MoveDTO;
+import com.lassis.chess.web.controller.model.PieceDTO;
+import com.lassis.chess.web.controller.model.PieceDetailDTO;
+import com.lassis.chess.web.controller.model.ShardDTO;
+import com.lassis.chess.web.controller.model.StatusDTO;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static com.lassis.chess.web.controller.ObjectTransformer.POINTINFO_COMPARATOR;
+
+/**
+ * Same API as {@link ChessController} on WebFlux, active with {@code spring.main.web-application-type=reactive}.
+ * A few event loop threads serve all the connections, so they must never wait: reads come from the game snapshot and
+ * changes are handed to the shard owning the game, the response is written when the shard completes it. The game
+ * executor must then be {@code SHARDED}. Work that may take long, looking up a game the store decodes from its record,
+ * creating many games or replaying an archived one, runs on the bounded elastic scheduler.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api")
+class ReactiveChessController {
+    private final GameRegistry games;
+    private final ObjectTransformer transformer;
+    private final GameExecutor executor;
+    private final GameEventBroadcaster events;
+
+    ReactiveChessController(GameRegistry games, ObjectTransformer transformer, GameExecutor executor, GameEventBroadcaster events) {
+        if (!executor.singleWriter()) {
+            throw new IllegalStateException("the reactive API needs chess.execution.mode=SHARDED, the game lock would block the event loop");
+        }
+
+        this.games = games;
+        this.transformer = transformer;
+        this.executor = executor;
+        this.events = events;
+    }
+
+    @DeleteMapping("/game/{id}")
+    Mono<ResponseEntity<Void>> reset(@PathVariable("id") UUID id) {
+        return blocking(() -> games.remove(id))
+                .flatMap(removed -> removed
+                        ? Mono.fromFuture(games.durable(ResponseEntity.noContent().<Void>build()))
+                        : Mono.just(ResponseEntity.notFound().<Void>build()));
+    }
+
+    @PostMapping("/game")
+    Mono<ResponseEntity<Void>> newGame() {
+        UUID id = games.create();
+        return Mono.fromFuture(games.durable(ResponseEntity.noContent().location(URI.create("/api/game/" + id)).build()));
+    }
+
+    @PostMapping("/games")
+    Mono<ResponseEntity<GameIdsDTO>> newGames(@RequestParam("count") int count) {
+        if (count < 1 || count > ChessController.MAX_GAMES) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return blocking(() -> new GameIdsDTO(games.create(count)))
+                .flatMap(created -> Mono.fromFuture(games.durable(ResponseEntity.ok(created))));
+    }
+
+    @PostMapping("/games/status")
+    Mono<ResponseEntity<GameStatusesDTO>> statuses(@RequestBody List<UUID> ids) {
+        if (ids.size() > ChessController.MAX_GAMES) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return blocking(() -> {
+            Map<UUID, StatusDTO> statuses = new LinkedHashMap<>();
+            List<UUID> missing = games.statuses(ids, (id, status) -> statuses.put(id, transformer.toStatusInfo(status)));
+            return ResponseEntity.ok(new GameStatusesDTO(statuses, missing));
+        });
+    }
+
+    @GetMapping("/game/{id}/status")
+    Mono<ResponseEntity<StatusDTO>> status(@PathVariable("id") UUID id) {
+        return game(id).map(game -> ResponseEntity.ok(transformer.toStatusInfo(game.getStatus())))
+                       .defaultIfEmpty(ResponseEntity.badRequest().build());
+    }
+
+    /**
+     * Server-Sent Events of the moves and take backs of a game
+     */
+    @GetMapping(path = "/game/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    Flux<ServerSentEvent<String>> events(@PathVariable("id") UUID id) {
+        return game(id).switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                       .flatMapMany(game -> {
+                           Sinks.Many<GameEventBroadcaster.Frame> sink = Sinks.many().unicast().onBackpressureBuffer();
+                           GameEventBroadcaster.Subscriber subscriber = new GameEventBroadcaster.Subscriber() {
+                               @Override
+                               public boolean send(GameEventBroadcaster.Frame frame) {
+                                   return sink.tryEmitNext(frame).isSuccess();
+                               }
+
+                               @Override
+                               public void close() {
+                                   sink.tryEmitComplete();
+                               }
+                           };
+                           events.subscribe(id, game, subscriber);
+                           // the comment commits the response at once, a client seeing the headers is already subscribed
+                           return sink.asFlux()
+                                      .map(frame -> ServerSentEvent.builder(frame.json()).event(frame.type()).build())
+                                      .startWith(ServerSentEvent.<String>builder().comment("subscribed").build())
+                                      .doFinally(signal -> events.unsubscribe(id, subscriber));
+                       });
+    }
+
+    @PostMapping("/game/{id}/moves")
+    Mono<ResponseEntity<PieceDTO>> move(@PathVariable("id") UUID id, @RequestBody @Valid MoveDTO info) {
+        return game(id).flatMap(game -> {
+            Point from = transformer.toPoint(info.from());
+            Point to = transformer.toPoint(info.to());
+            if (Objects.isNull(from) || Objects.isNull(to)) {
+                return Mono.just(ResponseEntity.badRequest().<PieceDTO>build());
+            }
+
+            return Mono.fromFuture(executor.execute(id, () -> {
+                ChessGameStatus status = game.moveTo(from, to);
+
+                return game.at(to)
+                           .filter(v -> v.piece().isPresent())
+                           .map(transformer::toPieceInfo)
+                           .map(body -> ResponseEntity.ok()
+                                                      .header("black", status.blackStatus().toString())
+                                                      .header("white", status.whiteStatus().toString())
+                                                      .header("turn", status.turn().toString())
+                                                      .body(body))
+                           .orElseGet(() -> ResponseEntity.notFound().build());
+            }).thenCompose(games::durable));
+        }).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/game/{id}/moves/batch")
+    Mono<ResponseEntity<BatchResultDTO>> moveAll(@PathVariable("id") UUID id, @RequestBody List<MoveDTO> moves) {
+        return game(id).flatMap(game -> {
+            if (moves.size() > ChessController.MAX_BATCH) {
+                return Mono.just(ResponseEntity.badRequest().<BatchResultDTO>build());
+            }
+
+            List<PlannedMove> planned = transformer.toPlannedMoves(moves);
+            return Mono.fromFuture(executor.execute(id, () -> ResponseEntity.ok(transformer.toBatchInfo(game.moveAll(planned), moves.size())))
+                                           .thenCompose(games::durable));
+        }).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/game/{id}/takeback")
+    Mono<ResponseEntity<StatusDTO>> takeback(@PathVariable("id") UUID id) {
+        return game(id).flatMap(game -> Mono.fromFuture(executor.execute(id, () -> ResponseEntity.ok(transformer.toStatusInfo(game.takeback())))
+                                                                .thenCompose(games::durable)))
+                       .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/games/stats")
+    Mono<ResponseEntity<GameStoreDTO>> gameStoreStats() {
+        return Mono.just(ResponseEntity.ok(transformer.toGameStoreInfo(games.stats())));
+    }
+
+    @GetMapping("/games/journal")
+    Mono<ResponseEntity<JournalDTO>> journalStats() {
+        return Mono.just(ResponseEntity.ok(transformer.toJournalInfo(games.journalStats())));
+    }
+
+    @GetMapping("/archive/{id}")
+    Mono<ResponseEntity<ArchivedGameDTO>> archivedGame(@PathVariable("id") UUID id) {
+        return blocking(() -> games.archived(id))
+                .map(archived -> ResponseEntity.ok(transformer.toArchivedInfo(archived)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/archive/{id}/position")
+    Mono<ResponseEntity<ArchivedPositionDTO>> archivedPosition(@PathVariable("id") UUID id,
+                                                               @RequestParam(value = "ply", required = false) Integer ply) {
+        return blocking(() -> {
+            var archived = games.archived(id);
+            if (Objects.isNull(archived)) {
+                return ResponseEntity.notFound().<ArchivedPositionDTO>build();
+            }
+
+            int at = Objects.isNull(ply) ? archived.lastPly() : ply;
+            if (at < archived.firstPly() || at > archived.lastPly()) {
+                return ResponseEntity.badRequest().<ArchivedPositionDTO>build();
+            }
+            return ResponseEntity.ok(transformer.toArchivedPositionInfo(at, games.archivedPosition(id, at)));
+        });
+    }
+
+    @GetMapping("/shards")
+    Mono<ResponseEntity<List<ShardDTO>>> shards() {
+        return Mono.just(ResponseEntity.ok(executor.stats().stream().map(transformer::toShardInfo).toList()));
+    }
+
+    @GetMapping("/game/{id}/pieces")
+    Mono<ResponseEntity<List<PieceDTO>>> allPieces(@PathVariable("id") UUID id) {
+        return game(id).map(game -> ResponseEntity.ok(game.notEmptySquares()
+                                                          .stream()
+                                                          .map(transformer::toPieceInfo)
+                                                          .sorted((o1, o2) -> POINTINFO_COMPARATOR.compare(o1.pointInfo(), o2.pointInfo()))
+                                                          .toList()))
+                       .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/game/{id}/pieces/{chessPoint}")
+    Mono<ResponseEntity<PieceDetailDTO>> pieceDetail(@PathVariable("id") UUID id, @PathVariable String chessPoint) {
+        return game(id).map(game -> {
+            Point point = transformer.toPoint(chessPoint);
+            if (Objects.isNull(point)) {
+                return ResponseEntity.badRequest().<PieceDetailDTO>build();
+            }
+
+            return game.at(point)
+                       .filter(v -> v.piece().isPresent())
+                       .map(square -> transformer.toPieceDetail(square, game.allowedMoves(point)))
+                       .map(ResponseEntity::ok)
+                       .orElseGet(() -> ResponseEntity.notFound().build());
+        }).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * looks a game up off the event loop, the store may have to decode it from its record
+     *
+     * @param id game id
+     * @return the game, empty when it does not exist
+     */
+    private Mono<ChessGame> game(UUID id) {
+        return blocking(() -> games.get(id));
+    }
+
+    /**
+     * runs work that may take long or touch files on a worker thread, a null result completes empty
+     */
+    private static <T> Mono<T> blocking(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.lassis.chess.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Server-Sent Events connection of the servlet API, the event name is the event type and the data its JSON
+ */
+@RequiredArgsConstructor
+class SseSubscriber implements GameEventBroadcaster.Subscriber {
+    private final SseEmitter emitter;
+
+    @Override
+    public boolean send(GameEventBroadcaster.Frame frame) {
+        try {
+            emitter.send(SseEmitter.event().name(frame.type()).data(frame.json()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+
+}
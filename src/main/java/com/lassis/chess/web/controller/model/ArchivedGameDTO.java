@@ -0,0 +1,6 @@
+package com.lassis.chess.web.controller.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ArchivedGameDTO(UUID id, int firstPly, int lastPly, List<MoveDTO> moves) {}
@@ -0,0 +1,5 @@
+package com.lassis.chess.web.controller.model;
+
+import java.util.List;
+
+public record ArchivedPositionDTO(int ply, StatusDTO status, List<PieceDTO> pieces) {}
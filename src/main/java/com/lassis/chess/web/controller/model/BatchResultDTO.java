@@ -0,0 +1,3 @@
+package com.lassis.chess.web.controller.model;
+
+public record BatchResultDTO(int applied, String error, StatusDTO status) {}
@@ -0,0 +1,3 @@
+package com.lassis.chess.web.controller.model;
+
+public record GameEventDTO(String type, int ply, String from, String to, StatusPieceDTO piece, StatusPieceDTO captured, StatusDTO status) {}
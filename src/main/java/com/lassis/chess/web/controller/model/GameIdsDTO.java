@@ -0,0 +1,6 @@
+package com.lassis.chess.web.controller.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record GameIdsDTO(List<UUID> ids) {}
@@ -0,0 +1,7 @@
+package com.lassis.chess.web.controller.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record GameStatusesDTO(Map<UUID, StatusDTO> statuses, List<UUID> missing) {}
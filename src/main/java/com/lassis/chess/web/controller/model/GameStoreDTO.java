@@ -0,0 +1,4 @@
+package com.lassis.chess.web.controller.model;
+
+public record GameStoreDTO(int size, long weight, long hits, long misses, double hitRate, long evictions,
+                           long sizeEvictions, long weightEvictions, long idleEvictions) {}
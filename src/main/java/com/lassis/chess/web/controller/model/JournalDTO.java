@@ -0,0 +1,4 @@
+package com.lassis.chess.web.controller.model;
+
+public record JournalDTO(long appended, long durable, long commits, long snapshots, int recoveredGames,
+                         long recoveredRecords, long recoveryMillis) {}
@@ -0,0 +1,3 @@
+package com.lassis.chess.web.controller.model;
+
+public record ShardDTO(int shard, int queueDepth, int maxQueueDepth, long completed) {}
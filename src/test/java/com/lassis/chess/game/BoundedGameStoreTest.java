@@ -0,0 +1,161 @@
+package com.lassis.chess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedGameStoreTest {
+    final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void should_count_hits_and_misses() {
+        BoundedGameStore store = store(10, Duration.ZERO, 0);
+        UUID id = UUID.randomUUID();
+        store.put(id, new ChessGame());
+
+        assertThat(store.get(id)).isNotNull();
+        assertThat(store.get(id)).isNotNull();
+        assertThat(store.get(UUID.randomUUID())).isNull();
+
+        GameStore.Stats stats = store.stats();
+        assertThat(stats.size()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void should_evict_least_recently_read_game_when_full() {
+        BoundedGameStore store = store(2, Duration.ZERO, 0);
+        List<UUID> evicted = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> evicted.add(id));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        store.put(first, new ChessGame());
+        store.put(second, new ChessGame());
+        store.get(first);
+        store.put(third, new ChessGame());
+
+        assertThat(evicted).containsExactly(second);
+        assertThat(store.get(first)).isNotNull();
+        assertThat(store.get(third)).isNotNull();
+        assertThat(store.stats().sizeEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void status_should_not_count_as_a_read() {
+        BoundedGameStore store = store(2, Duration.ofMinutes(1), 0);
+        List<UUID> evicted = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> evicted.add(id));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        store.put(first, game);
+        store.put(second, new ChessGame());
+        game.moveTo(at(6, 4), to(4, 4));
+
+        assertThat(store.status(first)).isEqualTo(game.getStatus());
+        assertThat(store.status(UUID.randomUUID())).isNull();
+        store.put(UUID.randomUUID(), new ChessGame());
+
+        assertThat(evicted).containsExactly(first);
+        assertThat(store.stats().hits()).isZero();
+        assertThat(store.stats().misses()).isZero();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(70));
+        assertThat(store.status(second)).isNull();
+    }
+
+    @Test
+    void should_evict_idle_games_on_read_and_on_clean_up() {
+        BoundedGameStore store = store(10, Duration.ofMinutes(1), 0);
+        List<GameStore.Cause> causes = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> causes.add(cause));
+        UUID read = UUID.randomUUID();
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        store.put(read, new ChessGame());
+        store.put(idle, new ChessGame());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        store.put(active, new ChessGame());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+
+        assertThat(store.get(read)).isNull();
+        store.cleanUp();
+
+        assertThat(causes).containsExactly(GameStore.Cause.IDLE, GameStore.Cause.IDLE);
+        assertThat(store.get(active)).isNotNull();
+        assertThat(store.stats().idleEvictions()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void reads_should_keep_games_from_going_idle() {
+        BoundedGameStore store = store(10, Duration.ofMinutes(1), 0);
+        UUID id = UUID.randomUUID();
+        store.put(id, new ChessGame());
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(50));
+            assertThat(store.get(id)).isNotNull();
+        }
+
+        store.cleanUp();
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_stay_in_the_memory_budget() {
+        BoundedGameStore store = store(10, Duration.ZERO, 3 * ChessGame.BASE_BYTES);
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        ids.forEach(id -> store.put(id, new ChessGame()));
+
+        assertThat(store.get(ids.get(0))).isNull();
+        assertThat(store.stats().weight()).isEqualTo(3 * ChessGame.BASE_BYTES);
+        assertThat(store.stats().weightEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void should_weigh_games_again_when_they_grow() {
+        BoundedGameStore store = store(10, Duration.ZERO, 2 * ChessGame.BASE_BYTES);
+        UUID older = UUID.randomUUID();
+        UUID growing = UUID.randomUUID();
+        store.put(older, new ChessGame());
+        ChessGame game = new ChessGame();
+        store.put(growing, game);
+        game.moveTo(at(6, 4), to(4, 4));
+
+        assertThat(store.get(growing)).isSameAs(game);
+        assertThat(store.get(older)).isNull();
+        assertThat(store.stats().weight()).isEqualTo(game.estimatedBytes());
+    }
+
+    @Test
+    void should_not_notify_removed_games() {
+        BoundedGameStore store = store(1, Duration.ZERO, 0);
+        List<UUID> evicted = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> evicted.add(id));
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        store.put(id, game);
+
+        assertThat(store.remove(id)).isSameAs(game);
+        assertThat(store.remove(id)).isNull();
+        assertThat(evicted).isEmpty();
+        assertThat(store.stats().weight()).isZero();
+    }
+
+    private BoundedGameStore store(int maxGames, Duration idleTimeout, long maxBytes) {
+        return new BoundedGameStore(maxGames, idleTimeout, maxBytes, ChessGame::estimatedBytes, clock::get, false);
+    }
+
+}
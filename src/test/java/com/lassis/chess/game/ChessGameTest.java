@@ -1,19 +1,28 @@
 package com.lassis.chess.game;
 
 import com.lassis.chess.exception.EmptySquareException;
+import com.lassis.chess.exception.GameOverException;
 import com.lassis.chess.exception.InvalidMoveException;
+import com.lassis.chess.exception.NothingToTakeBackException;
 import com.lassis.chess.exception.WrongPlayerException;
 import com.lassis.chess.model.Board;
 import com.lassis.chess.model.ChessGameStatus;
 import com.lassis.chess.model.ChessStatus;
 import com.lassis.chess.model.Color;
 import com.lassis.chess.model.Point;
+import com.lassis.chess.model.Square;
 import com.lassis.chess.model.pieces.Bishop;
 import com.lassis.chess.model.pieces.Pawn;
 import com.lassis.chess.model.pieces.Queen;
 import com.lassis.chess.model.pieces.Rook;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -21,6 +30,21 @@ public class ChessGameTest {
 
     @Test
     void white_should_be_on_checkmate() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.BLACK), at(3, 4)); // create and place
+        board.place(new Rook(Color.WHITE), at(board.max().row(), 3));
+        board.place(new Rook(Color.WHITE), at(board.max().row(), 5));
+        board.place(new Pawn(Color.WHITE), at(board.max().row() - 1, 3));
+        board.place(new Pawn(Color.WHITE), at(board.max().row() - 1, 5));
+
+        ChessGame chessGame = new ChessGame(board, false);
+        ChessGameStatus status = chessGame.getStatus();
+        assertThat(status.blackStatus()).isEqualTo(ChessStatus.NORMAL);
+        assertThat(status.whiteStatus()).isEqualTo(ChessStatus.CHECKMATE);
+    }
+
+    @Test
+    void white_should_be_on_check_when_a_piece_can_block() {
         Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
         board.place(new Rook(Color.BLACK), at(3, 4)); // create and place
         board.place(new Queen(Color.WHITE), at(board.max().row(), 3));
@@ -31,7 +55,34 @@ public class ChessGameTest {
         ChessGame chessGame = new ChessGame(board, false);
         ChessGameStatus status = chessGame.getStatus();
         assertThat(status.blackStatus()).isEqualTo(ChessStatus.NORMAL);
-        assertThat(status.whiteStatus()).isEqualTo(ChessStatus.CHECKMATE);
+        assertThat(status.whiteStatus()).isEqualTo(ChessStatus.CHECK);
+        assertThat(chessGame.allowedMoves(at(board.max().row(), 3))).containsExactly(to(board.max().row() - 1, 4));
+        assertThat(chessGame.allowedMoves(at(board.max().row(), 5))).containsExactly(to(board.max().row() - 1, 4));
+        assertThat(chessGame.allowedMoves(at(board.max().row() - 1, 3))).isEmpty();
+    }
+
+    @Test
+    void pinned_piece_should_only_move_along_the_pin() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.BLACK), at(3, 4));
+        board.place(new Rook(Color.WHITE), at(5, 4));
+
+        ChessGame chessGame = new ChessGame(board, false);
+        assertThat(chessGame.allowedMoves(at(5, 4))).containsExactlyInAnyOrder(to(6, 4), to(4, 4), to(3, 4));
+        assertThatThrownBy(() -> chessGame.moveTo(at(5, 4), to(5, 0))).isInstanceOf(InvalidMoveException.class);
+    }
+
+    @Test
+    void black_should_be_on_stalemate() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Queen(Color.WHITE), at(3, 3));
+        board.place(new Pawn(Color.WHITE), at(2, 4));
+
+        ChessGame chessGame = new ChessGame(board, false);
+        ChessGameStatus status = chessGame.moveTo(at(3, 3), to(2, 3));
+        assertThat(status.blackStatus()).isEqualTo(ChessStatus.STALEMATE);
+        assertThat(status.whiteStatus()).isEqualTo(ChessStatus.NORMAL);
+        assertThatThrownBy(() -> chessGame.moveTo(at(0, 4), to(1, 4))).isInstanceOf(GameOverException.class);
     }
 
     @Test
@@ -53,7 +104,7 @@ public class ChessGameTest {
     }
 
     @Test
-    void black_should_be_on_checkmate_cause_it_is_white_turn() {
+    void black_should_not_be_allowed_to_stay_in_check() {
         Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
         board.place(new Pawn(Color.WHITE), at(board.max().row() - 4, 3));
 
@@ -71,10 +122,169 @@ public class ChessGameTest {
         assertThat(status.blackStatus()).isEqualTo(ChessStatus.CHECK);
         assertThat(status.whiteStatus()).isEqualTo(ChessStatus.NORMAL);
 
-        // black (create checkmate on himself)
-        status = chessGame.moveTo(at(board.min().row(), 5), to(board.min().row() + 1, 6));
-        assertThat(status.blackStatus()).isEqualTo(ChessStatus.CHECKMATE);
-        assertThat(status.whiteStatus()).isEqualTo(ChessStatus.NORMAL);
+        // black (leaving the king in check is not a legal move)
+        assertThatThrownBy(() -> chessGame.moveTo(at(board.min().row(), 5), to(board.min().row() + 1, 6)))
+                .isInstanceOf(InvalidMoveException.class);
+        assertThat(chessGame.allowedMoves(at(board.min().row(), 3))).containsExactly(to(board.min().row() + 1, 3));
+    }
+
+    @Test
+    void position_hash_should_follow_moves_and_turn() {
+        ChessGame chessGame = new ChessGame();
+        long start = chessGame.positionHash();
+        assertThat(chessGame.getStatus().positionHash()).isEqualTo(start);
+
+        ChessGameStatus status = chessGame.moveTo(at(7, 1), to(5, 2));
+        assertThat(status.positionHash()).isEqualTo(chessGame.positionHash()).isNotEqualTo(start);
+
+        chessGame.moveTo(at(0, 1), to(2, 2));
+        chessGame.moveTo(at(5, 2), to(7, 1));
+        chessGame.moveTo(at(2, 2), to(0, 1));
+        assertThat(chessGame.positionHash()).isEqualTo(start);
+    }
+
+    @Test
+    void takeback_should_restore_position_turn_and_status() {
+        ChessGame chessGame = new ChessGame();
+        long start = chessGame.positionHash();
+        chessGame.moveTo(at(6, 4), to(4, 4));
+        chessGame.moveTo(at(1, 3), to(3, 3));
+        chessGame.moveTo(at(4, 4), to(3, 3));
+        assertThat(chessGame.getStatus().deleted()).hasSize(1);
+
+        ChessGameStatus status = chessGame.takeback();
+        assertThat(status.turn()).isEqualTo(Color.WHITE);
+        assertThat(status.deleted()).isEmpty();
+        assertThat(chessGame.at(at(3, 3)).flatMap(Square::piece)).hasValue(new Pawn(Color.BLACK));
+
+        chessGame.takeback();
+        chessGame.takeback();
+        assertThat(chessGame.positionHash()).isEqualTo(start);
+        assertThatThrownBy(chessGame::takeback).isInstanceOf(NothingToTakeBackException.class);
+    }
+
+    @Test
+    void takeback_should_reopen_a_finished_game() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Queen(Color.WHITE), at(3, 3));
+        board.place(new Pawn(Color.WHITE), at(2, 4));
+
+        ChessGame chessGame = new ChessGame(board, false);
+        chessGame.moveTo(at(3, 3), to(2, 3));
+        ChessGameStatus status = chessGame.takeback();
+
+        assertThat(status.blackStatus()).isEqualTo(ChessStatus.NORMAL);
+        assertThat(status.turn()).isEqualTo(Color.WHITE);
+        assertThat(chessGame.allowedMoves(at(3, 3))).isNotEmpty();
+    }
+
+    @Test
+    void move_all_should_play_every_move() {
+        ChessGame chessGame = new ChessGame();
+        List<GameEvent> events = new ArrayList<>();
+        chessGame.addListener(events::add);
+
+        BatchResult result = chessGame.moveAll(List.of(
+                new PlannedMove(at(6, 4), to(4, 4)),
+                new PlannedMove(at(1, 3), to(3, 3)),
+                new PlannedMove(at(4, 4), to(3, 3))));
+
+        assertThat(result.complete()).isTrue();
+        assertThat(result.applied()).isEqualTo(3);
+        assertThat(result.status().turn()).isEqualTo(Color.BLACK);
+        assertThat(result.status().deleted()).hasSize(1);
+        assertThat(events).hasSize(3);
+    }
+
+    @Test
+    void move_all_should_stop_at_the_first_invalid_move() {
+        ChessGame chessGame = new ChessGame();
+
+        BatchResult result = chessGame.moveAll(List.of(
+                new PlannedMove(at(6, 4), to(4, 4)),
+                new PlannedMove(at(6, 3), to(4, 3)),
+                new PlannedMove(at(1, 3), to(3, 3))));
+
+        assertThat(result.complete()).isFalse();
+        assertThat(result.applied()).isEqualTo(1);
+        assertThat(result.error()).isInstanceOf(WrongPlayerException.class);
+        assertThat(result.status()).isEqualTo(chessGame.getStatus());
+        assertThat(result.status().turn()).isEqualTo(Color.BLACK);
+        assertThat(chessGame.at(at(1, 3)).flatMap(Square::piece)).hasValue(new Pawn(Color.BLACK));
+    }
+
+    @Test
+    void listeners_should_receive_moves_and_takebacks() {
+        ChessGame chessGame = new ChessGame();
+        List<GameEvent> events = new ArrayList<>();
+        Consumer<GameEvent> listener = events::add;
+        chessGame.addListener(listener);
+
+        chessGame.moveTo(at(6, 4), to(4, 4));
+        chessGame.moveTo(at(1, 3), to(3, 3));
+        ChessGameStatus status = chessGame.moveTo(at(4, 4), to(3, 3));
+        assertThatThrownBy(() -> chessGame.moveTo(at(3, 3), to(2, 3))).isInstanceOf(WrongPlayerException.class);
+        chessGame.takeback();
+
+        assertThat(events).hasSize(4);
+        assertThat(events.get(2)).isEqualTo(new GameEvent(GameEvent.Type.MOVE, 3, at(4, 4), to(3, 3), new Pawn(Color.WHITE),
+                new Pawn(Color.BLACK), status, 3));
+        assertThat(events.get(3)).isEqualTo(new GameEvent(GameEvent.Type.TAKEBACK, 2, at(4, 4), to(3, 3), new Pawn(Color.WHITE),
+                new Pawn(Color.BLACK), chessGame.getStatus(), 4));
+
+    }
+
+    @Test
+    void failing_listener_should_not_undo_the_move() {
+        ChessGame chessGame = new ChessGame();
+        List<GameEvent> events = new ArrayList<>();
+        Consumer<GameEvent> listener = events::add;
+        chessGame.addListener(event -> {
+            throw new IllegalStateException("listener failure");
+        });
+        chessGame.addListener(listener);
+
+        assertThat(chessGame.moveTo(at(6, 0), to(5, 0)).turn()).isEqualTo(Color.BLACK);
+        assertThat(events).hasSize(1);
+
+        chessGame.removeListener(listener);
+        chessGame.moveTo(at(1, 0), to(2, 0));
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void reads_should_see_consistent_snapshots_while_moving() throws Exception {
+        ChessGame chessGame = new ChessGame();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                GameSnapshot snapshot = chessGame.snapshot();
+                int pieces = snapshot.board().nonEmptySquares().size();
+                if (pieces + snapshot.status().deleted().size() != 32) {
+                    failure.set(pieces + " pieces and " + snapshot.status().deleted() + " deleted");
+                }
+            }
+        });
+        reader.start();
+
+        try {
+            for (int i = 0; i < 200; i++) {
+                chessGame.moveTo(at(6, 4), to(4, 4));
+                chessGame.moveTo(at(1, 3), to(3, 3));
+                chessGame.moveTo(at(4, 4), to(3, 3));
+                chessGame.takeback();
+                chessGame.takeback();
+                chessGame.takeback();
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(chessGame.getStatus().deleted()).isEmpty();
     }
 
     @Test
@@ -0,0 +1,210 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.exception.NothingToTakeBackException;
+import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Piece;
+import com.lassis.chess.model.PieceType;
+import com.lassis.chess.model.Square;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactGameStoreTest {
+    final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void should_restore_a_parked_game() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        store.put(id, game);
+        game.moveTo(at(6, 4), to(4, 4));
+        game.moveTo(at(1, 3), to(3, 3));
+        game.moveTo(at(4, 4), to(3, 3));
+
+        park(store);
+        ChessGame restored = store.get(id);
+
+        assertThat(store.live()).isEqualTo(1);
+        assertThat(restored).isNotSameAs(game);
+        assertThat(restored.snapshot().toString()).isEqualTo(game.snapshot().toString());
+        assertThat(restored.getStatus()).isEqualTo(game.getStatus());
+        assertThat(restored.getStatus().deleted()).hasSize(1);
+        assertThat(restored.getStatus().deleted().get(0).type()).isEqualTo(PieceType.PAWN);
+        assertThat(restored.ply()).isEqualTo(3);
+        assertThat(restored.allowedMoves(at(0, 3))).isEqualTo(game.allowedMoves(at(0, 3)));
+    }
+
+    @Test
+    void restored_game_should_go_on_from_its_record() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        UUID id = UUID.randomUUID();
+        store.put(id, new ChessGame());
+        store.get(id).moveTo(at(6, 4), to(4, 4));
+        park(store);
+
+        ChessGame restored = store.get(id);
+        assertThatThrownBy(restored::takeback).isInstanceOf(NothingToTakeBackException.class);
+        restored.moveTo(at(1, 4), to(3, 4));
+        park(store);
+
+        ChessGame again = store.get(id);
+        assertThat(again.getStatus().turn()).isEqualTo(Color.WHITE);
+        assertThat(again.ply()).isEqualTo(2);
+        assertThat(again.at(at(3, 4)).flatMap(Square::piece).map(Piece::color).orElse(null)).isEqualTo(Color.BLACK);
+    }
+
+    @Test
+    void status_should_not_restore_a_parked_game() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        store.put(id, game);
+        game.moveTo(at(6, 4), to(4, 4));
+        assertThat(store.status(id)).isEqualTo(game.getStatus());
+
+        park(store);
+
+        assertThat(store.status(id)).isEqualTo(game.getStatus());
+        assertThat(store.status(UUID.randomUUID())).isNull();
+        assertThat(store.live()).isZero();
+        assertThat(store.stats().hits()).isZero();
+        assertThat(store.stats().misses()).isZero();
+    }
+
+    @Test
+    void should_not_park_games_with_listeners() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        store.put(id, game);
+        game.addListener(event -> {});
+
+        park(store);
+
+        assertThat(store.live()).isEqualTo(1);
+        assertThat(store.get(id)).isSameAs(game);
+    }
+
+    @Test
+    void should_evict_an_unread_game_when_full() {
+        CompactGameStore store = store(2, Duration.ZERO);
+        List<UUID> evicted = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> evicted.add(id));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        store.put(first, new ChessGame());
+        store.put(second, new ChessGame());
+        park(store);
+        store.get(first);
+
+        store.put(UUID.randomUUID(), new ChessGame());
+
+        assertThat(evicted).containsExactly(second);
+        assertThat(store.get(second)).isNull();
+        assertThat(store.get(first)).isNotNull();
+        assertThat(store.stats().sizeEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_idle_games() {
+        CompactGameStore store = store(10, Duration.ofMinutes(1));
+        List<GameStore.Cause> causes = new ArrayList<>();
+        store.addEvictionListener((id, game, cause) -> causes.add(cause));
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        store.put(idle, new ChessGame());
+        store.put(active, new ChessGame());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        store.get(active);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+
+        store.cleanUp();
+
+        assertThat(causes).containsExactly(GameStore.Cause.IDLE);
+        assertThat(store.get(idle)).isNull();
+        assertThat(store.get(active)).isNotNull();
+        assertThat(store.stats().idleEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void should_find_games_after_removals() {
+        CompactGameStore store = store(1_000, Duration.ZERO);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            store.put(id, new ChessGame());
+        }
+        park(store);
+
+        for (int i = 0; i < ids.size(); i += 2) {
+            assertThat(store.remove(ids.get(i))).isNotNull();
+        }
+        for (int i = 0; i < 500; i++) {
+            store.put(UUID.randomUUID(), new ChessGame());
+        }
+        park(store);
+
+        assertThat(store.size()).isEqualTo(1_000);
+        assertThat(store.stats().evictions()).isZero();
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(store.get(ids.get(i)) != null).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    void should_count_records_and_live_games_in_the_weight() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        store.put(UUID.randomUUID(), new ChessGame());
+        store.put(UUID.randomUUID(), new ChessGame());
+
+        assertThat(store.stats().weight()).isEqualTo(2 * (CompactGameStore.RECORD_BYTES + ChessGame.BASE_BYTES));
+        park(store);
+        assertThat(store.stats().weight()).isEqualTo(2 * CompactGameStore.RECORD_BYTES);
+    }
+
+    @Test
+    void should_pass_parked_and_live_games_as_records() {
+        CompactGameStore store = store(10, Duration.ZERO);
+        UUID parked = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        store.put(parked, new ChessGame());
+        store.get(parked).moveTo(at(6, 4), to(4, 4));
+        park(store);
+        ChessGame game = new ChessGame();
+        store.put(live, game);
+        game.moveTo(at(7, 1), to(5, 2));
+        game.takeback();
+
+        Map<UUID, ChessGame> records = new HashMap<>();
+        store.forEachRecord((id, record) -> records.put(id, GameRecord.read(record, 0, PositionCache.disabled(), false)));
+
+        assertThat(records.keySet()).containsExactlyInAnyOrder(parked, live);
+        assertThat(records.get(parked).ply()).isEqualTo(1);
+        assertThat(records.get(live).snapshot().toString()).isEqualTo(game.snapshot().toString());
+        assertThat(records.get(live).snapshot().version()).isEqualTo(2);
+    }
+
+    private void park(CompactGameStore store) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        store.cleanUp();
+    }
+
+    private CompactGameStore store(int maxGames, Duration idleTimeout) {
+        return new CompactGameStore(maxGames, idleTimeout, 0, Duration.ofSeconds(10), PositionCache.disabled(), false, clock::get, false);
+    }
+
+}
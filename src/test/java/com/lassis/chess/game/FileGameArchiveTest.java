@@ -0,0 +1,156 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.ChessStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileGameArchiveTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_read_back_the_moves_and_every_position_of_an_archived_game() {
+        UUID id = UUID.randomUUID();
+        List<String> positions = new ArrayList<>();
+        ChessGame game = new ChessGame();
+        positions.add(game.snapshot().toString());
+        for (PlannedMove move : foolsMate()) {
+            game.moveTo(move.origin(), move.destination());
+            positions.add(game.snapshot().toString());
+        }
+
+        try (FileGameArchive archive = archive()) {
+            assertThat(archive.archive(id, game)).isTrue();
+            assertThat(archive.archive(id, game)).isFalse();
+
+            GameArchive.Archived archived = archive.get(id);
+            assertThat(archived.firstPly()).isZero();
+            assertThat(archived.lastPly()).isEqualTo(4);
+            assertThat(archived.moves()).containsExactlyElementsOf(foolsMate());
+            for (int ply = 0; ply <= archived.lastPly(); ply++) {
+                ChessGame position = archive.position(id, ply);
+                assertThat(position.snapshot().toString()).isEqualTo(positions.get(ply));
+                assertThat(position.ply()).isEqualTo(ply);
+            }
+            assertThat(archive.position(id, 4).getStatus().whiteStatus()).isEqualTo(ChessStatus.CHECKMATE);
+            assertThatThrownBy(() -> archive.position(id, 5)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(archive.get(UUID.randomUUID())).isNull();
+        }
+    }
+
+    @Test
+    void should_not_archive_a_game_still_going_on() {
+        ChessGame game = new ChessGame();
+        game.moveTo(at(6, 4), to(4, 4));
+
+        try (FileGameArchive archive = archive()) {
+            assertThat(archive.archive(UUID.randomUUID(), game)).isFalse();
+            assertThat(archive.size()).isZero();
+        }
+    }
+
+    @Test
+    void should_keep_only_the_moves_left_after_a_take_back() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        List<PlannedMove> moves = foolsMate();
+        game.moveTo(moves.get(0).origin(), moves.get(0).destination());
+        game.moveTo(moves.get(1).origin(), moves.get(1).destination());
+        game.takeback();
+        game.moveTo(moves.get(1).origin(), moves.get(1).destination());
+        game.moveTo(moves.get(2).origin(), moves.get(2).destination());
+        game.moveTo(moves.get(3).origin(), moves.get(3).destination());
+
+        try (FileGameArchive archive = archive()) {
+            archive.archive(id, game);
+
+            assertThat(archive.get(id).moves()).containsExactlyElementsOf(moves);
+            assertThat(archive.position(id, 2).snapshot().toString()).isEqualTo(positionAfter(2));
+        }
+    }
+
+    @Test
+    void should_rebuild_the_index_on_restart() throws IOException {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        try (FileGameArchive archive = archive()) {
+            archive.archive(id, mated());
+        }
+        try (FileGameArchive archive = archive()) {
+            assertThat(archive.get(id).moves()).containsExactlyElementsOf(foolsMate());
+            archive.archive(other, mated());
+        }
+        Files.delete(directory.resolve(FileGameArchive.INDEX));
+
+        try (FileGameArchive archive = archive()) {
+            assertThat(archive.size()).isEqualTo(2);
+            assertThat(archive.get(id).lastPly()).isEqualTo(4);
+            assertThat(archive.position(other, 3).snapshot().toString()).isEqualTo(positionAfter(3));
+        }
+    }
+
+    @Test
+    void should_grow_the_index_and_roll_segments() throws IOException {
+        ChessGame game = mated();
+        List<UUID> ids = new ArrayList<>();
+        try (FileGameArchive archive = new FileGameArchive(directory, 4096, PositionCache.disabled())) {
+            for (int i = 0; i < 600; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                assertThat(archive.archive(id, game)).isTrue();
+            }
+            assertThat(archive.size()).isEqualTo(ids.size());
+        }
+
+        try (FileGameArchive archive = archive()) {
+            assertThat(archive.size()).isEqualTo(ids.size());
+            for (UUID id : ids) {
+                assertThat(archive.get(id).moves()).containsExactlyElementsOf(foolsMate());
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.getFileName().toString().startsWith(FileGameArchive.PREFIX)).count())
+                    .isGreaterThan(1);
+        }
+    }
+
+    private FileGameArchive archive() {
+        return new FileGameArchive(directory, 1024 * 1024, PositionCache.disabled());
+    }
+
+    private static ChessGame mated() {
+        ChessGame game = new ChessGame();
+        for (PlannedMove move : foolsMate()) {
+            game.moveTo(move.origin(), move.destination());
+        }
+        return game;
+    }
+
+    private static String positionAfter(int ply) {
+        ChessGame game = new ChessGame();
+        for (PlannedMove move : foolsMate().subList(0, ply)) {
+            game.moveTo(move.origin(), move.destination());
+        }
+        return game.snapshot().toString();
+    }
+
+    private static List<PlannedMove> foolsMate() {
+        return List.of(new PlannedMove(at(6, 5), to(5, 5)),
+                       new PlannedMove(at(1, 4), to(3, 4)),
+                       new PlannedMove(at(6, 6), to(4, 6)),
+                       new PlannedMove(at(0, 3), to(4, 7)));
+    }
+
+}
@@ -0,0 +1,301 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Color;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileGameJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_recover_games_after_restart() {
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, true, Duration.ZERO)) {
+            journal.created(kept);
+            journal.created(deleted);
+            game.addListener(event -> journal.append(kept, event));
+            game.moveTo(at(6, 4), to(4, 4));
+            game.moveTo(at(1, 3), to(3, 3));
+            game.moveTo(at(4, 4), to(3, 3));
+            game.moveTo(at(0, 3), to(3, 3));
+            game.takeback();
+            journal.deleted(deleted);
+            journal.sync().join();
+        }
+
+        Map<UUID, ChessGame> recovered = recover();
+
+        assertThat(recovered.keySet()).containsExactly(kept);
+        ChessGame replayed = recovered.get(kept);
+        assertThat(replayed.snapshot().toString()).isEqualTo(game.snapshot().toString());
+        assertThat(replayed.getStatus()).isEqualTo(game.getStatus());
+        assertThat(replayed.getStatus().turn()).isEqualTo(Color.BLACK);
+        assertThat(replayed.ply()).isEqualTo(3);
+    }
+
+    @Test
+    void should_share_disk_flushes_between_concurrent_games() {
+        int games = 8;
+        int moves = 200;
+        ExecutorService threads = Executors.newFixedThreadPool(games);
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, true, Duration.ZERO)) {
+            List<CompletableFuture<Void>> players = new ArrayList<>();
+            for (int g = 0; g < games; g++) {
+                players.add(CompletableFuture.runAsync(() -> {
+                    UUID id = UUID.randomUUID();
+                    journal.created(id);
+                    ChessGame game = new ChessGame();
+                    game.addListener(event -> journal.append(id, event));
+                    for (int i = 0; i < moves / 2; i++) {
+                        game.moveTo(at(7, 1), to(5, 2));
+                        journal.sync().join();
+                        game.takeback();
+                        journal.sync().join();
+                    }
+                }, threads));
+            }
+            CompletableFuture.allOf(players.toArray(CompletableFuture[]::new)).join();
+
+            GameJournal.Stats stats = journal.stats();
+            assertThat(stats.appended()).isEqualTo(games * (moves + 1L));
+            assertThat(stats.durable()).isEqualTo(stats.appended());
+            assertThat(stats.commits()).isLessThanOrEqualTo(stats.appended());
+        } finally {
+            threads.shutdown();
+        }
+
+        assertThat(recover()).hasSize(games);
+    }
+
+    @Test
+    void should_not_run_the_stages_of_a_sync_on_the_flusher() {
+        List<String> threads = new ArrayList<>();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, true, Duration.ZERO)) {
+            for (int i = 0; i < 50; i++) {
+                journal.created(UUID.randomUUID());
+                threads.add(journal.sync().thenApply(v -> Thread.currentThread().getName()).join());
+            }
+        }
+
+        assertThat(threads).doesNotContain("game-journal-flusher");
+    }
+
+    @Test
+    void should_cut_a_torn_record_at_the_end_of_a_segment() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            journal.created(id);
+            ChessGame game = new ChessGame();
+            game.addListener(event -> journal.append(id, event));
+            game.moveTo(at(6, 4), to(4, 4));
+            journal.sync().join();
+        }
+        Path segment = segments().get(0);
+        long size = Files.size(segment);
+        Files.write(segment, new byte[]{2, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        Map<UUID, ChessGame> recovered = recover();
+
+        assertThat(recovered.get(id).ply()).isEqualTo(1);
+        assertThat(Files.size(segment)).isEqualTo(size);
+    }
+
+    @Test
+    void should_roll_segments_and_start_a_new_one_on_restart() throws IOException {
+        UUID id = UUID.randomUUID();
+        try (FileGameJournal journal = new FileGameJournal(directory, 64, false, Duration.ZERO)) {
+            journal.created(id);
+            ChessGame game = new ChessGame();
+            game.addListener(event -> journal.append(id, event));
+            for (int i = 0; i < 10; i++) {
+                game.moveTo(at(7, 1), to(5, 2));
+                journal.sync().join();
+                game.takeback();
+                journal.sync().join();
+            }
+        }
+        int written = segments().size();
+        assertThat(written).isGreaterThan(1);
+
+        try (FileGameJournal journal = new FileGameJournal(directory, 64, false, Duration.ZERO)) {
+            assertThat(journal.recover(PositionCache.disabled(), false).get(id).ply()).isZero();
+            journal.deleted(id);
+            journal.sync().join();
+        }
+
+        assertThat(segments()).hasSize(written + 1);
+        assertThat(recover()).isEmpty();
+    }
+
+    @Test
+    void should_recover_from_a_snapshot_and_the_moves_after_it() throws IOException {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        BoundedGameStore store = new BoundedGameStore(10, Duration.ZERO, 0);
+        try (FileGameJournal journal = new FileGameJournal(directory, 64, false, Duration.ZERO)) {
+            journal.created(id);
+            game.addListener(event -> journal.append(id, event));
+            store.put(id, game);
+            for (int i = 0; i < 5; i++) {
+                game.moveTo(at(7, 1), to(5, 2));
+                game.takeback();
+            }
+            game.moveTo(at(6, 4), to(4, 4));
+            journal.sync().join();
+
+            journal.snapshot(store);
+            game.moveTo(at(1, 3), to(3, 3));
+            journal.sync().join();
+            assertThat(journal.stats().snapshots()).isEqualTo(1);
+        }
+        assertThat(segments().stream().filter(path -> path.getFileName().toString().startsWith(FileGameJournal.PREFIX)).count())
+                .isEqualTo(1);
+
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            ChessGame recovered = journal.recover(PositionCache.disabled(), false).get(id);
+            assertThat(recovered.snapshot().toString()).isEqualTo(game.snapshot().toString());
+            assertThat(recovered.ply()).isEqualTo(2);
+            assertThat(recovered.snapshot().version()).isEqualTo(12);
+            assertThat(journal.stats().recoveredGames()).isEqualTo(1);
+            assertThat(journal.stats().recoveredRecords()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void should_take_back_a_move_the_snapshot_already_has() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            journal.created(id);
+            game.addListener(event -> journal.append(id, event));
+            BoundedGameStore store = new BoundedGameStore(10, Duration.ZERO, 0);
+            store.put(id, game);
+            game.moveTo(at(6, 4), to(4, 4));
+            game.moveTo(at(1, 3), to(3, 3));
+            game.moveTo(at(4, 4), to(3, 3));
+            journal.snapshot(store);
+
+            game.takeback();
+            game.moveTo(at(7, 1), to(5, 2));
+            journal.sync().join();
+        }
+
+        ChessGame recovered = recover().get(id);
+
+        assertThat(recovered.snapshot().toString()).isEqualTo(game.snapshot().toString());
+        assertThat(recovered.getStatus()).isEqualTo(game.getStatus());
+        assertThat(recovered.getStatus().deleted()).isEmpty();
+        assertThat(recovered.ply()).isEqualTo(3);
+        assertThat(recovered.snapshot().version()).isEqualTo(5);
+    }
+
+    @Test
+    void should_fail_recovery_on_a_record_that_does_not_apply() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            journal.created(id);
+            BoundedGameStore store = new BoundedGameStore(10, Duration.ZERO, 0);
+            store.put(id, game);
+            journal.snapshot(store);
+            // a take back of a move the game never played
+            journal.append(id, new GameEvent(GameEvent.Type.TAKEBACK, 0, at(6, 4), to(4, 4), null, null, game.getStatus(), 1));
+            journal.sync().join();
+        }
+
+        assertThatThrownBy(this::recover).isInstanceOf(IllegalStateException.class).hasMessageContaining(id.toString());
+    }
+
+    @Test
+    void should_skip_the_moves_a_snapshot_already_has() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            journal.created(id);
+            game.addListener(event -> journal.append(id, event));
+            BoundedGameStore store = new BoundedGameStore(10, Duration.ZERO, 0) {
+                @Override
+                public void forEachRecord(BiConsumer<UUID, ByteBuffer> action) {
+                    // a move made while the snapshot is written goes to the journal after the snapshot cut
+                    game.moveTo(at(6, 4), to(4, 4));
+                    super.forEachRecord(action);
+                }
+            };
+            store.put(id, game);
+            journal.snapshot(store);
+            game.moveTo(at(1, 3), to(3, 3));
+            journal.sync().join();
+        }
+
+        ChessGame recovered = recover().get(id);
+
+        assertThat(recovered.snapshot().toString()).isEqualTo(game.snapshot().toString());
+        assertThat(recovered.ply()).isEqualTo(2);
+    }
+
+    @Test
+    void should_recover_many_games_on_all_threads() {
+        List<UUID> ids = new ArrayList<>();
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            BoundedGameStore store = new BoundedGameStore(1_000, Duration.ZERO, 0);
+            for (int i = 0; i < 200; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                journal.created(id);
+                ChessGame game = new ChessGame();
+                game.addListener(event -> journal.append(id, event));
+                store.put(id, game);
+                game.moveTo(at(6, 4), to(4, 4));
+                if (i == 100) {
+                    journal.snapshot(store);
+                }
+                game.moveTo(at(1, 3), to(3, 3));
+            }
+            journal.sync().join();
+        }
+
+        Map<UUID, ChessGame> recovered = recover();
+
+        assertThat(recovered).hasSize(ids.size());
+        for (UUID id : ids) {
+            assertThat(recovered.get(id).ply()).isEqualTo(2);
+        }
+    }
+
+    private Map<UUID, ChessGame> recover() {
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            return journal.recover(PositionCache.disabled(), false);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.exception.InvalidMoveException;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Color;
+import com.lassis.chess.model.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameShardsTest {
+
+    @Test
+    void should_run_changes_of_a_game_on_the_same_shard() {
+        try (GameShards shards = new GameShards(4)) {
+            UUID id = UUID.randomUUID();
+
+            String first = shards.execute(id, () -> Thread.currentThread().getName()).join();
+            String second = shards.execute(id, () -> Thread.currentThread().getName()).join();
+
+            assertThat(first).isEqualTo(second).isEqualTo("game-shard-" + shards.shardOf(id));
+        }
+    }
+
+    @Test
+    void should_fail_the_future_when_the_change_fails() {
+        try (GameShards shards = new GameShards(2)) {
+            ChessGame game = new ChessGame(PositionCache.disabled(), true);
+            UUID id = UUID.randomUUID();
+
+            CompletableFuture<ChessGameStatus> future = shards.execute(id, () -> game.moveTo(at(6, 4), to(3, 4)));
+
+            assertThatThrownBy(future::join).isInstanceOf(CompletionException.class)
+                                            .hasCauseInstanceOf(InvalidMoveException.class);
+            assertThat(shards.execute(id, () -> game.moveTo(at(6, 4), to(4, 4))).join().turn()).isEqualTo(Color.BLACK);
+        }
+    }
+
+    @Test
+    void should_report_queue_depth_per_shard() throws InterruptedException {
+        try (GameShards shards = new GameShards(1)) {
+            UUID id = UUID.randomUUID();
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            shards.execute(id, () -> {
+                running.countDown();
+                return await(release);
+            });
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                queued.add(shards.execute(id, () -> true));
+            }
+
+            assertThat(shards.stats()).containsExactly(new GameExecutor.ShardStats(0, 3, 3, 0));
+
+            release.countDown();
+            queued.forEach(CompletableFuture::join);
+        }
+    }
+
+    @Test
+    void should_apply_moves_in_order_without_lock() throws InterruptedException {
+        try (GameShards shards = new GameShards(2)) {
+            ChessGame game = new ChessGame(PositionCache.disabled(), true);
+            UUID id = UUID.randomUUID();
+            List<CompletableFuture<ChessGameStatus>> moves = new ArrayList<>();
+
+            Thread reader = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    GameSnapshot snapshot = game.snapshot();
+                    assertThat(snapshot.board().nonEmptySquares()).hasSize(32);
+                }
+            });
+            reader.start();
+            for (int column = 0; column < 8; column++) {
+                int c = column;
+                moves.add(shards.execute(id, () -> game.moveTo(at(6, c), to(5, c))));
+                moves.add(shards.execute(id, () -> game.moveTo(at(1, c), to(2, c))));
+            }
+            reader.join();
+
+            moves.forEach(CompletableFuture::join);
+            assertThat(game.getStatus().turn()).isEqualTo(Color.WHITE);
+            assertThat(game.at(to(5, 7)).flatMap(Square::piece)).isPresent();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.lassis.chess.game;
+
+import com.lassis.chess.model.Bitboards;
+import com.lassis.chess.model.ChessStatus;
+import com.lassis.chess.model.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionCacheTest {
+
+    @Test
+    void should_count_hits_and_misses() {
+        PositionCache cache = new PositionCache(10, PositionCache.Eviction.LRU);
+        cache.put(1L, position(Color.WHITE, 7L));
+
+        assertThat(cache.get(1L, Color.WHITE, 7L)).isPresent();
+        assertThat(cache.get(2L, Color.WHITE, 7L)).isEmpty();
+
+        assertThat(cache.stats()).isEqualTo(new PositionCache.Stats(1, 1, 0, 1));
+    }
+
+    @Test
+    void should_miss_on_hash_collision() {
+        PositionCache cache = new PositionCache(10, PositionCache.Eviction.LRU);
+        cache.put(1L, position(Color.WHITE, 7L));
+
+        assertThat(cache.get(1L, Color.BLACK, 7L)).isEmpty();
+        assertThat(cache.get(1L, Color.WHITE, 8L)).isEmpty();
+    }
+
+    @Test
+    void lru_should_keep_recently_read_positions() {
+        PositionCache cache = new PositionCache(2, PositionCache.Eviction.LRU);
+        cache.put(1L, position(Color.WHITE, 1L));
+        cache.put(2L, position(Color.WHITE, 2L));
+        cache.get(1L, Color.WHITE, 1L);
+        cache.put(3L, position(Color.WHITE, 3L));
+
+        assertThat(cache.get(1L, Color.WHITE, 1L)).isPresent();
+        assertThat(cache.get(2L, Color.WHITE, 2L)).isEmpty();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void fifo_should_drop_oldest_positions() {
+        PositionCache cache = new PositionCache(2, PositionCache.Eviction.FIFO);
+        cache.put(1L, position(Color.WHITE, 1L));
+        cache.put(2L, position(Color.WHITE, 2L));
+        cache.get(1L, Color.WHITE, 1L);
+        cache.put(3L, position(Color.WHITE, 3L));
+
+        assertThat(cache.get(1L, Color.WHITE, 1L)).isEmpty();
+        assertThat(cache.get(2L, Color.WHITE, 2L)).isPresent();
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void disabled_cache_should_not_store() {
+        PositionCache cache = PositionCache.disabled();
+        cache.put(1L, position(Color.WHITE, 1L));
+
+        assertThat(cache.get(1L, Color.WHITE, 1L)).isEmpty();
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void games_should_share_positions() {
+        PositionCache cache = new PositionCache(100, PositionCache.Eviction.LRU);
+        ChessGame first = new ChessGame(cache);
+        first.moveTo(at(6, 4), to(4, 4));
+        long misses = cache.stats().misses();
+
+        ChessGame second = new ChessGame(cache);
+        second.moveTo(at(6, 4), to(4, 4));
+
+        assertThat(cache.stats().misses()).isEqualTo(misses);
+        assertThat(cache.stats().hits()).isEqualTo(2); // start position and after the move
+        assertThat(second.getStatus()).isEqualTo(first.getStatus());
+        assertThat(second.allowedMoves(at(1, 4))).containsExactlyInAnyOrder(to(2, 4), to(3, 4));
+    }
+
+    private static PositionCache.Position position(Color turn, long occupied) {
+        return new PositionCache.Position(turn, occupied,
+                Map.of(Color.WHITE, ChessStatus.NORMAL, Color.BLACK, ChessStatus.NORMAL),
+                new long[Bitboards.SQUARES]);
+    }
+
+}
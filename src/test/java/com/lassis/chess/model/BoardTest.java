@@ -0,0 +1,343 @@
+package com.lassis.chess.model;
+
+import com.lassis.chess.exception.InvalidMoveException;
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.model.pieces.Bishop;
+import com.lassis.chess.model.pieces.King;
+import com.lassis.chess.model.pieces.Knight;
+import com.lassis.chess.model.pieces.Pawn;
+import com.lassis.chess.model.pieces.Queen;
+import com.lassis.chess.model.pieces.Rook;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoardTest {
+
+    @Test
+    void place_should_update_bitboards() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new Pawn(Color.BLACK), at(1, 3));
+
+        assertThat(board.pieces(Color.WHITE, PieceType.ROOK)).isEqualTo(Bitboards.bit(Bitboards.index(7, 0)));
+        assertThat(board.pieces(Color.BLACK, PieceType.PAWN)).isEqualTo(Bitboards.bit(Bitboards.index(1, 3)));
+        assertThat(board.occupied(Color.WHITE)).isEqualTo(board.pieces(Color.WHITE, PieceType.ROOK));
+        assertThat(board.occupied()).isEqualTo(board.occupied(Color.WHITE) | board.occupied(Color.BLACK));
+        assertThat(board.piece(at(7, 0))).hasValue(new Rook(Color.WHITE));
+    }
+
+    @Test
+    void move_should_update_bitboards_and_return_deleted() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new Pawn(Color.BLACK), at(1, 0));
+
+        assertThat(board.moveTo(at(7, 0), to(1, 0))).hasValue(new Pawn(Color.BLACK));
+
+        assertThat(board.pieces(Color.BLACK, PieceType.PAWN)).isZero();
+        assertThat(board.occupied(Color.BLACK)).isZero();
+        assertThat(board.pieces(Color.WHITE, PieceType.ROOK)).isEqualTo(Bitboards.bit(Bitboards.index(1, 0)));
+        assertThat(board.occupied()).isEqualTo(Bitboards.bit(Bitboards.index(1, 0)));
+        assertThat(board.piece(at(7, 0))).isEmpty();
+    }
+
+    @Test
+    void move_should_not_change_board_when_not_allowed() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new King(Color.WHITE), at(7, 4));
+        long before = board.occupied();
+
+        assertThatThrownBy(() -> board.moveTo(at(7, 4), to(5, 4))).isInstanceOf(InvalidMoveException.class);
+        assertThat(board.occupied()).isEqualTo(before);
+    }
+
+    @Test
+    void square_should_follow_board_changes() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        Square square = board.place(new Pawn(Color.WHITE), at(6, 0));
+
+        board.moveTo(at(6, 0), to(5, 0));
+
+        assertThat(square.piece()).isEmpty();
+        assertThat(board.at(5, 0).flatMap(Square::piece)).hasValue(new Pawn(Color.WHITE));
+    }
+
+    @Test
+    void non_empty_squares_should_group_by_color() {
+        Board board = new Board(4, 4);
+        board.place(new Rook(Color.WHITE), at(3, 3));
+        board.place(new Pawn(Color.WHITE), at(2, 0));
+        board.place(new Pawn(Color.BLACK), at(0, 1));
+
+        Map<Color, Set<Square>> squares = board.nonEmptySquares();
+
+        assertThat(squares.get(Color.WHITE)).containsExactlyInAnyOrder(board.at(3, 3).orElseThrow(), board.at(2, 0).orElseThrow());
+        assertThat(squares.get(Color.BLACK)).containsExactlyInAnyOrder(board.at(0, 1).orElseThrow());
+    }
+
+    @Test
+    void generate_moves_should_encode_origin_destination_and_capture() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new Pawn(Color.BLACK), at(5, 0));
+        board.place(new Pawn(Color.WHITE), at(7, 1));
+
+        MoveBuffer buffer = new MoveBuffer();
+        board.generateMoves(Bitboards.index(7, 0), buffer);
+
+        assertThat(buffer.size()).isEqualTo(2);
+        int capture = buffer.get(buffer.indexOf(Bitboards.index(7, 0), Bitboards.index(5, 0)));
+        assertThat(Move.isCapture(capture)).isTrue();
+        int quiet = buffer.get(buffer.indexOf(Bitboards.index(7, 0), Bitboards.index(6, 0)));
+        assertThat(Move.isCapture(quiet)).isFalse();
+        assertThat(Move.from(quiet)).isEqualTo(Bitboards.index(7, 0));
+        assertThat(Move.to(quiet)).isEqualTo(Bitboards.index(6, 0));
+    }
+
+    @Test
+    void generate_moves_should_match_allowed_moves() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        for (int column = 0; column < ChessGame.SIZE_8; column++) {
+            board.place(new Pawn(Color.BLACK), at(1, column));
+            board.place(new Pawn(Color.WHITE), at(6, column));
+        }
+        board.place(new Rook(Color.BLACK), at(0, 0));
+        board.place(new King(Color.BLACK), at(0, 4));
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new King(Color.WHITE), at(7, 4));
+        MoveBuffer buffer = new MoveBuffer();
+
+        for (Color color : Color.values()) {
+            buffer.clear();
+            board.generateMoves(color, buffer);
+
+            int expected = board.nonEmptySquares().get(color).stream().mapToInt(square -> square.allowedMoves().size()).sum();
+            assertThat(buffer.size()).isEqualTo(expected);
+            assertThat(buffer.size()).isEqualTo(21); // 16 pawn moves, 3 rook moves and 2 king moves
+        }
+    }
+
+    @Test
+    void is_attacked_should_follow_pawn_direction() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Pawn(Color.WHITE), at(4, 4));
+
+        assertThat(board.isAttacked(Bitboards.index(3, 3), Color.WHITE)).isTrue();
+        assertThat(board.isAttacked(Bitboards.index(3, 5), Color.WHITE)).isTrue();
+        assertThat(board.isAttacked(Bitboards.index(3, 4), Color.WHITE)).isFalse(); // push is not an attack
+        assertThat(board.isAttacked(Bitboards.index(5, 3), Color.WHITE)).isFalse();
+        assertThat(board.isAttacked(Bitboards.index(3, 3), Color.BLACK)).isFalse();
+    }
+
+    @Test
+    void is_attacked_should_stop_sliding_pieces_on_blockers() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new Rook(Color.BLACK), at(0, 0));
+        board.place(new Pawn(Color.BLACK), at(3, 0));
+
+        assertThat(board.isAttacked(Bitboards.index(3, 0), Color.BLACK)).isTrue(); // defended piece
+        assertThat(board.isAttacked(Bitboards.index(4, 0), Color.BLACK)).isFalse();
+        assertThat(board.isAttacked(Bitboards.index(4, 0), Color.BLACK, board.occupied() & ~Bitboards.bit(Bitboards.index(3, 0)))).isTrue();
+    }
+
+    @Test
+    void checkers_should_list_pieces_giving_check() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new King(Color.WHITE), at(7, 4));
+        board.place(new Rook(Color.BLACK), at(0, 4));
+        board.place(new Pawn(Color.BLACK), at(6, 3));
+        board.place(new Rook(Color.BLACK), at(7, 0));
+        board.place(new Pawn(Color.WHITE), at(7, 1));
+
+        assertThat(board.checkers(Color.WHITE))
+                .isEqualTo(Bitboards.bit(Bitboards.index(0, 4)) | Bitboards.bit(Bitboards.index(6, 3)));
+        assertThat(board.checkers(Color.BLACK)).isZero();
+    }
+
+    @Test
+    void attack_maps_should_be_updated_on_place_and_move() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8).verifyAttacks(true);
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new Pawn(Color.WHITE), at(4, 0));
+
+        assertThat(board.isAttacked(Bitboards.index(4, 0), Color.WHITE)).isTrue();
+        assertThat(board.isAttacked(Bitboards.index(3, 0), Color.WHITE)).isFalse();
+        assertThat(board.attackCount(Bitboards.index(3, 1), Color.WHITE)).isEqualTo(1);
+
+        board.moveTo(at(4, 0), to(3, 0));
+
+        assertThat(board.isAttacked(Bitboards.index(4, 0), Color.WHITE)).isTrue();
+        assertThat(board.isAttacked(Bitboards.index(3, 0), Color.WHITE)).isTrue();
+        assertThat(board.attackCount(Bitboards.index(3, 1), Color.WHITE)).isZero();
+        assertThat(board.attacksFrom(Bitboards.index(4, 0))).isZero();
+    }
+
+    @Test
+    void attack_maps_should_match_full_recompute_on_random_games() {
+        SplittableRandom random = new SplittableRandom(7);
+        MoveBuffer buffer = new MoveBuffer();
+
+        for (int game = 0; game < 20; game++) {
+            Board board = startPosition().verifyAttacks(true);
+            Color turn = Color.WHITE;
+            for (int ply = 0; ply < 80; ply++) {
+                buffer.clear();
+                board.generateMoves(turn, buffer);
+                if (buffer.isEmpty()) {
+                    break;
+                }
+
+                int move = buffer.get(random.nextInt(buffer.size()));
+                board.moveTo(Point.of(Move.from(move)), Point.of(Move.to(move))); // verification throws on mismatch
+                assertThat(board.hash()).isEqualTo(Zobrist.hash(board));
+                turn = turn.opponent();
+            }
+        }
+    }
+
+    @Test
+    void legal_moves_should_match_pseudo_legal_moves_in_start_position() {
+        Board board = startPosition();
+        MoveBuffer buffer = new MoveBuffer();
+
+        board.generateLegalMoves(Color.WHITE, buffer);
+
+        assertThat(buffer.size()).isEqualTo(20);
+        assertThat(board.hasLegalMoves(Color.BLACK)).isTrue();
+    }
+
+    @Test
+    void legal_moves_should_only_move_king_on_double_check() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new King(Color.WHITE), at(7, 4));
+        board.place(new Rook(Color.WHITE), at(7, 0));
+        board.place(new Rook(Color.BLACK), at(0, 4));
+        board.place(new Bishop(Color.BLACK), at(4, 1));
+        MoveBuffer buffer = new MoveBuffer();
+
+        board.generateLegalMoves(Color.WHITE, buffer);
+
+        assertThat(board.legalTargets(Bitboards.index(7, 0))).isZero();
+        assertThat(buffer.size()).isEqualTo(Long.bitCount(board.legalTargets(Bitboards.index(7, 4))));
+        assertThat(board.legalTargets(Bitboards.index(7, 4)))
+                .isEqualTo(Bitboards.bit(Bitboards.index(7, 3)) | Bitboards.bit(Bitboards.index(7, 5)) | Bitboards.bit(Bitboards.index(6, 5)));
+    }
+
+    @Test
+    void pinned_should_list_pieces_between_king_and_sliders() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        board.place(new King(Color.WHITE), at(7, 4));
+        board.place(new Knight(Color.WHITE), at(5, 4));
+        board.place(new Pawn(Color.WHITE), at(6, 3));
+        board.place(new Pawn(Color.WHITE), at(6, 5));
+        board.place(new Rook(Color.BLACK), at(0, 4));
+        board.place(new Bishop(Color.BLACK), at(4, 1));
+        board.place(new Bishop(Color.BLACK), at(4, 7));
+
+        assertThat(board.pinned(Color.WHITE))
+                .isEqualTo(Bitboards.bit(Bitboards.index(5, 4)) | Bitboards.bit(Bitboards.index(6, 3)) | Bitboards.bit(Bitboards.index(6, 5)));
+        assertThat(board.legalTargets(Bitboards.index(5, 4))).isZero();
+        assertThat(board.legalTargets(Bitboards.index(6, 3))).isZero(); // capturing the bishop needs two steps
+    }
+
+    @Test
+    void unmake_should_restore_the_board() {
+        Board board = startPosition();
+        String fen = Fen.of(board, Color.WHITE);
+        long hash = board.hash();
+
+        board.makeMove(Move.of(Bitboards.index(6, 4), Bitboards.index(4, 4), Move.QUIET));
+        board.makeMove(Move.of(Bitboards.index(1, 3), Bitboards.index(3, 3), Move.QUIET));
+        board.makeMove(Move.of(Bitboards.index(4, 4), Bitboards.index(3, 3), Move.CAPTURE));
+        assertThat(board.ply()).isEqualTo(3);
+        assertThat(board.captured(2)).hasValue(new Pawn(Color.BLACK));
+
+        assertThat(Move.to(board.unmakeMove())).isEqualTo(Bitboards.index(3, 3));
+        assertThat(board.piece(at(3, 3))).hasValue(new Pawn(Color.BLACK));
+        board.unmakeMove();
+        board.unmakeMove();
+
+        assertThat(Fen.of(board, Color.WHITE)).isEqualTo(fen);
+        assertThat(board.hash()).isEqualTo(hash);
+        assertThat(board.ply()).isZero();
+        assertThatThrownBy(board::unmakeMove).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void make_and_unmake_should_keep_maps_on_random_games() {
+        SplittableRandom random = new SplittableRandom(11);
+        Board board = startPosition().verifyAttacks(true);
+        String fen = Fen.of(board, Color.WHITE);
+        MoveBuffer buffer = new MoveBuffer();
+
+        Color turn = Color.WHITE;
+        for (int ply = 0; ply < 200; ply++) {
+            buffer.clear();
+            board.generateLegalMoves(turn, buffer);
+            if (buffer.isEmpty()) {
+                break;
+            }
+            board.makeMove(buffer.get(random.nextInt(buffer.size()))); // verification throws on mismatch
+            turn = turn.opponent();
+        }
+        while (board.ply() > 0) {
+            board.unmakeMove();
+        }
+
+        assertThat(Fen.of(board, Color.WHITE)).isEqualTo(fen);
+        assertThat(board.hash()).isEqualTo(Zobrist.hash(board));
+    }
+
+    @Test
+    void hash_should_depend_only_on_the_position() {
+        Board board = startPosition();
+        long start = board.hash();
+
+        board.moveTo(at(7, 1), to(5, 2));
+        board.moveTo(at(0, 1), to(2, 2));
+        assertThat(board.hash()).isNotEqualTo(start);
+
+        board.moveTo(at(5, 2), to(7, 1));
+        board.moveTo(at(2, 2), to(0, 1));
+        assertThat(board.hash()).isEqualTo(start);
+        assertThat(board.hash(Color.BLACK)).isNotEqualTo(board.hash(Color.WHITE));
+    }
+
+    @Test
+    void hash_should_differ_between_board_sizes() {
+        Board small = new Board(4, 4);
+        Board big = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        small.place(new King(Color.WHITE), at(3, 3));
+        big.place(new King(Color.WHITE), at(3, 3));
+
+        assertThat(small.hash()).isNotEqualTo(big.hash());
+    }
+
+    @Test
+    void should_not_allow_boards_bigger_than_bitboard() {
+        assertThatThrownBy(() -> new Board(9, 8)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Board startPosition() {
+        Board board = new Board(ChessGame.SIZE_8, ChessGame.SIZE_8);
+        List<Function<Color, Piece>> firstRow = List.of(Rook::new, Knight::new, Bishop::new, Queen::new, King::new, Bishop::new, Knight::new, Rook::new);
+        for (int column = 0; column < ChessGame.SIZE_8; column++) {
+            board.place(firstRow.get(column).apply(Color.BLACK), at(0, column));
+            board.place(new Pawn(Color.BLACK), at(1, column));
+            board.place(new Pawn(Color.WHITE), at(6, column));
+            board.place(firstRow.get(column).apply(Color.WHITE), at(7, column));
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.lassis.chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaperAttacksTest {
+
+    @Test
+    void knight_should_not_wrap_around_the_board() {
+        assertThat(LeaperAttacks.knight(Bitboards.index(0, 0)))
+                .isEqualTo(bits(1, 2, 2, 1));
+        assertThat(LeaperAttacks.knight(Bitboards.index(3, 7)))
+                .isEqualTo(bits(1, 6, 2, 5, 4, 5, 5, 6));
+    }
+
+    @Test
+    void king_should_surround_the_square() {
+        assertThat(Long.bitCount(LeaperAttacks.king(Bitboards.index(3, 3)))).isEqualTo(8);
+        assertThat(LeaperAttacks.king(Bitboards.index(7, 7)))
+                .isEqualTo(bits(6, 6, 6, 7, 7, 6));
+    }
+
+    @Test
+    void pawn_should_follow_color_direction() {
+        int square = Bitboards.index(4, 4);
+
+        assertThat(LeaperAttacks.pawnPush(Color.BLACK, square)).isEqualTo(bits(5, 4));
+        assertThat(LeaperAttacks.pawnPush(Color.WHITE, square)).isEqualTo(bits(3, 4));
+        assertThat(LeaperAttacks.pawnAttacks(Color.BLACK, square)).isEqualTo(bits(5, 3, 5, 5));
+        assertThat(LeaperAttacks.pawnAttacks(Color.WHITE, square)).isEqualTo(bits(3, 3, 3, 5));
+    }
+
+    @Test
+    void pawn_should_not_move_out_of_the_board() {
+        assertThat(LeaperAttacks.pawnPush(Color.WHITE, Bitboards.index(0, 3))).isZero();
+        assertThat(LeaperAttacks.pawnAttacks(Color.BLACK, Bitboards.index(7, 3))).isZero();
+        assertThat(LeaperAttacks.pawnAttacks(Color.WHITE, Bitboards.index(6, 0))).isEqualTo(bits(5, 1));
+    }
+
+    private static long bits(int... rowsAndColumns) {
+        long result = 0;
+        for (int i = 0; i < rowsAndColumns.length; i += 2) {
+            result |= Bitboards.bit(Bitboards.index(rowsAndColumns[i], rowsAndColumns[i + 1]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lassis.chess.model;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+
+import java.util.stream.Stream;
+
+/**
+ * Well known perft positions, see <a href="https://www.chessprogramming.org/Perft_Results">...</a>. Counts follow the
+ * rules of this game: pawns may step two squares from any row and there is no castling, en passant or promotion, so
+ * they differ from the published ones once those moves show up.
+ */
+public class PerftArgumentProvider implements ArgumentsProvider {
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext extensionContext) {
+        return Stream.of(
+                Arguments.of(Fen.START, new long[]{20, 400, 9194, 209691}, "start position"),
+                Arguments.of("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                             new long[]{46, 1906, 88565}, "kiwipete"),
+                Arguments.of("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                             new long[]{14, 207, 3171, 53058}, "position 3"),
+                Arguments.of("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                             new long[]{6, 222, 8188}, "position 4"),
+                Arguments.of("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                             new long[]{40, 1356, 52233}, "position 5")
+        );
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.lassis.chess.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PerftTest {
+
+    @DisplayName("Perft known positions")
+    @ParameterizedTest(name = "{2}")
+    @ArgumentsSource(PerftArgumentProvider.class)
+    void should_count_known_positions(String fen, long[] expected, String description) {
+        Board board = Fen.board(fen);
+        Color turn = Fen.turn(fen);
+
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertThat(Perft.count(board, turn, depth)).isEqualTo(expected[depth - 1]);
+        }
+        assertThat(Fen.of(board, turn).split(" ")[0]).isEqualTo(fen.split(" ")[0]); // board not changed
+    }
+
+    @Test
+    void divide_should_split_nodes_by_root_move() {
+        Perft.Result result = Perft.divide(Fen.board(Fen.START), Color.WHITE, 3);
+
+        assertThat(result.nodes()).isEqualTo(9194);
+        assertThat(result.divide()).hasSize(20);
+        assertThat(result.divide().get("e2e4")).isEqualTo(618);
+        assertThat(result.divide().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(result.nodes());
+    }
+
+    @Test
+    void parallel_should_match_divide() {
+        Board board = Fen.board(Fen.START);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Perft.Result parallel = Perft.parallel(board, Color.WHITE, 3, pool);
+
+            assertThat(parallel.divide()).isEqualTo(Perft.divide(board, Color.WHITE, 3).divide());
+            assertThat(parallel.nodesPerSecond()).isPositive();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void should_not_allow_depth_zero_on_divide() {
+        assertThatThrownBy(() -> Perft.divide(Fen.board(Fen.START), Color.WHITE, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
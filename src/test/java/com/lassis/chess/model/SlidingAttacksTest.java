@@ -0,0 +1,87 @@
+package com.lassis.chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingAttacksTest {
+    private static final int SAMPLES = 200;
+
+    @Test
+    void rook_should_match_ray_walking() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertThat(SlidingAttacks.rook(square, occupied))
+                        .isEqualTo(walk(square, occupied, new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}}));
+            }
+        }
+    }
+
+    @Test
+    void bishop_should_match_ray_walking() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertThat(SlidingAttacks.bishop(square, occupied))
+                        .isEqualTo(walk(square, occupied, new int[][]{{-1, -1}, {-1, 1}, {1, -1}, {1, 1}}));
+            }
+        }
+    }
+
+    @Test
+    void queen_should_combine_rook_and_bishop() {
+        int square = Bitboards.index(3, 3);
+        long occupied = Bitboards.bit(Bitboards.index(3, 6)) | Bitboards.bit(Bitboards.index(1, 1));
+
+        assertThat(SlidingAttacks.queen(square, occupied))
+                .isEqualTo(SlidingAttacks.rook(square, occupied) | SlidingAttacks.bishop(square, occupied));
+    }
+
+    @Test
+    void rook_should_stop_on_first_blocker() {
+        int square = Bitboards.index(0, 0);
+        long occupied = Bitboards.bit(Bitboards.index(0, 2)) | Bitboards.bit(Bitboards.index(0, 5));
+
+        long attacks = SlidingAttacks.rook(square, occupied);
+
+        assertThat(Bitboards.contains(attacks, Bitboards.index(0, 1))).isTrue();
+        assertThat(Bitboards.contains(attacks, Bitboards.index(0, 2))).isTrue();
+        assertThat(Bitboards.contains(attacks, Bitboards.index(0, 3))).isFalse();
+        assertThat(Bitboards.contains(attacks, Bitboards.index(7, 0))).isTrue();
+    }
+
+    @Test
+    void between_and_line_should_follow_alignment() {
+        int a = Bitboards.index(1, 1);
+        int b = Bitboards.index(4, 4);
+
+        assertThat(SlidingAttacks.between(a, b))
+                .isEqualTo(Bitboards.bit(Bitboards.index(2, 2)) | Bitboards.bit(Bitboards.index(3, 3)));
+        assertThat(SlidingAttacks.between(a, b)).isEqualTo(SlidingAttacks.between(b, a));
+        assertThat(Long.bitCount(SlidingAttacks.line(a, b))).isEqualTo(8);
+        assertThat(SlidingAttacks.between(a, Bitboards.index(2, 3))).isZero();
+        assertThat(SlidingAttacks.line(a, Bitboards.index(2, 3))).isZero();
+    }
+
+    private static long walk(int square, long occupied, int[][] directions) {
+        long result = 0;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (row >= 0 && row < Bitboards.SIZE && column >= 0 && column < Bitboards.SIZE) {
+                result |= Bitboards.bit(Bitboards.index(row, column));
+                if (Bitboards.contains(occupied, Bitboards.index(row, column))) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return result;
+    }
+}
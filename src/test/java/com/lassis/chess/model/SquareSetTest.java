@@ -0,0 +1,81 @@
+package com.lassis.chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SquareSetTest {
+
+    @Test
+    void should_add_contains_and_remove_points() {
+        SquareSet set = new SquareSet();
+
+        assertThat(set.add(at(3, 4))).isTrue();
+        assertThat(set.add(at(3, 4))).isFalse();
+        assertThat(set.add(at(7, 7))).isTrue();
+
+        assertThat(set).hasSize(2);
+        assertThat(set.contains(at(3, 4))).isTrue();
+        assertThat(set.contains(at(4, 3))).isFalse();
+        assertThat(set.contains(at(-1, 3))).isFalse();
+        assertThat(set.bits()).isEqualTo(Bitboards.bit(Bitboards.index(3, 4)) | Bitboards.bit(Bitboards.index(7, 7)));
+
+        assertThat(set.remove(at(3, 4))).isTrue();
+        assertThat(set.remove(at(3, 4))).isFalse();
+        assertThat(set).containsExactly(at(7, 7));
+    }
+
+    @Test
+    void should_iterate_shared_points() {
+        SquareSet set = new SquareSet(Bitboards.bit(Bitboards.index(0, 1)) | Bitboards.bit(Bitboards.index(5, 2)));
+
+        assertThat(set).containsExactly(at(0, 1), at(5, 2));
+        assertThat(set.iterator().next()).isSameAs(Point.of(0, 1));
+    }
+
+    @Test
+    void iterator_remove_should_update_bits() {
+        SquareSet set = new SquareSet(Bitboards.bit(Bitboards.index(0, 1)) | Bitboards.bit(Bitboards.index(5, 2)));
+
+        Iterator<Point> iterator = set.iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertThat(set.bits()).isEqualTo(Bitboards.bit(Bitboards.index(5, 2)));
+    }
+
+    @Test
+    void should_be_equal_to_other_sets() {
+        SquareSet set = new SquareSet(Bitboards.bit(Bitboards.index(0, 1)) | Bitboards.bit(Bitboards.index(5, 2)));
+        Set<Point> hashSet = new HashSet<>(Set.of(at(0, 1), at(5, 2)));
+
+        assertThat(set).isEqualTo(hashSet);
+        assertThat(hashSet).isEqualTo(set);
+        assertThat(set.hashCode()).isEqualTo(hashSet.hashCode());
+    }
+
+    @Test
+    void bulk_operations_should_use_bits() {
+        SquareSet set = new SquareSet(Bitboards.bit(1) | Bitboards.bit(2) | Bitboards.bit(3));
+
+        assertThat(set.retainAll(new SquareSet(Bitboards.bit(2) | Bitboards.bit(3) | Bitboards.bit(4)))).isTrue();
+        assertThat(set.bits()).isEqualTo(Bitboards.bit(2) | Bitboards.bit(3));
+
+        assertThat(set.removeAll(new SquareSet(Bitboards.bit(3)))).isTrue();
+        assertThat(set.addAll(new SquareSet(Bitboards.bit(2)))).isFalse();
+        assertThat(set.bits()).isEqualTo(Bitboards.bit(2));
+    }
+
+    @Test
+    void should_not_add_point_out_of_board() {
+        SquareSet set = new SquareSet();
+        assertThatThrownBy(() -> set.add(new Point(8, 0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
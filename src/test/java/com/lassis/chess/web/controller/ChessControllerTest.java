@@ -1,53 +1,80 @@
 package com.lassis.chess.web.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.PlannedMove;
 import com.lassis.chess.model.ChessStatus;
 import com.lassis.chess.model.Color;
+import com.lassis.chess.web.controller.model.GameIdsDTO;
 import com.lassis.chess.web.controller.model.MoveDTO;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
-import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@ExtendWith(SpringExtension.class)
-@ComponentScan
-@WebAppConfiguration
-@AutoConfigureMockMvc
-@EnableWebMvc
+@WebMvcTest(ChessController.class)
+@Import({GameConfiguration.class, GameRegistry.class, GameEventBroadcaster.class, ObjectTransformer.class})
 class ChessControllerTest {
     final ObjectMapper objectMapper = new ObjectMapper();
     @Autowired
     MockMvc mockMvc;
+    @MockBean
+    GameArchive archive;
+    String game;
 
     @BeforeEach
-    void reset() throws Exception {
-        MockHttpServletRequestBuilder delete = MockMvcRequestBuilders.delete("/api/game").accept(MediaType.APPLICATION_JSON_VALUE);
-        mockMvc.perform(delete)
+    void newGame() throws Exception {
+        MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/game").accept(MediaType.APPLICATION_JSON_VALUE);
+        game = perform(post)
+                .andExpect(status().isNoContent())
+                .andReturn()
+                .getResponse()
+                .getHeader("Location");
+        assertThat(game).startsWith("/api/game/");
+    }
+
+    @Test
+    void should_delete_game() throws Exception {
+        perform(MockMvcRequestBuilders.delete(game))
                 .andExpect(status().isNoContent());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(game + "/status"))
+                .andExpect(status().isBadRequest());
+        perform(MockMvcRequestBuilders.delete(game))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     void should_get_status() throws Exception {
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/status").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/status").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(MockMvcResultMatchers.jsonPath("$.whiteStatus", CoreMatchers.is(ChessStatus.NORMAL.toString())))
                 .andExpect(jsonPath("$.blackStatus", is(ChessStatus.NORMAL.toString())))
@@ -58,7 +85,7 @@ class ChessControllerTest {
 
     @Test
     void should_retrieve_32_pieces_and_sort() throws Exception {
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/pieces").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/pieces").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(jsonPath("$", hasSize(32)))
                 .andExpect(jsonPath("$[0].squareId", is("A1")))
@@ -77,7 +104,7 @@ class ChessControllerTest {
 
     @Test
     void should_retrieve_piece_and_check_movement_to_pawn() throws Exception {
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/pieces/A2").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/pieces/A2").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(jsonPath("$.squareId", is("A2")))
                 .andExpect(jsonPath("$.row", is(6)))
@@ -96,14 +123,14 @@ class ChessControllerTest {
 
     @Test
     void should_be_400_piece_invalid_ID() throws Exception {
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/pieces/DD2").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/pieces/DD2").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(status().isBadRequest());
     }
 
     @Test
     void should_be_404_piece_empty_square() throws Exception {
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/pieces/D4").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/pieces/D4").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(status().isNotFound());
     }
@@ -112,17 +139,13 @@ class ChessControllerTest {
     void should_be_move_piece() throws Exception {
         MoveDTO moveDTO = buildMove("A2", "A4");
 
-        MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/moves")
-                .accept(MediaType.APPLICATION_JSON_VALUE)
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsBytes(moveDTO));
-
-        mockMvc.perform(post)
+        perform(move(moveDTO))
                 .andExpect(jsonPath("$.squareId", is("A4")))
                 .andExpect(jsonPath("$.row", is(4)))
                 .andExpect(jsonPath("$.column", is(0)))
                 .andExpect(jsonPath("$.color", is(Color.WHITE.toString())))
                 .andExpect(jsonPath("$.type", is("PAWN")))
+                .andExpect(header().string("turn", Color.BLACK.toString()))
                 .andExpect(status().isOk());
     }
 
@@ -130,12 +153,7 @@ class ChessControllerTest {
     void should_be_404_move_empty_square() throws Exception {
         MoveDTO moveDTO = buildMove("D5", "D7");
 
-        MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/moves")
-                .accept(MediaType.APPLICATION_JSON_VALUE)
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsBytes(moveDTO));
-
-        mockMvc.perform(post)
+        perform(move(moveDTO))
                 .andExpect(status().isNotFound());
     }
 
@@ -143,12 +161,7 @@ class ChessControllerTest {
     void should_be_400_invalid_move() throws Exception {
         MoveDTO moveDTO = buildMove("A1", "B2");
 
-        MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/moves")
-                .accept(MediaType.APPLICATION_JSON_VALUE)
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsBytes(moveDTO));
-
-        mockMvc.perform(post)
+        perform(move(moveDTO))
                 .andExpect(status().isBadRequest());
     }
 
@@ -156,12 +169,7 @@ class ChessControllerTest {
     void should_be_409_black_trying_to_move_on_white_turn() throws Exception {
         MoveDTO moveDTO = buildMove("A7", "A6");
 
-        MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/moves")
-                .accept(MediaType.APPLICATION_JSON_VALUE)
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsBytes(moveDTO));
-
-        mockMvc.perform(post)
+        perform(move(moveDTO))
                 .andExpect(status().isConflict());
     }
 
@@ -178,17 +186,12 @@ class ChessControllerTest {
         );
 
         for (MoveDTO moveDTO : moves) {
-            MockHttpServletRequestBuilder post = MockMvcRequestBuilders.post("/api/moves")
-                    .accept(MediaType.APPLICATION_JSON_VALUE)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .content(objectMapper.writeValueAsBytes(moveDTO));
-
-            mockMvc.perform(post)
+            perform(move(moveDTO))
                     .andExpect(jsonPath("$.squareId", is(moveDTO.to())))
                     .andExpect(status().isOk());
         }
 
-        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get("/api/status").accept(MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(game + "/status").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(jsonPath("$.whiteStatus", is(ChessStatus.NORMAL.toString())))
                 .andExpect(jsonPath("$.blackStatus", is(ChessStatus.NORMAL.toString())))
@@ -198,13 +201,153 @@ class ChessControllerTest {
                 .andExpect(jsonPath("$.deleted[0].type", is("PAWN")))
                 .andExpect(status().isOk());
 
-        get = MockMvcRequestBuilders.get("/api/pieces").accept(MediaType.APPLICATION_JSON_VALUE);
+        get = MockMvcRequestBuilders.get(game + "/pieces").accept(MediaType.APPLICATION_JSON_VALUE);
         mockMvc.perform(get)
                 .andExpect(jsonPath("$", hasSize(31)))
                 .andExpect(status().isOk());
 
     }
 
+    @Test
+    void should_apply_a_batch_up_to_the_first_invalid_move() throws Exception {
+        List<MoveDTO> moves = List.of(buildMove("E2", "E4"), buildMove("D7", "D5"), buildMove("E4", "Z9"), buildMove("D5", "D4"));
+
+        perform(batch(moves))
+                .andExpect(jsonPath("$.applied", is(2)))
+                .andExpect(jsonPath("$.error", is("INVALID_MOVE")))
+                .andExpect(jsonPath("$.status.turn", is(Color.WHITE.toString())))
+                .andExpect(status().isOk());
+
+        perform(batch(List.of(buildMove("E4", "D5"), buildMove("D8", "D5"))))
+                .andExpect(jsonPath("$.applied", is(2)))
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.status.deleted", hasSize(2)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void should_take_back_the_last_move() throws Exception {
+        perform(move(buildMove("E2", "E4")))
+                .andExpect(status().isOk());
+
+        perform(MockMvcRequestBuilders.post(game + "/takeback"))
+                .andExpect(jsonPath("$.turn", is(Color.WHITE.toString())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(game + "/pieces/E2"))
+                .andExpect(jsonPath("$.type", is("PAWN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void should_create_games_and_read_their_statuses_at_once() throws Exception {
+        byte[] body = perform(MockMvcRequestBuilders.post("/api/games").param("count", "3"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        GameIdsDTO created = objectMapper.readValue(body, GameIdsDTO.class);
+        assertThat(created.ids()).hasSize(3);
+
+        UUID unknown = UUID.randomUUID();
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/games/status")
+                                              .contentType(MediaType.APPLICATION_JSON)
+                                              .content(objectMapper.writeValueAsBytes(List.of(created.ids().get(0), unknown, created.ids().get(2)))))
+                .andExpect(jsonPath("$.statuses.length()", is(2)))
+                .andExpect(jsonPath("$.statuses['" + created.ids().get(0) + "'].turn", is(Color.WHITE.toString())))
+                .andExpect(jsonPath("$.missing[0]", is(unknown.toString())))
+                .andExpect(status().isOk());
+
+        perform(MockMvcRequestBuilders.post("/api/games").param("count", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void should_push_moves_as_server_sent_events() throws Exception {
+        MvcResult events = mockMvc.perform(MockMvcRequestBuilders.get(game + "/events").accept(MediaType.TEXT_EVENT_STREAM))
+                                  .andExpect(status().isOk())
+                                  .andReturn();
+        assertThat(events.getRequest().isAsyncStarted()).isTrue();
+
+        perform(move(buildMove("E2", "E4")))
+                .andExpect(status().isOk());
+
+        String stream = "";
+        for (int i = 0; i < 100 && !stream.contains("\"to\":\"E4\""); i++) {
+            Thread.sleep(10);
+            stream = events.getResponse().getContentAsString();
+        }
+        assertThat(stream).contains("event:MOVE", "\"from\":\"E2\"", "\"to\":\"E4\"");
+    }
+
+    @Test
+    void should_report_store_journal_and_shard_stats() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/games/stats"))
+                .andExpect(jsonPath("$.size", greaterThanOrEqualTo(1)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/games/journal"))
+                .andExpect(jsonPath("$.appended", is(0)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/shards"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void should_read_an_archived_game_and_its_positions() throws Exception {
+        UUID id = UUID.randomUUID();
+        List<PlannedMove> moves = List.of(new PlannedMove(at(6, 5), to(5, 5)),
+                                          new PlannedMove(at(1, 4), to(3, 4)),
+                                          new PlannedMove(at(6, 6), to(4, 6)),
+                                          new PlannedMove(at(0, 3), to(4, 7)));
+        ChessGame mated = new ChessGame();
+        moves.forEach(move -> mated.moveTo(move.origin(), move.destination()));
+        given(archive.get(id)).willReturn(new GameArchive.Archived(id, 0, moves));
+        given(archive.position(id, 4)).willReturn(mated);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/archive/" + id))
+                .andExpect(jsonPath("$.lastPly", is(4)))
+                .andExpect(jsonPath("$.moves", hasSize(4)))
+                .andExpect(jsonPath("$.moves[3].from", is("D8")))
+                .andExpect(jsonPath("$.moves[3].to", is("H4")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/archive/" + id + "/position"))
+                .andExpect(jsonPath("$.ply", is(4)))
+                .andExpect(jsonPath("$.status.whiteStatus", is(ChessStatus.CHECKMATE.toString())))
+                .andExpect(jsonPath("$.pieces", hasSize(32)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/archive/" + id + "/position").param("ply", "5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/archive/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder move(MoveDTO moveDTO) throws Exception {
+        return MockMvcRequestBuilders.post(game + "/moves")
+                .accept(MediaType.APPLICATION_JSON_VALUE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(moveDTO));
+    }
+
+    private MockHttpServletRequestBuilder batch(List<MoveDTO> moves) throws Exception {
+        return MockMvcRequestBuilders.post(game + "/moves/batch")
+                .accept(MediaType.APPLICATION_JSON_VALUE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(moves));
+    }
+
+    /**
+     * changes are answered by a {@link java.util.concurrent.CompletableFuture}, the result comes from the async dispatch
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
     private static MoveDTO buildMove(String A7, String A6) {
         return new MoveDTO(A7, A6);
     }
@@ -0,0 +1,114 @@
+package com.lassis.chess.web.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lassis.chess.game.ChessGame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEventBroadcasterTest {
+    final AtomicInteger serializations = new AtomicInteger();
+    final ObjectMapper objectMapper = new ObjectMapper() {
+        @Override
+        public String writeValueAsString(Object value) throws JsonProcessingException {
+            serializations.incrementAndGet();
+            return super.writeValueAsString(value);
+        }
+    };
+    final GameEventBroadcaster events = new GameEventBroadcaster(objectMapper, new ObjectTransformer(), 1);
+
+    @AfterEach
+    void close() {
+        events.destroy();
+    }
+
+    @Test
+    void should_serialize_each_event_once_for_all_subscribers() throws InterruptedException {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        RecordingSubscriber first = new RecordingSubscriber(2);
+        RecordingSubscriber second = new RecordingSubscriber(2);
+        events.subscribe(id, game, first);
+        events.subscribe(id, game, second);
+
+        game.moveTo(at(6, 4), to(4, 4));
+        game.moveTo(at(1, 3), to(3, 3));
+
+        assertThat(first.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(serializations.get()).isEqualTo(2);
+        assertThat(first.frames).containsExactlyElementsOf(second.frames);
+        assertThat(first.frames.get(0).type()).isEqualTo("MOVE");
+        assertThat(first.frames.get(0).json()).contains("\"from\":\"E2\"", "\"to\":\"E4\"", "\"turn\":\"BLACK\"");
+        assertThat(first.frames.get(1).json()).contains("\"ply\":2");
+    }
+
+    @Test
+    void should_drop_subscribers_that_are_gone() throws InterruptedException {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        RecordingSubscriber gone = new RecordingSubscriber(1);
+        gone.open = false;
+        events.subscribe(id, game, gone);
+
+        game.moveTo(at(6, 4), to(4, 4));
+
+        assertThat(gone.received.await(5, TimeUnit.SECONDS)).isTrue();
+        // the subscriber is dropped right after its failed send
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.subscribers(id) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(events.subscribers(id)).isZero();
+    }
+
+    @Test
+    void should_close_subscribers_when_the_game_is_removed() {
+        UUID id = UUID.randomUUID();
+        ChessGame game = new ChessGame();
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        events.subscribe(id, game, subscriber);
+
+        events.close(id);
+        game.moveTo(at(6, 4), to(4, 4));
+
+        assertThat(subscriber.closed).isTrue();
+        assertThat(events.subscribers(id)).isZero();
+        assertThat(serializations.get()).isZero();
+    }
+
+    private static class RecordingSubscriber implements GameEventBroadcaster.Subscriber {
+        private final List<GameEventBroadcaster.Frame> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private volatile boolean open = true;
+        private volatile boolean closed;
+
+        private RecordingSubscriber(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public boolean send(GameEventBroadcaster.Frame frame) {
+            frames.add(frame);
+            received.countDown();
+            return open;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.lassis.chess.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lassis.chess.game.BoundedGameStore;
+import com.lassis.chess.game.ChessGame;
+import com.lassis.chess.game.FileGameArchive;
+import com.lassis.chess.game.FileGameJournal;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.GameJournal;
+import com.lassis.chess.game.GameShards;
+import com.lassis.chess.game.PositionCache;
+import com.lassis.chess.model.ChessGameStatus;
+import com.lassis.chess.model.Color;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.lassis.chess.game.ChessGameTest.at;
+import static com.lassis.chess.game.ChessGameTest.to;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameRegistryTest {
+    final GameEventBroadcaster events = new GameEventBroadcaster(new ObjectMapper(), new ObjectTransformer(), 1);
+    final GameRegistry games = new GameRegistry(PositionCache.disabled(), GameExecutor.locking(), events, new BoundedGameStore(1_000, Duration.ZERO, 0), GameJournal.disabled(), GameArchive.disabled());
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void close() {
+        events.destroy();
+    }
+
+    @Test
+    void should_create_many_games() {
+        List<UUID> ids = games.create(100);
+
+        assertThat(ids).hasSize(100);
+        assertThat(new HashSet<>(ids)).hasSize(100);
+        assertThat(ids.stream().allMatch(id -> games.get(id) != null)).isTrue();
+    }
+
+    @Test
+    void should_read_statuses_in_order_and_report_missing_games() {
+        List<UUID> ids = games.create(3);
+        games.get(ids.get(1)).moveTo(at(6, 4), to(4, 4));
+        UUID unknown = UUID.randomUUID();
+
+        Map<UUID, ChessGameStatus> statuses = new LinkedHashMap<>();
+        List<UUID> missing = games.statuses(List.of(ids.get(2), unknown, ids.get(1), ids.get(0)), statuses::put);
+
+        assertThat(missing).containsExactly(unknown);
+        assertThat(statuses.keySet()).containsExactly(ids.get(2), ids.get(1), ids.get(0));
+        assertThat(statuses.get(ids.get(1)).turn()).isEqualTo(Color.BLACK);
+        assertThat(statuses.get(ids.get(0)).turn()).isEqualTo(Color.WHITE);
+    }
+
+    @Test
+    void should_remove_games() {
+        UUID id = games.create();
+
+        assertThat(games.remove(id)).isTrue();
+        assertThat(games.remove(id)).isFalse();
+        assertThat(games.get(id)).isNull();
+    }
+
+    @Test
+    void should_close_the_subscribers_of_an_evicted_game() {
+        GameRegistry single = new GameRegistry(PositionCache.disabled(), GameExecutor.locking(), events, new BoundedGameStore(1, Duration.ZERO, 0), GameJournal.disabled(), GameArchive.disabled());
+        UUID first = single.create();
+        AtomicBoolean closed = new AtomicBoolean();
+        events.subscribe(first, single.get(first), new GameEventBroadcaster.Subscriber() {
+            @Override
+            public boolean send(GameEventBroadcaster.Frame frame) {
+                return true;
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+
+        single.create();
+
+        assertThat(single.get(first)).isNull();
+        assertThat(closed.get()).isTrue();
+        assertThat(events.subscribers(first)).isZero();
+        assertThat(single.stats().sizeEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void should_recover_a_game_created_while_a_snapshot_runs() {
+        UUID id;
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            BoundedGameStore store = new BoundedGameStore(1_000, Duration.ZERO, 0) {
+                @Override
+                public void put(UUID id, ChessGame game) {
+                    // the snapshot sees the store as it was before the new game, right next to its creation
+                    journal.snapshot(this);
+                    super.put(id, game);
+                }
+            };
+            GameRegistry journaled = new GameRegistry(PositionCache.disabled(), GameExecutor.locking(), events, store, journal, GameArchive.disabled());
+            id = journaled.create();
+            journaled.get(id).moveTo(at(6, 4), to(4, 4));
+            journal.sync().join();
+        }
+
+        try (FileGameJournal journal = new FileGameJournal(directory, 1024 * 1024, false, Duration.ZERO)) {
+            ChessGame recovered = journal.recover(PositionCache.disabled(), false).get(id);
+            assertThat(recovered).isNotNull();
+            assertThat(recovered.ply()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void should_archive_a_game_once_it_is_checkmate() throws InterruptedException {
+        shouldArchiveOnCheckmate(GameExecutor.locking());
+    }
+
+    @Test
+    void should_archive_a_game_once_it_is_checkmate_on_its_shard() throws InterruptedException {
+        try (GameShards shards = new GameShards(2)) {
+            shouldArchiveOnCheckmate(shards);
+        }
+    }
+
+    private void shouldArchiveOnCheckmate(GameExecutor executor) throws InterruptedException {
+        try (FileGameArchive archive = new FileGameArchive(directory, 1024 * 1024, PositionCache.disabled())) {
+            GameRegistry archiving = new GameRegistry(PositionCache.disabled(), executor, events, new BoundedGameStore(1_000, Duration.ZERO, 0), GameJournal.disabled(), archive);
+            UUID id = archiving.create();
+            ChessGame game = archiving.get(id);
+            executor.execute(id, () -> {
+                game.moveTo(at(6, 5), to(5, 5));
+                game.moveTo(at(1, 4), to(3, 4));
+                game.moveTo(at(6, 6), to(4, 6));
+                return game.moveTo(at(0, 3), to(4, 7));
+            }).join();
+
+            for (int i = 0; i < 100 && archiving.get(id) != null; i++) {
+                Thread.sleep(10);
+            }
+
+            assertThat(archiving.get(id)).isNull();
+            assertThat(archiving.archived(id).lastPly()).isEqualTo(4);
+            assertThat(archiving.archivedPosition(id, 4).snapshot().toString()).isEqualTo(game.snapshot().toString());
+            archiving.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.lassis.chess.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lassis.chess.game.BoundedGameStore;
+import com.lassis.chess.game.GameArchive;
+import com.lassis.chess.game.GameExecutor;
+import com.lassis.chess.game.GameJournal;
+import com.lassis.chess.game.GameShards;
+import com.lassis.chess.game.PositionCache;
+import com.lassis.chess.model.ChessStatus;
+import com.lassis.chess.model.Color;
+import com.lassis.chess.web.controller.model.GameIdsDTO;
+import com.lassis.chess.web.controller.model.MoveDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveChessControllerTest {
+    final GameShards shards = new GameShards(2);
+    WebTestClient client;
+    String game;
+
+    @BeforeEach
+    void newGame() {
+        ObjectTransformer transformer = new ObjectTransformer();
+        GameEventBroadcaster events = new GameEventBroadcaster(new ObjectMapper(), transformer, 1);
+        GameRegistry games = new GameRegistry(PositionCache.disabled(), shards, events, new BoundedGameStore(1_000, Duration.ZERO, 0), GameJournal.disabled(), GameArchive.disabled());
+        client = WebTestClient.bindToController(new ReactiveChessController(games, transformer, shards, events)).build();
+
+        URI location = client.post().uri("/api/game")
+                             .exchange()
+                             .expectStatus().isNoContent()
+                             .returnResult(Void.class)
+                             .getResponseHeaders()
+                             .getLocation();
+        assertThat(location).isNotNull();
+        game = location.toString();
+    }
+
+    @AfterEach
+    void close() {
+        shards.close();
+    }
+
+    @Test
+    void should_refuse_the_locking_executor() {
+        ObjectTransformer transformer = new ObjectTransformer();
+        GameEventBroadcaster events = new GameEventBroadcaster(new ObjectMapper(), transformer, 1);
+        GameRegistry games = new GameRegistry(PositionCache.disabled(), GameExecutor.locking(), events, new BoundedGameStore(1_000, Duration.ZERO, 0), GameJournal.disabled(), GameArchive.disabled());
+
+        assertThatThrownBy(() -> new ReactiveChessController(games, transformer, GameExecutor.locking(), events))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void should_move_piece_on_its_shard() {
+        client.post().uri(game + "/moves")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(new MoveDTO("A2", "A4"))
+              .exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals("turn", Color.BLACK.toString())
+              .expectBody()
+              .jsonPath("$.squareId").isEqualTo("A4")
+              .jsonPath("$.type").isEqualTo("PAWN");
+
+        client.get().uri(game + "/status")
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.whiteStatus").isEqualTo(ChessStatus.NORMAL.toString())
+              .jsonPath("$.turn").isEqualTo(Color.BLACK.toString());
+    }
+
+    @Test
+    void should_apply_a_batch_up_to_the_first_invalid_move() {
+        client.post().uri(game + "/moves/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(List.of(new MoveDTO("E2", "E4"), new MoveDTO("D7", "D5"), new MoveDTO("E4", "Z9"), new MoveDTO("D5", "D4")))
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.applied").isEqualTo(2)
+              .jsonPath("$.error").isEqualTo("INVALID_MOVE")
+              .jsonPath("$.status.turn").isEqualTo(Color.WHITE.toString());
+
+        client.post().uri(game + "/moves/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(List.of(new MoveDTO("E4", "D5"), new MoveDTO("D8", "D5")))
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.applied").isEqualTo(2)
+              .jsonPath("$.error").doesNotExist()
+              .jsonPath("$.status.deleted.length()").isEqualTo(2);
+    }
+
+    @Test
+    void should_create_games_and_read_their_statuses_at_once() {
+        GameIdsDTO created = client.post().uri("/api/games?count=3")
+                                   .exchange()
+                                   .expectStatus().isOk()
+                                   .expectBody(GameIdsDTO.class)
+                                   .returnResult()
+                                   .getResponseBody();
+        assertThat(created).isNotNull();
+        assertThat(created.ids()).hasSize(3);
+
+        UUID unknown = UUID.randomUUID();
+        client.post().uri("/api/games/status")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(List.of(created.ids().get(0), unknown, created.ids().get(2)))
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.statuses.length()").isEqualTo(2)
+              .jsonPath("$.statuses['" + created.ids().get(0) + "'].turn").isEqualTo(Color.WHITE.toString())
+              .jsonPath("$.missing[0]").isEqualTo(unknown.toString());
+
+        client.post().uri("/api/games?count=0")
+              .exchange()
+              .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void should_be_409_black_trying_to_move_on_white_turn() {
+        client.post().uri(game + "/moves")
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(new MoveDTO("A7", "A6"))
+              .exchange()
+              .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void should_retrieve_32_pieces_and_sort() {
+        client.get().uri(game + "/pieces")
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.length()").isEqualTo(32)
+              .jsonPath("$[0].squareId").isEqualTo("A1");
+    }
+
+    @Test
+    void should_retrieve_piece_detail() {
+        client.get().uri(game + "/pieces/B1")
+              .exchange()
+              .expectStatus().isOk()
+              .expectBody()
+              .jsonPath("$.allowedMoves.length()").isEqualTo(2);
+    }
+
+    @Test
+    void should_push_moves_as_server_sent_events() {
+        var events = client.get().uri(game + "/events")
+                           .accept(MediaType.TEXT_EVENT_STREAM)
+                           .exchange()
+                           .expectStatus().isOk()
+                           .returnResult(String.class)
+                           .getResponseBody();
+
+        StepVerifier.create(events.take(1))
+                    .then(() -> client.post().uri(game + "/moves")
+                                      .contentType(MediaType.APPLICATION_JSON)
+                                      .bodyValue(new MoveDTO("E2", "E4"))
+                                      .exchange()
+                                      .expectStatus().isOk())
+                    .assertNext(json -> assertThat(json).contains("\"from\":\"E2\"", "\"to\":\"E4\""))
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void should_be_404_unknown_game() {
+        client.get().uri("/api/game/" + UUID.randomUUID() + "/pieces")
+              .exchange()
+              .expectStatus().isNotFound();
+    }
+
+}